@@ -0,0 +1,64 @@
+package artificialLifeSimulator;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The grid kernels written with the JDK's incubating vector API, comparing as
+ * many map spaces at a time as the processor's widest registers hold. Only
+ * loaded by {@link GridKernels#get()} when the jdk.incubator.vector module is
+ * available, since the class cannot be loaded without it. It is kept out of
+ * the main source folder so the simulator builds without the module.
+ *
+ * @author Jed Brennen
+ * @see GridKernels
+ *
+ */
+class VectorGridKernels extends GridKernels {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+	private static final ByteVector ZERO = ByteVector.zero(SPECIES);
+
+	// Each thread's flag bytes for the lanes picked out, reused so sweeping a
+	// row does not allocate.
+	private static final ThreadLocal<long[]> WORDS = ThreadLocal
+			.withInitial(() -> new long[SPECIES.length() / 8]);
+
+	public boolean isVectorized() {
+		return true;
+	}
+
+	public int select(byte[] types, int from, int to, byte low, byte high, int[] indices) {
+		long[] words = WORDS.get();
+		int count = 0;
+		int i = from;
+		int bound = from + SPECIES.loopBound(to - from);
+		for (; i < bound; i += SPECIES.length()) {
+			// Types between low and high are those no more than high - low
+			// above low, counting without a sign.
+			VectorMask<Byte> picked = ByteVector.fromArray(SPECIES, types, i).sub(low)
+					.compare(VectorOperators.UNSIGNED_LE, (byte) (high - low));
+			if (!picked.anyTrue()) {
+				continue;
+			}
+			// Reads the picked lanes back as one flag byte each, eight to a
+			// long.
+			ZERO.blend((byte) 1, picked).reinterpretAsLongs().intoArray(words, 0);
+			for (int w = 0; w < words.length; w++) {
+				for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+					indices[count++] = i + w * 8 + (Long.numberOfTrailingZeros(bits) >>> 3);
+				}
+			}
+		}
+		for (; i < to; i++) {
+			byte type = types[i];
+			if (type >= low && type <= high) {
+				indices[count++] = i;
+			}
+		}
+		return count;
+	}
+}
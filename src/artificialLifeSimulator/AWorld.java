@@ -1,12 +1,19 @@
 package artificialLifeSimulator;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
 
 import worldObjects.AFood;
 import worldObjects.ALifeForm;
@@ -24,13 +31,42 @@ public class AWorld implements Serializable {
 
 	private static final long serialVersionUID = 6889237664144514601L;
 
-	private ArrayList<ALifeForm> lifeFormList = new ArrayList<>();
-	private ArrayList<AWorldObject> foodList = new ArrayList<>();
-	private ArrayList<AWorldObject> obstacleList = new ArrayList<>();
-	private AWorldObject[][] map;
+	// The lists are written as they were when they were array lists, so
+	// worlds saved before and after they were indexed can still be read.
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("lifeFormList", ArrayList.class),
+			new ObjectStreamField("foodList", ArrayList.class),
+			new ObjectStreamField("obstacleList", ArrayList.class),
+			new ObjectStreamField("width", int.class), new ObjectStreamField("height", int.class),
+			new ObjectStreamField("foodDensity", double.class), new ObjectStreamField("objDensity", double.class),
+			new ObjectStreamField("seed", long.class), new ObjectStreamField("random", RandomStream.class) };
+
+	private IndexedEntitySet<ALifeForm> lifeFormList = new IndexedEntitySet<>();
+	private IndexedEntitySet<AWorldObject> foodList = new IndexedEntitySet<>();
+	private IndexedEntitySet<AWorldObject> obstacleList = new IndexedEntitySet<>();
+	private transient WorldGrid grid;
+	private transient FreeCellIndex freeCells;
+	private transient OccupancyIndex occupancy;
+	private transient boolean sparse;
+	private transient Map<String, SensingMode> sensingModes;
+	// Indexed by the type of prey.
+	private transient volatile SensingField[] sensingFields;
+	private transient volatile DistanceField[] distanceFields;
+	private transient volatile PathCache pathCache;
+	private transient volatile ChangeSet changes;
+	private transient volatile DensityPyramid densities;
+	private transient ObservedGrid observed;
 	private int width, height;
 	private double foodDensity, objDensity;
+	private long seed;
+	private RandomStream random;
+	private transient ArrayList<ALifeForm> liveLifeForms;
+	private transient LifeFormStore lifeFormStore;
+	private transient int aliveCount, deadCount;
+	private transient int version;
 	private transient Configuration config;
+	private transient int[] loadedCells;
+	private transient AWorldObject[] loadedObjects;
 
 	/**
 	 * Class containing all objects contained within the world.
@@ -41,7 +77,8 @@ public class AWorld implements Serializable {
 		height = Integer.parseInt(config.getProperty("mapHeight"));
 		foodDensity = Double.parseDouble(config.getProperty("foodDensity"));
 		objDensity = Double.parseDouble(config.getProperty("objDensity"));
-		map = new AWorldObject[height][width];
+		seed = readSeed(config);
+		createGrid(config, height, width);
 	}
 
 	/**
@@ -56,82 +93,67 @@ public class AWorld implements Serializable {
 		height = Integer.parseInt(config.getProperty("mapHeight"));
 		foodDensity = Double.parseDouble(config.getProperty("foodDensity"));
 		objDensity = Double.parseDouble(config.getProperty("objDensity"));
-		map = new AWorldObject[height][width];
+		seed = readSeed(config);
+		createGrid(config, height, width);
 	}
 
 	/**
-	 * Places the specified LifeForm in the map. The method will search for an
-	 * empty map space to place the LifeForm in first before overwritting other
-	 * non-LifeForm world objects.
+	 * Places the specified LifeForm in the map. If the LifeForm's own map
+	 * space is taken it is placed in an empty map space picked at random, or,
+	 * if there are none, in a random map space holding food or an obstacle,
+	 * which is removed. The LifeForm is not placed if the map is full of
+	 * LifeForms.
 	 * 
 	 * @param lf
 	 *            - LifeForm to place in the world.
+	 * @see #isFull()
 	 */
 	public void placeLifeForm(ALifeForm lf) {
-		boolean placed;
-		int y, x;
-
-		placed = false;
-		y = lf.getY();
-		x = lf.getX();
+		invalidateLifeForms();
+		int y = lf.getY();
+		int x = lf.getX();
 		// Checks whether the map space the bug is being placed in is
 		// available.
-		if (y < height && x < width && !(map[y][x] instanceof AWorldObject)) {
-			map[y][x] = lf;
-			placed = true;
-		} else {
-			// Loops through the map checking whether there is an empty space
-			// and whether the map is full i.e. full of LifeForms
-			boolean positionAvailable = false;
-			boolean mapFull = true;
-			for (AWorldObject[] mapY : map) {
-				for (AWorldObject mapX : mapY) {
-					if (mapX == null) {
-						positionAvailable = true;
-					}
-					if (!(mapX instanceof ALifeForm)) {
-						mapFull = false;
-					}
-				}
-			}
-
-			if (!mapFull) {
-				if (positionAvailable) {
-					// Loops until LifeForm is placed in an empty space on the
-					// map.
-					do {
-						y = (int) Math.round(Math.random() * (height - 1));
-						x = (int) Math.round(Math.random() * (width - 1));
-						if (!(map[y][x] instanceof AWorldObject)) {
-							lf.setY(y);
-							lf.setX(x);
-							map[y][x] = lf;
-							placed = true;
-						}
-					} while (!placed);
-				} else {
-					do {
-						// Loops until a non-LifeForm map space is found and
-						// removes
-						// the non-LifeForm object.
-						y = (int) Math.round(Math.random() * (height - 1));
-						x = (int) Math.round(Math.random() * (width - 1));
-						if (!(map[y][x] instanceof ALifeForm)) {
-							if (map[y][x] instanceof AFood) {
-								foodList.remove(map[y][x]);
-							} else if (map[y][x] instanceof AnObstacle) {
-								obstacleList.remove(map[y][x]);
-							}
-							lf.setY(y);
-							lf.setX(x);
-							map[y][x] = lf;
-							placed = true;
-						}
-					} while (!placed);
-				}
+		if (y >= 0 && y < height && x >= 0 && x < width && grid.get(y, x) == null) {
+			grid.set(y, x, lf);
+			return;
+		}
+		long cell = freeCells.randomEmptyCell(getRandom());
+		if (cell < 0) {
+			cell = freeCells.randomOpenCell(getRandom());
+			if (cell < 0) {
+				return;
 			}
 		}
+		y = (int) (cell / width);
+		x = (int) (cell % width);
+		AWorldObject object = grid.get(y, x);
+		if (object instanceof AFood) {
+			foodList.remove(object);
+		} else if (object instanceof AnObstacle) {
+			obstacleList.remove(object);
+		}
+		lf.setY(y);
+		lf.setX(x);
+		grid.set(y, x, lf);
+	}
+
+	/**
+	 * @return true if every map space holds a LifeForm, so no more LifeForms
+	 *         can be placed.
+	 */
+	public boolean isFull() {
+		return freeCells.isFull();
+	}
 
+	/**
+	 * Returns the counts of the map spaces holding each type of object, which
+	 * can also pick empty map spaces at random.
+	 * 
+	 * @return the world's counts of map spaces.
+	 */
+	public FreeCellIndex getFreeCells() {
+		return freeCells;
 	}
 
 	/**
@@ -148,51 +170,103 @@ public class AWorld implements Serializable {
 	public void placeFood(boolean reset) {
 		if (foodList.isEmpty() || reset) {
 			foodList.clear();
-			double rand;
-			for (int y = 0; y < height; y++) {
-				for (int x = 0; x < width; x++) {
-					rand = Math.random();
-					if (rand < foodDensity) {
-						int value = (int) Math.round(Math.random() * 9);
-						if (value == 0) {
-							value = 1;
-						}
-						AWorldObject obstacle;
-						AWorldObject f = new AFood(this, value, decide(3));
-						if (map[y][x] == null) {
-							f.setX(x);
-							f.setY(y);
-							map[y][x] = f;
-							foodList.add(f);
-						} else if (map[y][x] instanceof AnObstacle) {
-							if (decide(2)) {
-								obstacle = map[y][x];
-								f.setX(x);
-								f.setY(y);
-								map[y][x] = f;
-								obstacleList.remove(obstacle);
-								foodList.add(f);
-							}
-						}
+			long cells = (long) width * height;
+			for (long cell = nextPlacement(-1, foodDensity); cell < cells; cell = nextPlacement(cell, foodDensity)) {
+				int y = (int) (cell / width);
+				int x = (int) (cell % width);
+				int value = (int) Math.round(getRandom().nextDouble() * 9);
+				if (value == 0) {
+					value = 1;
+				}
+				AWorldObject obstacle;
+				AWorldObject f = new AFood(this, value, decide(3));
+				if (grid.get(y, x) == null) {
+					f.setX(x);
+					f.setY(y);
+					grid.set(y, x, f);
+					foodList.add(f);
+				} else if (grid.get(y, x) instanceof AnObstacle) {
+					if (decide(2)) {
+						obstacle = grid.get(y, x);
+						f.setX(x);
+						f.setY(y);
+						grid.set(y, x, f);
+						obstacleList.remove(obstacle);
+						foodList.add(f);
 					}
 				}
 			}
 		} else {
 			for (AWorldObject f : foodList) {
 				if (f.getTimer() == 0) {
-					if (map[f.getY()][f.getX()] instanceof AnObstacle) {
-						if (decide(2)) {
-							obstacleList.remove(map[f.getY()][f.getX()]);
-							map[f.getY()][f.getX()] = f;
-						}
-					} else if (map[f.getY()][f.getX()] == null) {
-						map[f.getY()][f.getX()] = f;
-					}
+					regrowFood((AFood) f);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Picks the next map space to place an object in when each map space is
+	 * given the same chance of holding one. A random number is drawn for each
+	 * map space in turn, so a seed places the same objects as it always has.
+	 * On a chunked grid the number of map spaces skipped before the next one
+	 * chosen is drawn directly instead, so placing a few objects on a large
+	 * map does not have to visit the whole map. The same seed then places
+	 * objects differently on a chunked grid than on the other grids.
+	 * 
+	 * @param cell
+	 *            - the index of the last map space chosen, counting along each
+	 *            row in turn, or -1 to start from the first map space.
+	 * @param density
+	 *            - the chance of each map space being chosen.
+	 * @return the index of the next map space chosen, which is past the end
+	 *         of the map once there are no more.
+	 */
+	private long nextPlacement(long cell, double density) {
+		if (!sparse) {
+			long cells = (long) width * height;
+			for (long next = cell + 1; next < cells; next++) {
+				if (getRandom().nextDouble() < density) {
+					return next;
+				}
+			}
+			return Long.MAX_VALUE;
+		} else if (density <= 0) {
+			return Long.MAX_VALUE;
+		} else if (density >= 1) {
+			return cell + 1;
+		}
+		double skipped = Math.floor(Math.log(1 - getRandom().nextDouble()) / Math.log(1 - density));
+		if (skipped >= Long.MAX_VALUE - cell - 1) {
+			return Long.MAX_VALUE;
+		}
+		return cell + 1 + (long) skipped;
+	}
+
+	/**
+	 * Places a single food object back in to the map once it has regrown. The
+	 * food is placed if its map space is empty, or decides whether to replace
+	 * an obstacle occupying the space.
+	 * 
+	 * @param f
+	 *            - the food to place back in to the map.
+	 * @return true if the food was placed in the map.
+	 */
+	public boolean regrowFood(AFood f) {
+		AWorldObject object = grid.get(f.getY(), f.getX());
+		if (object instanceof AnObstacle) {
+			if (decide(2)) {
+				obstacleList.remove(object);
+				grid.set(f.getY(), f.getX(), f);
+				return true;
+			}
+		} else if (object == null) {
+			grid.set(f.getY(), f.getX(), f);
+			return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Places the obstalces on the map based on the obstacle density value
 	 * specified by the user. Won't place obstacles over LifeForms and decides
@@ -208,41 +282,37 @@ public class AWorld implements Serializable {
 	public void placeObstacles(boolean reset) {
 		if (obstacleList.isEmpty() || reset) {
 			obstacleList.clear();
-			double rand;
-			for (int y = 0; y < height; y++) {
-				for (int x = 0; x < width; x++) {
-					rand = Math.random();
-					if (rand < objDensity) {
-						AWorldObject food;
-						AWorldObject o = new AnObstacle(this);
-						if (map[y][x] == null) {
-							o.setX(x);
-							o.setY(y);
-							map[y][x] = o;
-							obstacleList.add(o);
-						} else if (map[y][x] instanceof AFood) {
-							if (decide(2)) {
-								food = map[y][x];
-								o.setX(x);
-								o.setY(y);
-								map[y][x] = o;
-								foodList.remove(food);
-								obstacleList.add(o);
-							}
-						}
-
+			long cells = (long) width * height;
+			for (long cell = nextPlacement(-1, objDensity); cell < cells; cell = nextPlacement(cell, objDensity)) {
+				int y = (int) (cell / width);
+				int x = (int) (cell % width);
+				AWorldObject food;
+				AWorldObject o = new AnObstacle(this);
+				if (grid.get(y, x) == null) {
+					o.setX(x);
+					o.setY(y);
+					grid.set(y, x, o);
+					obstacleList.add(o);
+				} else if (grid.get(y, x) instanceof AFood) {
+					if (decide(2)) {
+						food = grid.get(y, x);
+						o.setX(x);
+						o.setY(y);
+						grid.set(y, x, o);
+						foodList.remove(food);
+						obstacleList.add(o);
 					}
 				}
 			}
 		} else {
 			for (AWorldObject o : obstacleList) {
-				if (map[o.getY()][o.getX()] instanceof AFood) {
+				if (grid.get(o.getY(), o.getX()) instanceof AFood) {
 					if (decide(2)) {
-						foodList.remove(map[o.getY()][o.getX()]);
-						map[o.getY()][o.getX()] = o;
+						foodList.remove(grid.get(o.getY(), o.getX()));
+						grid.set(o.getY(), o.getX(), o);
 					}
-				} else if (map[o.getY()][o.getX()] == null) {
-					map[o.getY()][o.getX()] = o;
+				} else if (grid.get(o.getY(), o.getX()) == null) {
+					grid.set(o.getY(), o.getX(), o);
 				}
 			}
 		}
@@ -252,11 +322,8 @@ public class AWorld implements Serializable {
 	 * Sets all values in the map array to null.
 	 */
 	public void clearMap() {
-		for (int i = 0; i < map.length; i++) {
-			for (int j = 0; j < map[i].length; j++) {
-				map[i][j] = null;
-			}
-		}
+		invalidateLifeForms();
+		grid.clear();
 	}
 
 	/**
@@ -267,7 +334,7 @@ public class AWorld implements Serializable {
 	 * @return true if random number is lower than 1 / denominator.
 	 */
 	public boolean decide(double denominator) {
-		double rand = Math.random();
+		double rand = getRandom().nextDouble();
 		double threshold = 1 / denominator;
 		if (rand < threshold) {
 			return true;
@@ -311,12 +378,43 @@ public class AWorld implements Serializable {
 				this.lifeFormList = tempWorld.lifeFormList;
 				this.foodList = tempWorld.foodList;
 				this.obstacleList = tempWorld.obstacleList;
-				this.map = tempWorld.map;
+				createGrid(config, tempWorld.height, tempWorld.width);
+				tempWorld.fillGrid(grid);
 				this.width = tempWorld.width;
 				this.height = tempWorld.height;
 				this.foodDensity = tempWorld.foodDensity;
 				this.objDensity = tempWorld.objDensity;
+				// Worlds saved before seeds were added take the configuration's
+				// seed instead.
+				// Worlds saved before the random number generators were saved
+				// start theirs again from the seed.
+				if (tempWorld.seed != 0) {
+					this.seed = tempWorld.seed;
+					this.random = tempWorld.random;
+					config.setProperty("seed", Long.toString(seed));
+				} else {
+					this.seed = readSeed(config);
+					this.random = null;
+				}
 				this.config = config;
+				// Points the loaded objects at this world rather than the
+				// temporary one they were read in to.
+				for (ALifeForm a : lifeFormList) {
+					a.world = this;
+					if (a.getInitialLifeForm() != null) {
+						a.getInitialLifeForm().world = this;
+					}
+				}
+				for (AWorldObject a : foodList) {
+					a.world = this;
+					if (((AFood) a).getInitialFood() != null) {
+						((AFood) a).getInitialFood().world = this;
+					}
+				}
+				for (AWorldObject a : obstacleList) {
+					a.world = this;
+				}
+				invalidateLifeForms();
 				ois.close();
 			} catch (IOException | ClassNotFoundException e) {
 				e.printStackTrace();
@@ -327,6 +425,119 @@ public class AWorld implements Serializable {
 		}
 	}
 
+	/**
+	 * Writes the world to a stream. Only the occupied map spaces are written,
+	 * so the size of a saved world does not depend on the type of grid used.
+	 * 
+	 * @param out
+	 *            - the stream to write to.
+	 * @throws IOException
+	 *             if the world could not be written.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("lifeFormList", new ArrayList<>(lifeFormList));
+		fields.put("foodList", new ArrayList<>(foodList));
+		fields.put("obstacleList", new ArrayList<>(obstacleList));
+		fields.put("width", width);
+		fields.put("height", height);
+		fields.put("foodDensity", foodDensity);
+		fields.put("objDensity", objDensity);
+		fields.put("seed", seed);
+		fields.put("random", random);
+		out.writeFields();
+		int[] count = new int[1];
+		grid.forEachOccupied((y, x, object) -> count[0]++);
+		out.writeInt(count[0]);
+		try {
+			grid.forEachOccupied((y, x, object) -> {
+				try {
+					out.writeInt(y);
+					out.writeInt(x);
+					out.writeObject(object);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads a world from a stream. The occupied map spaces are held until the
+	 * world is loaded, when they are placed in a grid of the type given by the
+	 * configuration, so that a large map is never held in more than one grid.
+	 * 
+	 * @param in
+	 *            - the stream to read from.
+	 * @throws IOException
+	 *             if the world could not be read.
+	 * @throws ClassNotFoundException
+	 *             if a class of object in the world could not be found.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		lifeFormList = new IndexedEntitySet<>((ArrayList<ALifeForm>) fields.get("lifeFormList", new ArrayList<>()));
+		foodList = new IndexedEntitySet<>((ArrayList<AWorldObject>) fields.get("foodList", new ArrayList<>()));
+		obstacleList = new IndexedEntitySet<>((ArrayList<AWorldObject>) fields.get("obstacleList", new ArrayList<>()));
+		width = fields.get("width", 0);
+		height = fields.get("height", 0);
+		foodDensity = fields.get("foodDensity", 0.0);
+		objDensity = fields.get("objDensity", 0.0);
+		seed = fields.get("seed", 0L);
+		random = (RandomStream) fields.get("random", null);
+		int count;
+		try {
+			count = in.readInt();
+		} catch (EOFException e) {
+			// Worlds saved before the map was written as a list of occupied
+			// map spaces have their map rebuilt from the world's objects.
+			return;
+		}
+		loadedCells = new int[count * 2];
+		loadedObjects = new AWorldObject[count];
+		for (int i = 0; i < count; i++) {
+			loadedCells[i * 2] = in.readInt();
+			loadedCells[i * 2 + 1] = in.readInt();
+			loadedObjects[i] = (AWorldObject) in.readObject();
+		}
+	}
+
+	/**
+	 * Places the map spaces read from a world file in an empty grid. If the
+	 * world file did not list its map spaces, obstacles are placed first,
+	 * followed by food which is not regrowing and then living LifeForms, each
+	 * replacing whatever was placed before it.
+	 * 
+	 * @param target
+	 *            - the grid to place the map spaces in.
+	 */
+	private void fillGrid(WorldGrid target) {
+		if (loadedObjects != null) {
+			for (int i = 0; i < loadedObjects.length; i++) {
+				target.set(loadedCells[i * 2], loadedCells[i * 2 + 1], loadedObjects[i]);
+			}
+			loadedCells = null;
+			loadedObjects = null;
+			return;
+		}
+		for (AWorldObject o : obstacleList) {
+			target.set(o.getY(), o.getX(), o);
+		}
+		for (AWorldObject f : foodList) {
+			if (f.getTimer() == 0) {
+				target.set(f.getY(), f.getX(), f);
+			}
+		}
+		for (ALifeForm a : lifeFormList) {
+			if (a.isAlive()) {
+				target.set(a.getY(), a.getX(), a);
+			}
+		}
+	}
+
 	/**
 	 * Synchronises the world's attributes with the current values in the
 	 * configuration.
@@ -336,7 +547,130 @@ public class AWorld implements Serializable {
 		height = Integer.parseInt(config.getProperty("mapHeight"));
 		foodDensity = Double.parseDouble(config.getProperty("foodDensity"));
 		objDensity = Double.parseDouble(config.getProperty("objDensity"));
-		map = new AWorldObject[height][width];
+		long newSeed = readSeed(config);
+		if (newSeed != seed) {
+			seed = newSeed;
+			random = null;
+		}
+		createGrid(config, height, width);
+		invalidateLifeForms();
+	}
+
+	/**
+	 * Creates a new empty grid for the world's map, of the type given by the
+	 * configuration, and counts the map spaces holding each type of object as
+	 * objects are placed in it. Changes to the grid are passed on to anything
+	 * listening to the map. The way each species senses is read from the
+	 * configuration at the same time.
+	 * 
+	 * @param config
+	 *            - the configuration to read the type of grid from.
+	 * @param height
+	 *            - the number of rows in the map.
+	 * @param width
+	 *            - the number of columns in the map.
+	 */
+	private void createGrid(Configuration config, int height, int width) {
+		WorldGrid created = WorldGrid.create(config, height, width);
+		occupancy = created instanceof OccupancyIndex ? (OccupancyIndex) created : null;
+		sparse = "chunked".equalsIgnoreCase(config.getProperty("gridType"));
+		freeCells = new FreeCellIndex(created);
+		observed = new ObservedGrid(freeCells);
+		grid = observed;
+		sensingFields = null;
+		distanceFields = null;
+		pathCache = null;
+		densities = null;
+		ChangeSet changed = changes;
+		if (changed != null) {
+			// The subscribers are kept, and see the whole new map as changed.
+			changed.reset(width);
+			observed.addListener(changed);
+		}
+		sensingModes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (String species : new String[] { "herbivore", "carnivore" }) {
+			sensingModes.put(species, SensingMode.parse(config.getProperty(species + "Sensing")));
+		}
+	}
+
+	/**
+	 * Reads the seed from the configuration. If the configuration does not have
+	 * a seed a new one is generated and stored in the configuration, so that
+	 * the world can be recreated by saving the configuration.
+	 * 
+	 * @param config
+	 *            - the configuration to read the seed from.
+	 * @return the seed for the world's random numbers.
+	 */
+	private static long readSeed(Configuration config) {
+		String value = config.getProperty("seed");
+		if (value != null && !value.trim().isEmpty()) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				e.printStackTrace();
+			}
+		}
+		long newSeed = new SplittableRandom().nextLong();
+		config.setProperty("seed", Long.toString(newSeed));
+		return newSeed;
+	}
+
+	/**
+	 * Returns the world's own random number generator, used when placing
+	 * objects in the world. The generator is created from the world's seed the
+	 * first time it is used, and is saved with the world.
+	 * 
+	 * @return the world's random number generator.
+	 */
+	public RandomStream getRandom() {
+		if (random == null) {
+			random = new RandomStream(seed);
+		}
+		return random;
+	}
+
+	/**
+	 * Starts the world's random number generator again from the world's seed,
+	 * for when the simulation is rewound or reset.
+	 */
+	public void resetRandom() {
+		random = null;
+	}
+
+	/**
+	 * Creates a new random number generator for an object in the world. Each
+	 * stream ID gives a different sequence of numbers, but always the same
+	 * sequence for the same seed, so an object with its own generator does not
+	 * depend on the order in which other objects use theirs.
+	 * 
+	 * @param streamId
+	 *            - the ID of the stream, such as a LifeForm's ID.
+	 * @return a new random number generator for the stream.
+	 */
+	public RandomStream newRandom(long streamId) {
+		return new RandomStream(mix(seed + mix(streamId + 0x9E3779B97F4A7C15L)));
+	}
+
+	/**
+	 * Scrambles the bits of a value so that close values give unrelated
+	 * seeds.
+	 * 
+	 * @param z
+	 *            - the value to scramble.
+	 * @return the scrambled value.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return the seed used for the world's random numbers.
+	 */
+	public long getSeed() {
+		return seed;
 	}
 
 	/**
@@ -354,33 +688,470 @@ public class AWorld implements Serializable {
 	}
 
 	/**
-	 * Returns a 2-dimensional array of world objects which represents the world
-	 * map.
+	 * Returns the grid which holds the object in each map space. The grid
+	 * should only be read; objects are placed in the map using
+	 * {@link #setMapValue(AWorldObject, int, int)}.
+	 * 
+	 * @return the world's map grid.
+	 */
+	public WorldGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Finds the nearest map space holding the given type of object in a
+	 * direction from a map space, looking only at map spaces within the given
+	 * range of distances. If the grid keeps an {@link OccupancyIndex} of the
+	 * type the map spaces in between are skipped, otherwise each one is
+	 * looked at in turn.
+	 * 
+	 * @param type
+	 *            - the type of object to look for.
+	 * @param y
+	 *            - the row of the map space to look from.
+	 * @param x
+	 *            - the column of the map space to look from.
+	 * @param d
+	 *            - the direction to look in.
+	 * @param from
+	 *            - the smallest distance to look at.
+	 * @param to
+	 *            - the largest distance to look at.
+	 * @return the distance to the nearest map space found, or -1 if there is
+	 *         none before the edge of the map.
+	 */
+	public int nextAlong(byte type, int y, int x, Direction d, int from, int to) {
+		switch (d) {
+		case NORTH:
+			to = Math.min(to, y);
+			break;
+		case SOUTH:
+			to = Math.min(to, height - 1 - y);
+			break;
+		case EAST:
+			to = Math.min(to, width - 1 - x);
+			break;
+		case WEST:
+			to = Math.min(to, x);
+			break;
+		}
+		if (occupancy != null && occupancy.isIndexed(type)) {
+			return occupancy.nextAlong(type, y, x, d, from, to);
+		}
+		for (int i = from; i <= to; i++) {
+			if (grid.getType(y + d.getDY() * i, x + d.getDX() * i) == type) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the way a species of LifeForm senses its prey, given by the
+	 * configuration's property named after the species followed by Sensing,
+	 * such as herbivoreSensing.
 	 * 
-	 * @return the world's map array.
+	 * @param species
+	 *            - the name of the species.
+	 * @return the species' way of sensing, which is {@link SensingMode#AXIS}
+	 *         if the configuration does not give one.
 	 */
-	public AWorldObject[][] getMap() {
-		return map;
+	public SensingMode getSensingMode(String species) {
+		SensingMode mode = sensingModes.get(species);
+		return mode == null ? SensingMode.AXIS : mode;
+	}
+
+	/**
+	 * Returns the summed-area tables of a type of prey used by a way of
+	 * sensing, building them from the map if they have not been used before.
+	 * Once built, the tables are rebuilt at the start of every cycle.
+	 * 
+	 * @param type
+	 *            - the type of prey.
+	 * @param mode
+	 *            - the way of sensing.
+	 * @return the tables, or null if the map is too large for them.
+	 * @see #refreshSensing()
+	 */
+	public SensingField getSensingField(byte type, SensingMode mode) {
+		SensingField[] fields = sensingFields;
+		SensingField field = fields == null ? null : fields[type];
+		if (field == null) {
+			synchronized (this) {
+				fields = sensingFields;
+				if (fields == null) {
+					fields = new SensingField[WorldGrid.CARNIVORE + 1];
+				}
+				field = fields[type];
+				if (field == null) {
+					fields = fields.clone();
+					field = fields[type] = new SensingField(type, height, width);
+					sensingFields = fields;
+				}
+			}
+		}
+		if (!field.supports(mode)) {
+			return null;
+		}
+		field.prepare(mode, grid);
+		return field;
+	}
+
+	/**
+	 * Returns the distance field of a type of prey, building it from the map
+	 * if it has not been used before. Once built, the field is kept up to date
+	 * with the map at the start of every cycle.
+	 * 
+	 * @param type
+	 *            - the type of prey.
+	 * @return the field, or null if the map is too large for it.
+	 * @see #refreshSensing()
+	 */
+	public DistanceField getDistanceField(byte type) {
+		DistanceField[] fields = distanceFields;
+		DistanceField field = fields == null ? null : fields[type];
+		if (field == null) {
+			if (!DistanceField.supports(width, height)) {
+				return null;
+			}
+			synchronized (this) {
+				fields = distanceFields;
+				if (fields == null) {
+					fields = new DistanceField[WorldGrid.CARNIVORE + 1];
+				}
+				field = fields[type];
+				if (field == null) {
+					fields = fields.clone();
+					field = fields[type] = new DistanceField(type, grid);
+					observed.addListener(field);
+					distanceFields = fields;
+				}
+			}
+		}
+		return field;
+	}
+
+	/**
+	 * Returns the cache of routes around the map's obstacles, creating it if
+	 * it has not been used before. The cache keeps itself up to date as
+	 * obstacles are placed and removed.
+	 * 
+	 * @return the cache, or null if the map is too large for it.
+	 */
+	public PathCache getPathCache() {
+		PathCache paths = pathCache;
+		if (paths == null) {
+			if (!PathCache.supports(width, height)) {
+				return null;
+			}
+			synchronized (this) {
+				paths = pathCache;
+				if (paths == null) {
+					paths = new PathCache(grid);
+					observed.addListener(paths);
+					pathCache = paths;
+				}
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Returns the counts of each type of object in blocks of the map, counting
+	 * the whole map if they have not been used before. Once counted, the
+	 * counts are kept up to date as the map changes.
+	 * 
+	 * @return the counts, or null if the map is too large for them.
+	 */
+	public DensityPyramid getDensityPyramid() {
+		DensityPyramid pyramid = densities;
+		if (pyramid == null) {
+			if (!DensityPyramid.supports(width, height)) {
+				return null;
+			}
+			synchronized (this) {
+				pyramid = densities;
+				if (pyramid == null) {
+					pyramid = new DensityPyramid(grid);
+					observed.addListener(pyramid);
+					densities = pyramid;
+				}
+			}
+		}
+		return pyramid;
+	}
+
+	/**
+	 * Returns the set of map spaces changed during the current cycle, creating
+	 * it if it has not been used before. The same set is kept when the map is
+	 * created again, so its subscribers do not need to subscribe again.
+	 * 
+	 * @return the set of changes to the map.
+	 * @see #publishChanges()
+	 */
+	public ChangeSet getChangeSet() {
+		ChangeSet changed = changes;
+		if (changed == null) {
+			synchronized (this) {
+				changed = changes;
+				if (changed == null) {
+					changed = new ChangeSet(width);
+					observed.addListener(changed);
+					changes = changed;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Hands the map spaces changed since the changes were last published to
+	 * the change set's subscribers, called at the end of each cycle. Does
+	 * nothing if the change set has not been used.
+	 */
+	public void publishChanges() {
+		ChangeSet changed = changes;
+		if (changed != null) {
+			changed.publish();
+		}
+	}
+
+	/**
+	 * Builds whatever a way of sensing a type of prey uses, if it has not
+	 * been built already, so that it is ready before any LifeForm moves.
+	 * 
+	 * @param type
+	 *            - the type of prey.
+	 * @param mode
+	 *            - the way of sensing.
+	 */
+	public void prepareSensing(byte type, SensingMode mode) {
+		if (mode == SensingMode.GRADIENT) {
+			getDistanceField(type);
+		} else if (mode == SensingMode.PATH) {
+			getPathCache();
+		} else if (mode != SensingMode.AXIS) {
+			getSensingField(type, mode);
+		}
+	}
+
+	/**
+	 * Brings the summed-area tables and distance fields which have been used
+	 * up to date with the map as it is now, called at the start of each
+	 * cycle.
+	 */
+	public void refreshSensing() {
+		SensingField[] fields = sensingFields;
+		if (fields != null) {
+			for (SensingField field : fields) {
+				if (field != null) {
+					field.refresh(grid);
+				}
+			}
+		}
+		DistanceField[] distances = distanceFields;
+		if (distances != null) {
+			for (DistanceField field : distances) {
+				if (field != null) {
+					field.refresh();
+				}
+			}
+		}
 	}
 
 	/**
 	 * @return the world's list of LifeForm objects.
 	 */
-	public ArrayList<ALifeForm> getLifeFormList() {
+	public IndexedEntitySet<ALifeForm> getLifeFormList() {
 		return lifeFormList;
 	}
 
+	/**
+	 * Returns the LifeForms which are still alive, in the same order as the
+	 * full list of LifeForms. Dead LifeForms are kept in the full list, so
+	 * they can be reset, but are removed from this list and from the map when
+	 * they die. The list is rebuilt from the full list after it has been
+	 * invalidated, at which point every LifeForm is given a new slot in the
+	 * world's store.
+	 * 
+	 * @return the list of living LifeForms.
+	 * @see #invalidateLifeForms()
+	 * @see #getLifeFormStore()
+	 */
+	public List<ALifeForm> getLiveLifeForms() {
+		if (liveLifeForms == null) {
+			LifeFormStore store = getLifeFormStore();
+			store.clear();
+			liveLifeForms = new ArrayList<>(lifeFormList.size());
+			for (ALifeForm a : lifeFormList) {
+				store.add(a);
+				if (a.isAlive()) {
+					liveLifeForms.add(a);
+				} else {
+					removeFromMap(a);
+				}
+			}
+			aliveCount = liveLifeForms.size();
+			deadCount = 0;
+		}
+		return liveLifeForms;
+	}
+
+	/**
+	 * Returns the store which holds the state of the world's LifeForms while
+	 * they are being simulated. The LifeForms are added to the store when the
+	 * list of living LifeForms is built.
+	 * 
+	 * @return the world's LifeForm store.
+	 * @see #getLiveLifeForms()
+	 */
+	public LifeFormStore getLifeFormStore() {
+		if (lifeFormStore == null) {
+			lifeFormStore = new LifeFormStore();
+		}
+		return lifeFormStore;
+	}
+
+	/**
+	 * Returns the number of living LifeForms without searching through the
+	 * list of LifeForms.
+	 * 
+	 * @return the number of living LifeForms.
+	 */
+	public int getAliveCount() {
+		getLiveLifeForms();
+		return aliveCount;
+	}
+
+	/**
+	 * Records that a LifeForm has died and removes it from the map. The
+	 * LifeForm stays in the list of living LifeForms until the list is next
+	 * compacted.
+	 * 
+	 * @param lf
+	 *            - the LifeForm which has died.
+	 * @see #compactLifeForms()
+	 */
+	public void lifeFormDied(ALifeForm lf) {
+		removeFromMap(lf);
+		if (liveLifeForms != null) {
+			aliveCount--;
+			deadCount++;
+		}
+	}
+
+	/**
+	 * Removes dead LifeForms from the list of living LifeForms once they make
+	 * up a quarter of it. The order of the living LifeForms is kept.
+	 */
+	public void compactLifeForms() {
+		if (liveLifeForms != null && deadCount > 0 && deadCount * 4 >= liveLifeForms.size()) {
+			// Shifts the living LifeForms down in place, as removeIf would
+			// create an array to mark the dead ones.
+			int count = 0;
+			for (int i = 0; i < liveLifeForms.size(); i++) {
+				ALifeForm a = liveLifeForms.get(i);
+				if (a.isAlive()) {
+					liveLifeForms.set(count++, a);
+				}
+			}
+			for (int i = liveLifeForms.size() - 1; i >= count; i--) {
+				liveLifeForms.remove(i);
+			}
+			aliveCount = count;
+			deadCount = 0;
+		}
+	}
+
+	/**
+	 * Discards the list of living LifeForms so that it is rebuilt the next
+	 * time it is used. Must be called after LifeForms are added, removed or
+	 * brought back to life outside of the simulation.
+	 */
+	public void invalidateLifeForms() {
+		liveLifeForms = null;
+		version++;
+	}
+
+	/**
+	 * Returns a number which changes whenever the LifeForms or the map are
+	 * changed outside of the simulation, so that anything which keeps track of
+	 * the state of the world knows to rebuild its records.
+	 * 
+	 * @return the current version of the world.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Adds a LifeForm to the world's list of LifeForms. The LifeForm still
+	 * needs to be placed in the map.
+	 * 
+	 * @param lf
+	 *            - the LifeForm to add.
+	 */
+	public void addLifeForm(ALifeForm lf) {
+		lifeFormList.add(lf);
+		invalidateLifeForms();
+	}
+
+	/**
+	 * Returns an ID which no LifeForm in the world has, for a new LifeForm.
+	 * IDs are not renumbered when a LifeForm is removed, as each LifeForm's
+	 * random number generator is created from its ID, so the new ID is one
+	 * more than the largest ID in use rather than the number of LifeForms.
+	 * 
+	 * @return an unused LifeForm ID.
+	 */
+	public int nextLifeFormId() {
+		int id = 0;
+		for (ALifeForm a : lifeFormList) {
+			id = Math.max(id, a.getID());
+		}
+		return id + 1;
+	}
+
+	/**
+	 * Removes a LifeForm from the world's list of LifeForms and from the map.
+	 * The last LifeForm in the list is moved in to the removed LifeForm's
+	 * place, but keeps its ID.
+	 * 
+	 * @param lf
+	 *            - the LifeForm to remove.
+	 */
+	public void removeLifeForm(ALifeForm lf) {
+		removeFromMap(lf);
+		lifeFormList.remove(lf);
+		invalidateLifeForms();
+	}
+
+	/**
+	 * Empties the map space occupied by a LifeForm, unless another object has
+	 * since moved on to it.
+	 * 
+	 * @param lf
+	 *            - the LifeForm to remove from the map.
+	 */
+	private void removeFromMap(ALifeForm lf) {
+		int y = lf.getY();
+		int x = lf.getX();
+		if (y >= 0 && y < height && x >= 0 && x < width && grid.get(y, x) == lf) {
+			grid.set(y, x, null);
+		}
+	}
+
 	/**
 	 * @return the world's list of food objects.
 	 */
-	public ArrayList<AWorldObject> getFoodList() {
+	public IndexedEntitySet<AWorldObject> getFoodList() {
 		return foodList;
 	}
 
 	/**
 	 * @return the world's list of obstacle objects.
 	 */
-	public ArrayList<AWorldObject> getObstacleList() {
+	public IndexedEntitySet<AWorldObject> getObstacleList() {
 		return obstacleList;
 	}
 
@@ -390,8 +1161,7 @@ public class AWorld implements Serializable {
 	 * @param x - the column index in which to place the object.
 	 */
 	public void setMapValue(AWorldObject object, int y, int x) {
-		map[y][x] = null;
-		map[y][x] = object;
+		grid.set(y, x, object);
 	}
 
 }
@@ -12,10 +12,13 @@ public abstract class AWorldObject implements Serializable, Cloneable {
 
 	private static final long serialVersionUID = 5099776872991181442L;
 
-	protected final AWorld world;
+	protected AWorld world;
 	protected final String symbol;
 	protected int x, y;
 	protected int timer;
+	transient int gridHandle = -1;
+	// The object's position in the world's list holding it.
+	transient int listIndex = -1;
 
 	/**
 	 * 
@@ -0,0 +1,122 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+
+import worldObjects.ALifeForm;
+import lifeFormTypes.ACarnivore;
+import lifeFormTypes.AHerbivore;
+
+/**
+ * Runs a saved configuration from the command line without the user interface.
+ * The world is advanced for the configured number of cycles as fast as
+ * possible and a summary of the final world and the run time is printed once
+ * it has finished.
+ * 
+ * Usage: {@code BatchRunner <configuration.xml> [cycles]}
+ * 
+ * @author Jed Brennen
+ * @see SimulationEngine
+ *
+ */
+public class BatchRunner {
+
+	/**
+	 * Loads the configuration and world given on the command line, runs the
+	 * simulation and prints the results.
+	 * 
+	 * @param args
+	 *            - the configuration file path, optionally followed by the
+	 *            number of cycles to run in place of the configured value.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Usage: BatchRunner <configuration.xml> [cycles]");
+			System.exit(1);
+		}
+
+		File configFile = new File(args[0]);
+		if (!configFile.isFile()) {
+			System.err.println("Configuration file not found: " + configFile.getAbsolutePath());
+			System.exit(1);
+		}
+
+		Configuration config = new Configuration(configFile);
+		AWorld world = new AWorld(config);
+		File worldFile = new File(config.getFilePath(false) + ".world");
+		if (worldFile.exists()) {
+			world.load(config);
+			world.placeFood(false);
+			world.placeObstacles(false);
+		} else {
+			System.err.println("World file not found, generating a world without LifeForms: "
+					+ worldFile.getAbsolutePath());
+			world.placeFood(true);
+			world.placeObstacles(true);
+		}
+
+		int cycles;
+		if (args.length > 1) {
+			cycles = Integer.parseInt(args[1]);
+		} else {
+			cycles = Integer.parseInt(config.getProperty("cycles"));
+		}
+
+		SimulationEngine engine = new SimulationEngine(world);
+		engine.setParallel(Boolean.parseBoolean(config.getProperty("parallel")));
+
+		long start = System.nanoTime();
+		engine.step(cycles);
+		long elapsed = System.nanoTime() - start;
+
+		engine.settle();
+		printResults(config, world, engine, elapsed);
+	}
+
+	/**
+	 * Prints the final counts of the world's objects along with the time taken
+	 * to run the simulation.
+	 * 
+	 * @param config
+	 *            - the configuration which was run.
+	 * @param world
+	 *            - the world after the simulation has finished.
+	 * @param engine
+	 *            - the engine which ran the simulation.
+	 * @param elapsed
+	 *            - the time taken to run the simulation in nanoseconds.
+	 */
+	private static void printResults(Configuration config, AWorld world, SimulationEngine engine, long elapsed) {
+		int herbivores = 0, carnivores = 0;
+		for (ALifeForm a : world.getLiveLifeForms()) {
+			if (a.isAlive()) {
+				if (a instanceof AHerbivore) {
+					herbivores++;
+				} else if (a instanceof ACarnivore) {
+					carnivores++;
+				}
+			}
+		}
+
+		int foodPlaced = 0;
+		WorldGrid grid = world.getGrid();
+		for (AWorldObject f : world.getFoodList()) {
+			if (grid.get(f.getY(), f.getX()) == f) {
+				foodPlaced++;
+			}
+		}
+
+		double seconds = elapsed / 1e9;
+		double ticksPerSecond = seconds > 0 ? engine.getCycle() / seconds : 0;
+
+		System.out.println("Configuration: " + config.getFileName(false));
+		System.out.println("Map: " + world.getWidth() + " x " + world.getHeight());
+		System.out.println("Seed: " + world.getSeed());
+		System.out.println("Cycles: " + engine.getCycle() + (engine.isParallel() ? " (parallel)" : ""));
+		System.out.println("LifeForms alive: " + (herbivores + carnivores) + " of " + world.getLifeFormList().size()
+				+ " (" + herbivores + " herbivores, " + carnivores + " carnivores)");
+		System.out.println("Food: " + world.getFoodList().size() + " (" + foodPlaced + " on the map)");
+		System.out.println("Obstacles: " + world.getObstacleList().size());
+		System.out.println(String.format("Wall time: %.3f s", seconds));
+		System.out.println(String.format("Ticks/sec: %.1f", ticksPerSecond));
+	}
+}
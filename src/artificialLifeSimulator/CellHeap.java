@@ -0,0 +1,123 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * A queue of map spaces taken out nearest first, used to search outwards from
+ * a map space when the steps between map spaces are not all the same length.
+ * Each entry holds a distance in its upper half and the index of a map space
+ * in its lower half, so map spaces at the same distance are taken out in
+ * order of their index and a search always gives the same result.
+ *
+ * @author Jed Brennen
+ * @see DistanceField
+ * @see PathCache
+ *
+ */
+class CellHeap {
+
+	private long[] heap;
+	private int size;
+
+	/**
+	 * A queue of map spaces taken out nearest first.
+	 */
+	CellHeap() {
+		this(16);
+	}
+
+	/**
+	 * A queue of map spaces taken out nearest first, which holds the given
+	 * number of entries before it has to grow.
+	 *
+	 * @param capacity
+	 *            - the number of entries to make room for.
+	 */
+	CellHeap(int capacity) {
+		heap = new long[Math.max(16, capacity)];
+	}
+
+	/**
+	 * @return true if there are no map spaces in the queue.
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes every map space from the queue.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @param distance
+	 *            - the distance of the map space, which must not be negative.
+	 * @param cell
+	 *            - the index of the map space, which must not be negative.
+	 */
+	void push(int distance, int cell) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		long entry = ((long) distance << 32) | cell;
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent] <= entry) {
+				break;
+			}
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = entry;
+	}
+
+	/**
+	 * Takes the nearest map space out of the queue, which must not be empty.
+	 *
+	 * @return the entry for the map space.
+	 * @see #distanceOf(long)
+	 * @see #cellOf(long)
+	 */
+	long pop() {
+		long top = heap[0];
+		long last = heap[--size];
+		int i = 0;
+		while (true) {
+			int child = i * 2 + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (heap[child] >= last) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return top;
+	}
+
+	/**
+	 * @param entry
+	 *            - an entry taken out of the queue.
+	 * @return the distance of the map space.
+	 */
+	static int distanceOf(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * @param entry
+	 *            - an entry taken out of the queue.
+	 * @return the index of the map space.
+	 */
+	static int cellOf(long entry) {
+		return (int) entry;
+	}
+}
@@ -0,0 +1,181 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A map from map space indexes to values, used by the simulation engine to
+ * look up the food regrowing in a map space, and by the path cache to look up
+ * its routes. The keys are held in a plain
+ * array with open addressing, so looking up, adding and removing values does
+ * not create any objects.
+ *
+ * @author Jed Brennen
+ * @param <T>
+ *            - the type of value held.
+ * @see SimulationEngine
+ * @see PathCache
+ *
+ */
+class CellMap<T> {
+
+	// Map space indexes are never negative, so -1 marks an empty slot.
+	private static final long EMPTY = -1;
+
+	private long[] keys;
+	private Object[] values;
+	private int size, mask;
+
+	/**
+	 * An empty map.
+	 */
+	CellMap() {
+		allocate(16);
+	}
+
+	/**
+	 * @param key
+	 *            - the index of a map space.
+	 * @return the value for the map space, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	T get(long key) {
+		for (int i = indexOf(key);; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return (T) values[i];
+			} else if (keys[i] == EMPTY) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * @param key
+	 *            - the index of a map space.
+	 * @param value
+	 *            - the value for the map space, replacing any it already has.
+	 */
+	void put(long key, T value) {
+		int i = indexOf(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if (size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * @param key
+	 *            - the index of a map space.
+	 */
+	void remove(long key) {
+		int i = indexOf(key);
+		while (keys[i] != key) {
+			if (keys[i] == EMPTY) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		size--;
+		// Moves back any following entries which would no longer be found
+		// once this slot is empty.
+		int gap = i;
+		for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int home = indexOf(keys[j]);
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				values[gap] = values[j];
+				gap = j;
+			}
+		}
+		keys[gap] = EMPTY;
+		values[gap] = null;
+	}
+
+	/**
+	 * Removes every value.
+	 */
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Removes every value matching a filter.
+	 *
+	 * @param filter
+	 *            - returns true for the values to remove.
+	 */
+	@SuppressWarnings("unchecked")
+	void removeIf(Predicate<T> filter) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(keys.length);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY && !filter.test((T) oldValues[i])) {
+				put(oldKeys[i], (T) oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param action
+	 *            - the action to perform on each value.
+	 */
+	@SuppressWarnings("unchecked")
+	void forEachValue(Consumer<T> action) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				action.accept((T) values[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of values held.
+	 */
+	int size() {
+		return size;
+	}
+
+	private int indexOf(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * Moves the values in to arrays of a new capacity.
+	 *
+	 * @param capacity
+	 *            - the new capacity, a power of 2.
+	 */
+	@SuppressWarnings("unchecked")
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				put(oldKeys[i], (T) oldValues[i]);
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		size = 0;
+	}
+}
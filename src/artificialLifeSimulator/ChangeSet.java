@@ -0,0 +1,244 @@
+package artificialLifeSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The map spaces which have changed during a cycle of the simulation. The
+ * set listens for changes to the map and records each map space which
+ * changes once, along with the type of object it held before the first
+ * change and the type it holds after the last. At the end of each cycle the
+ * set is handed to each of its subscribers and then emptied, so anything
+ * which shows or counts the map only has to look at the map spaces which
+ * have changed rather than at the whole map.
+ *
+ * Changes made between cycles, such as placing LifeForms by hand, are
+ * recorded in the same way and handed on at the end of the next cycle or
+ * when the world publishes its changes.
+ *
+ * @author Jed Brennen
+ * @see AWorld#getChangeSet()
+ * @see AWorld#publishChanges()
+ *
+ */
+public class ChangeSet implements WorldGrid.CellListener {
+
+	// Map space indexes are never negative, so -1 marks an empty slot.
+	private static final long EMPTY = -1;
+
+	private int width;
+	private boolean allChanged;
+	private long[] cells = new long[16];
+	private byte[] oldTypes = new byte[16];
+	private byte[] newTypes = new byte[16];
+	private int count;
+	// The position of each map space in the lists above, by open addressing.
+	private long[] keys;
+	private int[] positions;
+	private int mask;
+	private Subscriber[] subscribers = new Subscriber[0];
+
+	/**
+	 * An empty set for a map.
+	 *
+	 * @param width
+	 *            - the number of columns in the map.
+	 */
+	public ChangeSet(int width) {
+		this.width = width;
+		allocate(32);
+	}
+
+	/**
+	 * Receives the map spaces which changed during each cycle.
+	 *
+	 * @author Jed Brennen
+	 *
+	 */
+	public interface Subscriber {
+
+		/**
+		 * Called at the end of each cycle in which the map has changed, on the
+		 * thread which ran the cycle. The set must not be kept after the call
+		 * returns, since it is emptied for the next cycle.
+		 *
+		 * @param changes
+		 *            - the map spaces which changed.
+		 */
+		void changed(ChangeSet changes);
+	}
+
+	/**
+	 * @param subscriber
+	 *            - the subscriber to hand the changes to.
+	 */
+	public synchronized void addSubscriber(Subscriber subscriber) {
+		ArrayList<Subscriber> list = new ArrayList<>(Arrays.asList(subscribers));
+		list.add(subscriber);
+		subscribers = list.toArray(new Subscriber[list.size()]);
+	}
+
+	/**
+	 * @param subscriber
+	 *            - the subscriber to stop handing the changes to.
+	 */
+	public synchronized void removeSubscriber(Subscriber subscriber) {
+		ArrayList<Subscriber> list = new ArrayList<>(Arrays.asList(subscribers));
+		list.remove(subscriber);
+		subscribers = list.toArray(new Subscriber[list.size()]);
+	}
+
+	public void cellChanged(int y, int x, byte oldType, byte newType) {
+		if (allChanged) {
+			return;
+		}
+		long cell = (long) y * width + x;
+		int i = indexOf(cell);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == cell) {
+				newTypes[positions[i]] = newType;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		if (count == cells.length) {
+			cells = Arrays.copyOf(cells, count * 2);
+			oldTypes = Arrays.copyOf(oldTypes, count * 2);
+			newTypes = Arrays.copyOf(newTypes, count * 2);
+		}
+		keys[i] = cell;
+		positions[i] = count;
+		cells[count] = cell;
+		oldTypes[count] = oldType;
+		newTypes[count++] = newType;
+		if (count * 2 > keys.length) {
+			allocate(keys.length * 2);
+			for (int c = 0; c < count; c++) {
+				int slot = indexOf(cells[c]);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = cells[c];
+				positions[slot] = c;
+			}
+		}
+	}
+
+	public void cleared() {
+		allChanged = true;
+		empty();
+	}
+
+	/**
+	 * Starts the set again for a new map, treating the whole of the new map
+	 * as changed.
+	 *
+	 * @param width
+	 *            - the number of columns in the new map.
+	 */
+	void reset(int width) {
+		this.width = width;
+		cleared();
+	}
+
+	/**
+	 * Hands the changes made since the last call to each subscriber and
+	 * empties the set. Nothing is handed on if nothing has changed.
+	 */
+	public void publish() {
+		if (count == 0 && !allChanged) {
+			return;
+		}
+		for (Subscriber subscriber : subscribers) {
+			subscriber.changed(this);
+		}
+		allChanged = false;
+		empty();
+	}
+
+	/**
+	 * @return true if the whole map may have changed, for example because a
+	 *         new map has been created, in which case no map spaces are
+	 *         listed.
+	 */
+	public boolean isAllChanged() {
+		return allChanged;
+	}
+
+	/**
+	 * @return the number of map spaces which changed.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param i
+	 *            - the position of a changed map space in the set, from 0 to
+	 *            {@link #size()} - 1, in the order they first changed.
+	 * @return the row of the map space.
+	 */
+	public int getY(int i) {
+		return (int) (cells[i] / width);
+	}
+
+	/**
+	 * @param i
+	 *            - the position of a changed map space in the set.
+	 * @return the column of the map space.
+	 */
+	public int getX(int i) {
+		return (int) (cells[i] % width);
+	}
+
+	/**
+	 * @param i
+	 *            - the position of a changed map space in the set.
+	 * @return the type of object the map space held before it changed.
+	 */
+	public byte getOldType(int i) {
+		return oldTypes[i];
+	}
+
+	/**
+	 * @param i
+	 *            - the position of a changed map space in the set.
+	 * @return the type of object the map space holds now.
+	 */
+	public byte getNewType(int i) {
+		return newTypes[i];
+	}
+
+	/**
+	 * Removes every map space from the set. When only a few slots of the table
+	 * are used they are emptied one at a time, latest first, so that each map
+	 * space is still found along the slots it was placed after.
+	 */
+	private void empty() {
+		if (count * 8 < keys.length) {
+			while (count > 0) {
+				long cell = cells[--count];
+				int i = indexOf(cell);
+				while (keys[i] != cell) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = EMPTY;
+			}
+		} else if (count > 0) {
+			Arrays.fill(keys, EMPTY);
+			count = 0;
+		}
+	}
+
+	private int indexOf(long cell) {
+		long h = cell * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		positions = new int[capacity];
+		mask = capacity - 1;
+	}
+}
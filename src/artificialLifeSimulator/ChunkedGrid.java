@@ -0,0 +1,440 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A grid which splits the map in to square chunks, so that its memory grows
+ * with the part of the map which is occupied rather than with the size of the
+ * map. A chunk is only created once an object is placed in it and is thrown
+ * away again once it is empty.
+ *
+ * At most a set number of chunks are held in memory. Once there are more, the
+ * chunks used least recently are written out to a file and read back in the
+ * next time they are needed. Chunks containing a LifeForm, and the chunks
+ * next to them, are always kept in memory, since the LifeForms will be
+ * scanning them every cycle.
+ *
+ * The grid may be read by several threads at once while LifeForms are being
+ * scanned in parallel, but only changed by one thread at a time.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ * @see HandleTable
+ *
+ */
+public class ChunkedGrid implements WorldGrid {
+
+	/**
+	 * The number of rows and columns of map spaces in a chunk.
+	 */
+	public static final int CHUNK_SIZE = 64;
+	private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+	// Each map space takes a byte for its type and four for its handle.
+	private static final int CHUNK_BYTES = CHUNK_CELLS * 5;
+
+	private final int width, height, chunksX, chunksY, budget;
+	private final File file;
+	private final HandleTable objects = new HandleTable();
+	// Only the rows of chunks which have been used are allocated.
+	private Chunk[][] chunks;
+	private final ArrayList<Chunk> resident = new ArrayList<>();
+	private int[] freeSlots = new int[16];
+	// The occupied map spaces of a chunk, kept so visiting them does not
+	// allocate.
+	private final int[] occupied = new int[CHUNK_CELLS];
+	private int freeSlotCount, slotCount;
+	private RandomAccessFile spill;
+	private int clock;
+
+	/**
+	 * A grid which splits the map in to chunks, holding at most the given
+	 * number of chunks in memory.
+	 *
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 * @param budget
+	 *            - the number of chunks to hold in memory before writing
+	 *            chunks out to the file.
+	 * @param file
+	 *            - the file to write chunks out to, or null to use a temporary
+	 *            file.
+	 */
+	public ChunkedGrid(int height, int width, int budget, File file) {
+		this.width = width;
+		this.height = height;
+		this.budget = Math.max(1, budget);
+		this.file = file;
+		chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunks = new Chunk[chunksY][];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public AWorldObject get(int y, int x) {
+		Data data = read(y, x);
+		if (data == null) {
+			return null;
+		}
+		int i = (y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE;
+		if (data.types[i] == EMPTY) {
+			return null;
+		}
+		return objects.get(data.handles[i]);
+	}
+
+	public byte getType(int y, int x) {
+		Data data = read(y, x);
+		if (data == null) {
+			return EMPTY;
+		}
+		return data.types[(y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE];
+	}
+
+	/**
+	 * Copies the types a chunk at a time, filling in the chunks which have not
+	 * been created as empty.
+	 */
+	public void getTypes(int y, byte[] row) {
+		for (int x = 0; x < width; x += CHUNK_SIZE) {
+			int length = Math.min(CHUNK_SIZE, width - x);
+			Data data = read(y, x);
+			if (data == null) {
+				Arrays.fill(row, x, x + length, EMPTY);
+			} else {
+				System.arraycopy(data.types, (y % CHUNK_SIZE) * CHUNK_SIZE, row, x, length);
+			}
+		}
+	}
+
+	public synchronized void set(int y, int x, AWorldObject object) {
+		int cy = y / CHUNK_SIZE;
+		int cx = x / CHUNK_SIZE;
+		Chunk chunk = chunks[cy] == null ? null : chunks[cy][cx];
+		if (chunk == null) {
+			if (object == null) {
+				return;
+			}
+			chunk = new Chunk(cx, cy);
+			chunk.data = new Data();
+			if (chunks[cy] == null) {
+				chunks[cy] = new Chunk[chunksX];
+			}
+			chunks[cy][cx] = chunk;
+			resident.add(chunk);
+		} else if (chunk.data == null) {
+			load(chunk);
+		}
+		clock++;
+		chunk.lastUsed = clock;
+		chunk.dirty = true;
+
+		Data data = chunk.data;
+		int i = (y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE;
+		byte oldType = data.types[i];
+		byte newType = WorldGrid.typeOf(object);
+		if (oldType != EMPTY) {
+			objects.release(data.handles[i]);
+			chunk.occupied--;
+		}
+		if (isLifeForm(oldType)) {
+			chunk.lifeForms--;
+		}
+		if (object == null) {
+			data.types[i] = EMPTY;
+			data.handles[i] = 0;
+		} else {
+			data.handles[i] = objects.acquire(object);
+			data.types[i] = newType;
+			chunk.occupied++;
+		}
+		if (isLifeForm(newType)) {
+			chunk.lifeForms++;
+		}
+
+		if (chunk.occupied == 0) {
+			discard(chunk);
+		} else if (resident.size() > budget) {
+			evict(chunk);
+		}
+	}
+
+	public synchronized void clear() {
+		chunks = new Chunk[chunksY][];
+		resident.clear();
+		objects.clear();
+		freeSlotCount = 0;
+		slotCount = 0;
+		if (spill != null) {
+			try {
+				spill.setLength(0);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Visits only the chunks which have been created, so the whole of a large
+	 * empty map is never looked at.
+	 */
+	public synchronized void forEachOccupied(CellVisitor visitor) {
+		GridKernels kernels = GridKernels.get();
+		for (int cy = 0; cy < chunksY; cy++) {
+			if (chunks[cy] == null) {
+				continue;
+			}
+			for (int cx = 0; cx < chunksX; cx++) {
+				Chunk chunk = chunks[cy][cx];
+				if (chunk == null) {
+					continue;
+				}
+				Data data = chunk.data;
+				if (data == null) {
+					data = load(chunk);
+				}
+				int count = kernels.select(data.types, 0, CHUNK_CELLS, FOOD, CARNIVORE, occupied);
+				for (int j = 0; j < count; j++) {
+					int i = occupied[j];
+					visitor.visit(cy * CHUNK_SIZE + i / CHUNK_SIZE, cx * CHUNK_SIZE + i % CHUNK_SIZE,
+							objects.get(data.handles[i]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of chunks currently held in memory.
+	 */
+	public synchronized int getResidentChunks() {
+		return resident.size();
+	}
+
+	/**
+	 * Returns the contents of the chunk holding a map space, reading the
+	 * chunk back in from the file if it has been written out.
+	 *
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 * @return the contents of the chunk, or null if the chunk is empty.
+	 */
+	private Data read(int y, int x) {
+		Chunk[] row = chunks[y / CHUNK_SIZE];
+		if (row == null) {
+			return null;
+		}
+		Chunk chunk = row[x / CHUNK_SIZE];
+		if (chunk == null) {
+			return null;
+		}
+		Data data = chunk.data;
+		if (data == null) {
+			synchronized (this) {
+				data = chunk.data;
+				if (data == null) {
+					data = load(chunk);
+				}
+			}
+		} else if (chunk.lastUsed != clock) {
+			chunk.lastUsed = clock;
+		}
+		return data;
+	}
+
+	/**
+	 * Reads a chunk back in from the file.
+	 *
+	 * @param chunk
+	 *            - the chunk to read.
+	 * @return the contents of the chunk.
+	 */
+	private Data load(Chunk chunk) {
+		byte[] bytes = new byte[CHUNK_BYTES];
+		try {
+			spill.seek((long) chunk.slot * CHUNK_BYTES);
+			spill.readFully(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Data data = new Data(bytes);
+		chunk.data = data;
+		chunk.dirty = false;
+		chunk.lastUsed = clock;
+		resident.add(chunk);
+		if (resident.size() > budget) {
+			evict(chunk);
+		}
+		return data;
+	}
+
+	/**
+	 * Writes the chunks used least recently out to the file until the number
+	 * of chunks in memory is back within the budget, leaving some room so
+	 * that this does not have to be done every time a chunk is loaded.
+	 * Chunks near LifeForms are never written out.
+	 *
+	 * @param keep
+	 *            - a chunk which is in use and must not be written out.
+	 */
+	private void evict(Chunk keep) {
+		ArrayList<Chunk> candidates = new ArrayList<>();
+		for (Chunk c : resident) {
+			if (c != keep && !isPinned(c)) {
+				candidates.add(c);
+			}
+		}
+		candidates.sort(Comparator.comparingInt(c -> c.lastUsed - clock));
+		int target = budget - budget / 4;
+		for (Chunk c : candidates) {
+			if (resident.size() <= target) {
+				break;
+			}
+			try {
+				write(c);
+			} catch (IOException e) {
+				// The chunk stays in memory if it could not be written out.
+				e.printStackTrace();
+				return;
+			}
+			c.data = null;
+		}
+		resident.removeIf(c -> c.data == null);
+	}
+
+	/**
+	 * Writes a chunk to its place in the file, if it has changed since it was
+	 * last written.
+	 *
+	 * @param chunk
+	 *            - the chunk to write.
+	 * @throws IOException
+	 *             if the chunk could not be written.
+	 */
+	private void write(Chunk chunk) throws IOException {
+		if (!chunk.dirty && chunk.slot >= 0) {
+			return;
+		}
+		if (spill == null) {
+			File f = file;
+			if (f == null) {
+				f = File.createTempFile("world", ".chunks");
+			}
+			f.deleteOnExit();
+			spill = new RandomAccessFile(f, "rw");
+			spill.setLength(0);
+		}
+		if (chunk.slot < 0) {
+			chunk.slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++;
+		}
+		spill.seek((long) chunk.slot * CHUNK_BYTES);
+		spill.write(chunk.data.toBytes());
+		chunk.dirty = false;
+	}
+
+	/**
+	 * Throws away a chunk which no longer holds any objects.
+	 *
+	 * @param chunk
+	 *            - the empty chunk.
+	 */
+	private void discard(Chunk chunk) {
+		chunks[chunk.cy][chunk.cx] = null;
+		resident.remove(chunk);
+		if (chunk.slot >= 0) {
+			if (freeSlotCount == freeSlots.length) {
+				freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+			}
+			freeSlots[freeSlotCount++] = chunk.slot;
+		}
+	}
+
+	/**
+	 * @param chunk
+	 *            - a chunk held in memory.
+	 * @return true if the chunk or one of the chunks next to it contains a
+	 *         LifeForm.
+	 */
+	private boolean isPinned(Chunk chunk) {
+		for (int cy = Math.max(0, chunk.cy - 1); cy <= Math.min(chunksY - 1, chunk.cy + 1); cy++) {
+			if (chunks[cy] == null) {
+				continue;
+			}
+			for (int cx = Math.max(0, chunk.cx - 1); cx <= Math.min(chunksX - 1, chunk.cx + 1); cx++) {
+				Chunk c = chunks[cy][cx];
+				if (c != null && c.lifeForms > 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isLifeForm(byte type) {
+		return type == HERBIVORE || type == CARNIVORE;
+	}
+
+	/**
+	 * A chunk of the map, which may be held in memory or written out to the
+	 * file.
+	 */
+	private static class Chunk {
+
+		private final int cx, cy;
+		// Null while the chunk is written out to the file.
+		private volatile Data data;
+		private int occupied, lifeForms, lastUsed;
+		private int slot = -1;
+		private boolean dirty;
+
+		Chunk(int cx, int cy) {
+			this.cx = cx;
+			this.cy = cy;
+		}
+	}
+
+	/**
+	 * The types and handles of the map spaces in a chunk.
+	 */
+	private static class Data {
+
+		private final byte[] types;
+		private final int[] handles;
+
+		Data() {
+			types = new byte[CHUNK_CELLS];
+			handles = new int[CHUNK_CELLS];
+		}
+
+		Data(byte[] bytes) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			types = new byte[CHUNK_CELLS];
+			handles = new int[CHUNK_CELLS];
+			buffer.get(types);
+			buffer.asIntBuffer().get(handles);
+		}
+
+		byte[] toBytes() {
+			ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+			buffer.put(types);
+			buffer.asIntBuffer().put(handles);
+			return buffer.array();
+		}
+	}
+}
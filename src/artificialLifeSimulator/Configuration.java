@@ -79,6 +79,28 @@ public class Configuration {
 		}
 	}
 
+	/**
+	 * Loads the given configuration file without generating a default
+	 * configuration or changing the last used configuration. Used when running
+	 * simulations outside of the user interface.
+	 * 
+	 * @param file
+	 *            - the configuration file to load.
+	 */
+	public Configuration(File file) {
+		configFile = file;
+		filePath = file.getAbsolutePath();
+		p = new Properties();
+
+		try {
+			FileInputStream fis = new FileInputStream(configFile);
+			p.loadFromXML(fis);
+			fis.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * @param property
 	 * @return
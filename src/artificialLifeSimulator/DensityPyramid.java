@@ -0,0 +1,164 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * Counts of each type of object in square blocks of map spaces, at a series
+ * of levels where each block of one level covers four blocks of the level
+ * below. The blocks of the first level are 16 map spaces across and each
+ * level's blocks are twice as wide as the last, until a single block covers
+ * the whole map. A view showing at least a first level block for each of its
+ * pixels can read one block for each pixel instead of every map space under
+ * it, so the view costs the same to draw however large the map is.
+ *
+ * The counts listen for changes to the map and are kept up to date as each
+ * map space changes, which only touches one block on each level.
+ *
+ * @author Jed Brennen
+ * @see AWorld#getDensityPyramid()
+ *
+ */
+public class DensityPyramid implements WorldGrid.CellListener {
+
+	/**
+	 * The width of a block on the first level, as a power of two.
+	 */
+	public static final int FIRST_LEVEL = 4;
+	// The types counted in each block, one after another: food, obstacles,
+	// herbivores and carnivores.
+	private static final int TYPES = WorldGrid.CARNIVORE;
+	private static final long MAX_COUNTS = Integer.MAX_VALUE - 8;
+
+	private final int width, height;
+	// The counts of each level, by block along each row in turn and then by
+	// type.
+	private final int[][] counts;
+	private final int[] columns, rows;
+
+	/**
+	 * Counts the objects in a map as it is now.
+	 *
+	 * @param grid
+	 *            - the map, which the counts must be listening to.
+	 */
+	public DensityPyramid(WorldGrid grid) {
+		width = grid.getWidth();
+		height = grid.getHeight();
+		int levels = 1;
+		while ((width - 1) >> (FIRST_LEVEL + levels - 1) > 0 || (height - 1) >> (FIRST_LEVEL + levels - 1) > 0) {
+			levels++;
+		}
+		counts = new int[levels][];
+		columns = new int[levels];
+		rows = new int[levels];
+		for (int level = 0; level < levels; level++) {
+			int shift = FIRST_LEVEL + level;
+			columns[level] = ((width - 1) >> shift) + 1;
+			rows[level] = ((height - 1) >> shift) + 1;
+			counts[level] = new int[columns[level] * rows[level] * TYPES];
+		}
+		grid.forEachOccupied((y, x, object) -> add(y, x, WorldGrid.typeOf(object), 1));
+	}
+
+	/**
+	 * @param width
+	 *            - the number of columns in a map.
+	 * @param height
+	 *            - the number of rows in a map.
+	 * @return true if the map is small enough to be counted.
+	 */
+	public static boolean supports(int width, int height) {
+		long columns = ((width - 1L) >> FIRST_LEVEL) + 1;
+		long rows = ((height - 1L) >> FIRST_LEVEL) + 1;
+		return columns * rows * TYPES <= MAX_COUNTS;
+	}
+
+	public void cellChanged(int y, int x, byte oldType, byte newType) {
+		if (oldType != newType) {
+			add(y, x, oldType, -1);
+			add(y, x, newType, 1);
+		}
+	}
+
+	public void cleared() {
+		for (int[] level : counts) {
+			Arrays.fill(level, 0);
+		}
+	}
+
+	/**
+	 * @return the number of levels, the last of which has a single block.
+	 */
+	public int getLevels() {
+		return counts.length;
+	}
+
+	/**
+	 * @param level
+	 *            - a level, from 0 to {@link #getLevels()} - 1.
+	 * @return the number of map spaces across each block of the level.
+	 */
+	public int getBlockSize(int level) {
+		return 1 << (FIRST_LEVEL + level);
+	}
+
+	/**
+	 * @param level
+	 *            - a level.
+	 * @return the number of blocks along each row of the level.
+	 */
+	public int getColumns(int level) {
+		return columns[level];
+	}
+
+	/**
+	 * @param level
+	 *            - a level.
+	 * @return the number of blocks down each column of the level.
+	 */
+	public int getRows(int level) {
+		return rows[level];
+	}
+
+	/**
+	 * @param level
+	 *            - a level.
+	 * @param row
+	 *            - the row of a block on the level.
+	 * @param column
+	 *            - the column of a block on the level.
+	 * @param type
+	 *            - the type of object, other than empty.
+	 * @return the number of objects of the type in the block.
+	 */
+	public int getCount(int level, int row, int column, byte type) {
+		return counts[level][(row * columns[level] + column) * TYPES + type - 1];
+	}
+
+	/**
+	 * @param level
+	 *            - a level.
+	 * @param row
+	 *            - the row of a block on the level.
+	 * @param column
+	 *            - the column of a block on the level.
+	 * @return the number of map spaces in the block, which is less than the
+	 *         square of its size along the right and bottom edges of the map.
+	 */
+	public int getCellCount(int level, int row, int column) {
+		int shift = FIRST_LEVEL + level;
+		int across = Math.min(width - (column << shift), 1 << shift);
+		int down = Math.min(height - (row << shift), 1 << shift);
+		return across * down;
+	}
+
+	private void add(int y, int x, byte type, int amount) {
+		if (type == WorldGrid.EMPTY) {
+			return;
+		}
+		for (int level = 0; level < counts.length; level++) {
+			int shift = FIRST_LEVEL + level;
+			counts[level][((y >> shift) * columns[level] + (x >> shift)) * TYPES + type - 1] += amount;
+		}
+	}
+}
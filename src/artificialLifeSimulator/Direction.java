@@ -9,5 +9,28 @@ import java.io.Serializable;
  *
  */
 public enum Direction implements Serializable {
-	NORTH, EAST, SOUTH, WEST
+	NORTH(0, -1), EAST(1, 0), SOUTH(0, 1), WEST(-1, 0);
+
+	private final int dx, dy;
+
+	private Direction(int dx, int dy) {
+		this.dx = dx;
+		this.dy = dy;
+	}
+
+	/**
+	 * @return the change in column index when moving one space in this
+	 *         direction.
+	 */
+	public int getDX() {
+		return dx;
+	}
+
+	/**
+	 * @return the change in row index when moving one space in this
+	 *         direction.
+	 */
+	public int getDY() {
+		return dy;
+	}
 }
@@ -0,0 +1,354 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * The number of steps from every map space to the nearest map space holding a
+ * type of prey, moving along the rows and columns and around the map spaces
+ * which block the way. A LifeForm following the field only has to look at the
+ * map spaces next to it and step to the one nearest its prey, so any number
+ * of LifeForms can share one field instead of each scanning the map.
+ *
+ * Obstacles block the field, as does food when the prey is not food, since
+ * only herbivores can move on to food. LifeForms do not block it, since they
+ * will have moved on by the time another LifeForm gets there.
+ *
+ * The field listens for changes to the map and keeps a list of the map spaces
+ * which have gained or lost prey or become blocked or unblocked. At the start
+ * of each cycle only the parts of the field affected by those map spaces are
+ * worked out again, so every LifeForm sees the field as it was when the cycle
+ * started and the work done grows with the number of changes rather than with
+ * the size of the map.
+ *
+ * @author Jed Brennen
+ * @see SensingMode#GRADIENT
+ * @see AWorld#getDistanceField(byte)
+ *
+ */
+public class DistanceField implements WorldGrid.CellListener {
+
+	/**
+	 * The distance of a map space from which no prey can be reached.
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+	/**
+	 * The distance of a map space which blocks the field.
+	 */
+	public static final int BLOCKED = -1;
+	// The largest map which can have a field.
+	private static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+	private final byte type;
+	private final WorldGrid grid;
+	private final int width, height;
+	private final int[] distances;
+	// The map spaces which have changed since the field was last updated.
+	private int[] pending = new int[16];
+	private int pendingCount;
+	private boolean rebuild;
+	private final CellHeap heap;
+	private int[] affected = new int[16];
+	// Kept between builds so building the field does not allocate. Each map
+	// space is queued at most once per build, so it never needs to grow.
+	private final int[] queue;
+	private final byte[] row;
+	private final int[] picked;
+
+	/**
+	 * Builds the field for a type of prey from the map as it is now.
+	 *
+	 * @param type
+	 *            - the type of prey.
+	 * @param grid
+	 *            - the map, which the field must be listening to.
+	 */
+	public DistanceField(byte type, WorldGrid grid) {
+		this.type = type;
+		this.grid = grid;
+		width = grid.getWidth();
+		height = grid.getHeight();
+		distances = new int[width * height];
+		queue = new int[width * height];
+		// Room for the largest update which is not built again from scratch,
+		// so updates do not grow the heap part way through a run.
+		heap = new CellHeap(width * height / 8);
+		row = new byte[width];
+		picked = new int[width];
+		build();
+	}
+
+	/**
+	 * @param width
+	 *            - the number of columns in a map.
+	 * @param height
+	 *            - the number of rows in a map.
+	 * @return true if the map is small enough to have a field.
+	 */
+	public static boolean supports(int width, int height) {
+		return (long) width * height <= MAX_CELLS;
+	}
+
+	/**
+	 * @param y
+	 *            - the row of a map space.
+	 * @param x
+	 *            - the column of a map space.
+	 * @return the number of steps from the map space to the nearest prey, or
+	 *         {@link #UNREACHABLE} or {@link #BLOCKED}.
+	 */
+	public int getDistance(int y, int x) {
+		return distances[y * width + x];
+	}
+
+	public void cellChanged(int y, int x, byte oldType, byte newType) {
+		if (isSource(oldType) != isSource(newType) || isBlocking(oldType) != isBlocking(newType)) {
+			if (pendingCount == pending.length) {
+				pending = Arrays.copyOf(pending, pendingCount * 2);
+			}
+			pending[pendingCount++] = y * width + x;
+		}
+	}
+
+	public void cleared() {
+		rebuild = true;
+		pendingCount = 0;
+	}
+
+	/**
+	 * Brings the field up to date with the changes made to the map since it
+	 * was last updated. If a large part of the map has changed the field is
+	 * built again from scratch instead.
+	 */
+	public void refresh() {
+		if (rebuild || pendingCount > distances.length / 8) {
+			build();
+		} else if (pendingCount > 0) {
+			update();
+		}
+		rebuild = false;
+		pendingCount = 0;
+	}
+
+	/**
+	 * Works out the whole field with a breadth-first search outwards from
+	 * every map space holding prey. The blocked map spaces and the prey are
+	 * picked out of each row of the map with the grid kernels.
+	 */
+	private void build() {
+		int head = 0, tail = 0;
+		Arrays.fill(distances, UNREACHABLE);
+		GridKernels kernels = GridKernels.get();
+		// Obstacles, and food unless it is the prey, block the field.
+		byte firstBlocking = type == WorldGrid.FOOD ? WorldGrid.OBSTACLE : WorldGrid.FOOD;
+		for (int y = 0; y < height; y++) {
+			int start = y * width;
+			grid.getTypes(y, row);
+			int count = kernels.select(row, 0, width, firstBlocking, WorldGrid.OBSTACLE, picked);
+			for (int i = 0; i < count; i++) {
+				distances[start + picked[i]] = BLOCKED;
+			}
+			count = kernels.select(row, 0, width, type, type, picked);
+			for (int i = 0; i < count; i++) {
+				distances[start + picked[i]] = 0;
+				queue[tail++] = start + picked[i];
+			}
+		}
+		while (head < tail) {
+			int cell = queue[head++];
+			int next = distances[cell] + 1;
+			int y = cell / width, x = cell % width;
+			for (int n = 0; n < 4; n++) {
+				int neighbour = neighbour(y, x, n);
+				if (neighbour >= 0 && distances[neighbour] == UNREACHABLE) {
+					distances[neighbour] = next;
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Works out the field again around the map spaces which have changed. The
+	 * map spaces whose distance depended on prey which has gone, or on map
+	 * spaces which are now blocked, are found first by following the field
+	 * outwards from the changes, nearest first, and cleared. Their distances
+	 * are then worked out again from their neighbours, along with the
+	 * distances around any new prey or unblocked map spaces, nearest first. If
+	 * a large part of the field has to be cleared it is built again from
+	 * scratch instead.
+	 */
+	private void update() {
+		int affectedCount = 0;
+		heap.clear();
+		for (int i = 0; i < pendingCount; i++) {
+			int cell = pending[i];
+			byte t = grid.getType(cell / width, cell % width);
+			int old = distances[cell];
+			if (isBlocking(t)) {
+				if (old != BLOCKED) {
+					distances[cell] = BLOCKED;
+					pushChildren(cell, old);
+				}
+			} else if (old == 0 && !isSource(t)) {
+				heap.push(0, cell);
+			}
+		}
+		// Clears every map space which no longer has a neighbour one step
+		// nearer to prey.
+		while (!heap.isEmpty()) {
+			long entry = heap.pop();
+			int level = CellHeap.distanceOf(entry);
+			int cell = CellHeap.cellOf(entry);
+			if (distances[cell] != level || isSupported(cell, level)) {
+				continue;
+			}
+			if (affectedCount > distances.length / 8) {
+				// Most of the field has to be worked out again anyway.
+				build();
+				return;
+			}
+			distances[cell] = UNREACHABLE;
+			if (affectedCount == affected.length) {
+				affected = Arrays.copyOf(affected, affectedCount * 2);
+			}
+			affected[affectedCount++] = cell;
+			pushChildren(cell, level);
+		}
+
+		// Works out the cleared and changed map spaces from their neighbours.
+		for (int i = 0; i < affectedCount; i++) {
+			settle(affected[i]);
+		}
+		for (int i = 0; i < pendingCount; i++) {
+			settle(pending[i]);
+		}
+		while (!heap.isEmpty()) {
+			long entry = heap.pop();
+			int level = CellHeap.distanceOf(entry);
+			int cell = CellHeap.cellOf(entry);
+			if (distances[cell] != level) {
+				continue;
+			}
+			int y = cell / width, x = cell % width;
+			for (int n = 0; n < 4; n++) {
+				int neighbour = neighbour(y, x, n);
+				if (neighbour >= 0 && distances[neighbour] > level + 1) {
+					distances[neighbour] = level + 1;
+					heap.push(level + 1, neighbour);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives an unblocked map space the distance it should have from its
+	 * neighbours, if that is nearer than its current distance, and queues it
+	 * to pass the distance on.
+	 */
+	private void settle(int cell) {
+		int y = cell / width, x = cell % width;
+		byte t = grid.getType(y, x);
+		if (isBlocking(t)) {
+			return;
+		}
+		int best;
+		if (isSource(t)) {
+			best = 0;
+		} else {
+			best = distances[cell] == BLOCKED ? UNREACHABLE : distances[cell];
+			for (int n = 0; n < 4; n++) {
+				int neighbour = neighbour(y, x, n);
+				if (neighbour >= 0) {
+					int d = distances[neighbour];
+					if (d != UNREACHABLE && d + 1 < best) {
+						best = d + 1;
+					}
+				}
+			}
+		}
+		if (best < distances[cell] || distances[cell] == BLOCKED) {
+			distances[cell] = best;
+			if (best != UNREACHABLE) {
+				heap.push(best, cell);
+			}
+		}
+	}
+
+	/**
+	 * @return true if a map space holds prey or has a neighbour one step
+	 *         nearer to prey than the given distance.
+	 */
+	private boolean isSupported(int cell, int level) {
+		int y = cell / width, x = cell % width;
+		if (level == 0) {
+			return isSource(grid.getType(y, x));
+		}
+		for (int n = 0; n < 4; n++) {
+			int neighbour = neighbour(y, x, n);
+			if (neighbour >= 0 && distances[neighbour] == level - 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Queues the neighbours of a map space which were one step further from
+	 * prey than it, to check whether they still have a way to the prey.
+	 */
+	private void pushChildren(int cell, int level) {
+		if (level == UNREACHABLE || level == BLOCKED) {
+			return;
+		}
+		int y = cell / width, x = cell % width;
+		for (int n = 0; n < 4; n++) {
+			int neighbour = neighbour(y, x, n);
+			if (neighbour >= 0 && distances[neighbour] == level + 1) {
+				heap.push(level + 1, neighbour);
+			}
+		}
+	}
+
+	/**
+	 * @return the index of a neighbouring map space which does not block the
+	 *         field, or -1 if it is off the map or blocks the field.
+	 */
+	private int neighbour(int y, int x, int n) {
+		int cell;
+		switch (n) {
+		case 0:
+			if (y == 0) {
+				return -1;
+			}
+			cell = (y - 1) * width + x;
+			break;
+		case 1:
+			if (x == width - 1) {
+				return -1;
+			}
+			cell = y * width + x + 1;
+			break;
+		case 2:
+			if (y == height - 1) {
+				return -1;
+			}
+			cell = (y + 1) * width + x;
+			break;
+		default:
+			if (x == 0) {
+				return -1;
+			}
+			cell = y * width + x - 1;
+			break;
+		}
+		return distances[cell] == BLOCKED ? -1 : cell;
+	}
+
+	private boolean isSource(byte t) {
+		return t == type;
+	}
+
+	private boolean isBlocking(byte t) {
+		return t == WorldGrid.OBSTACLE || (t == WorldGrid.FOOD && type != WorldGrid.FOOD);
+	}
+}
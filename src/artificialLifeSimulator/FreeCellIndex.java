@@ -0,0 +1,282 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * A grid which counts the map spaces holding each type of object, alongside
+ * another grid which holds the map itself, so a world can tell how full its
+ * map is without looking at every map space. It can also pick a map space at
+ * random from the empty map spaces, or from the map spaces without a
+ * LifeForm, each map space having the same chance of being picked.
+ *
+ * While there are plenty of the map spaces being picked from, map spaces are
+ * tried at random until a suitable one is found. Once they become scarce, a
+ * list of them is built and kept up to date as objects are placed, so a map
+ * space can be picked straight from the list however full the map is.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ * @see AWorld
+ *
+ */
+public class FreeCellIndex implements WorldGrid {
+
+	// The largest map which can have its map spaces listed.
+	private static final long MAX_LISTED_CELLS = Integer.MAX_VALUE - 8;
+
+	private final WorldGrid grid;
+	private final long cells;
+	private final long[] counts = new long[CARNIVORE + 1];
+	private CellList empty, open;
+
+	/**
+	 * A grid which counts the map spaces holding each type of object in
+	 * another grid. Anything already in the grid is counted.
+	 *
+	 * @param grid
+	 *            - the grid which holds the map.
+	 */
+	public FreeCellIndex(WorldGrid grid) {
+		this.grid = grid;
+		cells = (long) grid.getWidth() * grid.getHeight();
+		counts[EMPTY] = cells;
+		grid.forEachOccupied((y, x, object) -> {
+			counts[EMPTY]--;
+			counts[WorldGrid.typeOf(object)]++;
+		});
+	}
+
+	/**
+	 * @param type
+	 *            - a type of object.
+	 * @return the number of map spaces holding the type.
+	 */
+	public long getCount(byte type) {
+		return counts[type];
+	}
+
+	/**
+	 * @return the number of map spaces which do not hold a LifeForm.
+	 */
+	public long getOpenCount() {
+		return cells - counts[HERBIVORE] - counts[CARNIVORE];
+	}
+
+	/**
+	 * @return true if every map space holds a LifeForm.
+	 */
+	public boolean isFull() {
+		return getOpenCount() == 0;
+	}
+
+	/**
+	 * Picks an empty map space at random.
+	 *
+	 * @param random
+	 *            - the random number generator to pick with.
+	 * @return the index of the map space, counting along each row in turn, or
+	 *         -1 if there are no empty map spaces.
+	 */
+	public long randomEmptyCell(RandomStream random) {
+		if (empty == null && isScarce(counts[EMPTY])) {
+			empty = new CellList(false);
+		} else if (empty != null && !isScarce(counts[EMPTY] / 2)) {
+			empty = null;
+		}
+		return pick(empty, false, counts[EMPTY], random);
+	}
+
+	/**
+	 * Picks a map space without a LifeForm at random.
+	 *
+	 * @param random
+	 *            - the random number generator to pick with.
+	 * @return the index of the map space, counting along each row in turn, or
+	 *         -1 if every map space holds a LifeForm.
+	 */
+	public long randomOpenCell(RandomStream random) {
+		long count = getOpenCount();
+		if (open == null && isScarce(count)) {
+			open = new CellList(true);
+		} else if (open != null && !isScarce(count / 2)) {
+			open = null;
+		}
+		return pick(open, true, count, random);
+	}
+
+	public int getWidth() {
+		return grid.getWidth();
+	}
+
+	public int getHeight() {
+		return grid.getHeight();
+	}
+
+	public AWorldObject get(int y, int x) {
+		return grid.get(y, x);
+	}
+
+	public byte getType(int y, int x) {
+		return grid.getType(y, x);
+	}
+
+	public void getTypes(int y, byte[] row) {
+		grid.getTypes(y, row);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		byte oldType = grid.getType(y, x);
+		byte newType = WorldGrid.typeOf(object);
+		grid.set(y, x, object);
+		if (oldType != newType) {
+			counts[oldType]--;
+			counts[newType]++;
+			long cell = (long) y * grid.getWidth() + x;
+			if (empty != null) {
+				empty.update(cell, oldType, newType);
+			}
+			if (open != null) {
+				open.update(cell, oldType, newType);
+			}
+		}
+	}
+
+	public void clear() {
+		grid.clear();
+		Arrays.fill(counts, 0);
+		counts[EMPTY] = cells;
+		empty = null;
+		open = null;
+	}
+
+	public void forEachOccupied(CellVisitor visitor) {
+		grid.forEachOccupied(visitor);
+	}
+
+	/**
+	 * @param count
+	 *            - the number of map spaces which could be picked.
+	 * @return true if trying map spaces at random would take more than a few
+	 *         tries, and the map is small enough to be listed.
+	 */
+	private boolean isScarce(long count) {
+		return count * 4 < cells && cells <= MAX_LISTED_CELLS;
+	}
+
+	/**
+	 * Picks a map space at random, from the list if there is one or by trying
+	 * map spaces until a suitable one is found.
+	 *
+	 * @param list
+	 *            - the list of map spaces to pick from, or null.
+	 * @param openOnly
+	 *            - true to pick any map space without a LifeForm, false to
+	 *            pick only empty map spaces.
+	 * @param count
+	 *            - the number of map spaces which could be picked.
+	 * @param random
+	 *            - the random number generator to pick with.
+	 * @return the index of the map space, or -1 if there are none.
+	 */
+	private long pick(CellList list, boolean openOnly, long count, RandomStream random) {
+		if (count == 0) {
+			return -1;
+		} else if (list != null) {
+			return list.listed[random.nextInt(list.size)];
+		}
+		int width = grid.getWidth();
+		while (true) {
+			long cell = random.nextLong(cells);
+			if (matches(grid.getType((int) (cell / width), (int) (cell % width)), openOnly)) {
+				return cell;
+			}
+		}
+	}
+
+	private static boolean matches(byte type, boolean openOnly) {
+		return openOnly ? type != HERBIVORE && type != CARNIVORE : type == EMPTY;
+	}
+
+	/**
+	 * The map spaces which could be picked, held so that one can be picked at
+	 * random, added or removed without searching.
+	 */
+	private class CellList {
+
+		private final boolean openOnly;
+		private long[] listed;
+		// The position of each map space in the list plus one, or 0 if it is
+		// not in the list.
+		private final int[] positions;
+		private int size;
+
+		/**
+		 * Lists the map spaces in the grid which could be picked.
+		 *
+		 * @param openOnly
+		 *            - true to list any map space without a LifeForm, false to
+		 *            list only empty map spaces.
+		 */
+		CellList(boolean openOnly) {
+			this.openOnly = openOnly;
+			int total = (int) cells;
+			listed = new long[16];
+			positions = new int[total];
+			int width = grid.getWidth();
+			GridKernels kernels = GridKernels.get();
+			byte[] row = new byte[width];
+			int[] picked = new int[width];
+			// Empty map spaces, or those holding anything up to an obstacle.
+			byte highest = openOnly ? OBSTACLE : EMPTY;
+			for (int y = 0; y < grid.getHeight(); y++) {
+				grid.getTypes(y, row);
+				int count = kernels.select(row, 0, width, EMPTY, highest, picked);
+				for (int i = 0; i < count; i++) {
+					add((long) y * width + picked[i]);
+				}
+			}
+		}
+
+		/**
+		 * Adds or removes a map space whose type of object has changed.
+		 *
+		 * @param cell
+		 *            - the index of the map space.
+		 * @param oldType
+		 *            - the type of object the map space held.
+		 * @param newType
+		 *            - the type of object the map space now holds.
+		 */
+		void update(long cell, byte oldType, byte newType) {
+			boolean was = matches(oldType, openOnly);
+			boolean is = matches(newType, openOnly);
+			if (is && !was) {
+				add(cell);
+			} else if (was && !is) {
+				remove(cell);
+			}
+		}
+
+		private void add(long cell) {
+			if (size == listed.length) {
+				listed = Arrays.copyOf(listed, size * 2);
+			}
+			listed[size++] = cell;
+			positions[(int) cell] = size;
+		}
+
+		/**
+		 * Removes a map space, moving the last map space in the list in to
+		 * its place.
+		 */
+		private void remove(long cell) {
+			int i = positions[(int) cell] - 1;
+			positions[(int) cell] = 0;
+			long last = listed[--size];
+			if (i < size) {
+				listed[i] = last;
+				positions[(int) last] = i + 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package artificialLifeSimulator;
+
+/**
+ * The loops which sweep along the types of a run of map spaces, such as a row
+ * of the map or a chunk of a grid, picking out the map spaces holding certain
+ * types of object. These are written once here so that they can be replaced
+ * by versions which look at many map spaces at a time.
+ *
+ * The version returned by {@link #get()} uses the JDK's incubating vector API
+ * when the jdk.incubator.vector module has been added to the JVM, with the
+ * --add-modules option and the vector version has been compiled from the
+ * src-vector folder, and otherwise looks at one map space at a time. Both
+ * versions give the same results.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid#getTypes(int, byte[])
+ *
+ */
+public class GridKernels {
+
+	private static final GridKernels KERNELS = load();
+
+	GridKernels() {
+	}
+
+	/**
+	 * @return the fastest version of the kernels available to the JVM.
+	 */
+	public static GridKernels get() {
+		return KERNELS;
+	}
+
+	/**
+	 * Loads the vector version of the kernels if the vector API is
+	 * available.
+	 */
+	private static GridKernels load() {
+		try {
+			return (GridKernels) Class.forName("artificialLifeSimulator.VectorGridKernels").getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return new GridKernels();
+		}
+	}
+
+	/**
+	 * @return true if the kernels look at many map spaces at a time.
+	 */
+	public boolean isVectorized() {
+		return false;
+	}
+
+	/**
+	 * Finds the map spaces in a run of types holding a type of object between
+	 * two types, inclusive. The types are numbered so that the map spaces
+	 * holding any object, or which are free of LifeForms, can each be picked
+	 * out as a single range.
+	 *
+	 * @param types
+	 *            - the types of the map spaces.
+	 * @param from
+	 *            - the index of the first map space to look at.
+	 * @param to
+	 *            - the index after the last map space to look at.
+	 * @param low
+	 *            - the lowest type to pick out.
+	 * @param high
+	 *            - the highest type to pick out.
+	 * @param indices
+	 *            - filled with the indices of the map spaces picked out, in
+	 *            order, which must have room for every map space looked at.
+	 * @return the number of map spaces picked out.
+	 * @see WorldGrid
+	 */
+	public int select(byte[] types, int from, int to, byte low, byte high, int[] indices) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			byte type = types[i];
+			if (type >= low && type <= high) {
+				indices[count++] = i;
+			}
+		}
+		return count;
+	}
+}
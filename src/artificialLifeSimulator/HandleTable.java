@@ -0,0 +1,86 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * A table of the objects placed in a grid which stores its map spaces as
+ * handles rather than references. Each object remembers its handle so placing
+ * it again does not need a search, and a handle is reused once its object is
+ * no longer in any map space.
+ *
+ * @author Jed Brennen
+ * @see TypedGrid
+ * @see OffHeapGrid
+ *
+ */
+class HandleTable {
+
+	private AWorldObject[] objects = new AWorldObject[16];
+	private int[] references = new int[16];
+	private int[] freeHandles = new int[16];
+	private int freeCount, handleCount;
+
+	/**
+	 * @param handle
+	 *            - the handle of an object in the table.
+	 * @return the object with the handle.
+	 */
+	AWorldObject get(int handle) {
+		return objects[handle];
+	}
+
+	/**
+	 * Returns the handle of an object which is being placed in a map space,
+	 * giving it a new handle if it is not already in the table.
+	 *
+	 * @param object
+	 *            - the object being placed.
+	 * @return the object's handle.
+	 */
+	int acquire(AWorldObject object) {
+		int handle = object.gridHandle;
+		if (handle >= 0 && handle < handleCount && objects[handle] == object) {
+			references[handle]++;
+			return handle;
+		}
+
+		if (freeCount > 0) {
+			handle = freeHandles[--freeCount];
+		} else {
+			if (handleCount == objects.length) {
+				int capacity = objects.length * 2;
+				objects = Arrays.copyOf(objects, capacity);
+				references = Arrays.copyOf(references, capacity);
+				freeHandles = Arrays.copyOf(freeHandles, capacity);
+			}
+			handle = handleCount++;
+		}
+		objects[handle] = object;
+		references[handle] = 1;
+		object.gridHandle = handle;
+		return handle;
+	}
+
+	/**
+	 * Releases a handle once its object has been removed from a map space.
+	 *
+	 * @param handle
+	 *            - the handle of the object removed.
+	 */
+	void release(int handle) {
+		if (--references[handle] == 0) {
+			objects[handle] = null;
+			freeHandles[freeCount++] = handle;
+		}
+	}
+
+	/**
+	 * Removes every object from the table.
+	 */
+	void clear() {
+		Arrays.fill(objects, 0, handleCount, null);
+		Arrays.fill(references, 0, handleCount, 0);
+		handleCount = 0;
+		freeCount = 0;
+	}
+}
@@ -0,0 +1,139 @@
+package artificialLifeSimulator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A list of world objects in which each object knows its own position, so an
+ * object can be found or removed without searching the list. Removing an
+ * object moves the last object in the list in to its place, so the order of
+ * the list is not kept when objects are removed.
+ *
+ * An object can only be in one of these lists at a time.
+ *
+ * @author Jed Brennen
+ * @param <T>
+ *            - the type of world object held.
+ * @see AWorld
+ *
+ */
+public class IndexedEntitySet<T extends AWorldObject> extends AbstractList<T> implements RandomAccess {
+
+	private AWorldObject[] elements;
+	private int size;
+
+	/**
+	 * An empty list.
+	 */
+	public IndexedEntitySet() {
+		elements = new AWorldObject[16];
+	}
+
+	/**
+	 * A list holding the given objects, in the same order.
+	 *
+	 * @param objects
+	 *            - the objects to add.
+	 */
+	public IndexedEntitySet(Collection<? extends T> objects) {
+		elements = new AWorldObject[Math.max(16, objects.size())];
+		addAll(objects);
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		checkIndex(index);
+		return (T) elements[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean add(T object) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		object.listIndex = size;
+		elements[size++] = object;
+		modCount++;
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T set(int index, T object) {
+		checkIndex(index);
+		AWorldObject old = elements[index];
+		old.listIndex = -1;
+		object.listIndex = index;
+		elements[index] = object;
+		return (T) old;
+	}
+
+	/**
+	 * Removes the object at the given position, moving the last object in the
+	 * list in to its place.
+	 */
+	@SuppressWarnings("unchecked")
+	public T remove(int index) {
+		checkIndex(index);
+		AWorldObject removed = elements[index];
+		removed.listIndex = -1;
+		AWorldObject last = elements[--size];
+		elements[size] = null;
+		if (index < size) {
+			elements[index] = last;
+			last.listIndex = index;
+		}
+		modCount++;
+		return (T) removed;
+	}
+
+	/**
+	 * Removes an object from the list without searching for it, moving the
+	 * last object in the list in to its place.
+	 */
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	public int indexOf(Object o) {
+		if (o instanceof AWorldObject) {
+			int index = ((AWorldObject) o).listIndex;
+			if (index >= 0 && index < size && elements[index] == o) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			elements[i].listIndex = -1;
+			elements[i] = null;
+		}
+		size = 0;
+		modCount++;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
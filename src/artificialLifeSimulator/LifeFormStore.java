@@ -0,0 +1,277 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+import worldObjects.ALifeForm;
+
+/**
+ * Holds the state which changes every cycle for all of the LifeForms in a
+ * world, with one array for each value and one slot in each array for each
+ * LifeForm. While a LifeForm is in the store it reads and writes its position,
+ * energy, poison and timer through its slot. Whether a LifeForm is alive
+ * follows from its energy. A LifeForm's name, species, sensing distance and
+ * initial copy stay with the LifeForm itself.
+ *
+ * The simulation's rules for using up energy, draining poison and digesting
+ * are applied to the arrays directly. Sensing and moving are not: the engine
+ * still visits the LifeForm objects in turn for these, since the map holds
+ * references to the LifeForms and each species scans and moves in its own
+ * way, so the LifeForms' getters and setters check whether they are in a
+ * store.
+ *
+ * @author Jed Brennen
+ * @see ALifeForm
+ *
+ */
+public class LifeFormStore {
+
+	private int[] x, y, energy, poison, timer;
+	private ALifeForm[] lifeForms;
+	private int size;
+
+	/**
+	 * An empty store of LifeForm state.
+	 */
+	public LifeFormStore() {
+		allocate(16);
+	}
+
+	/**
+	 * Adds a LifeForm to the store, copying its state in to a new slot. The
+	 * LifeForm uses the slot until the store is cleared.
+	 *
+	 * @param a
+	 *            - the LifeForm to add.
+	 * @return the LifeForm's slot.
+	 */
+	public int add(ALifeForm a) {
+		if (size == lifeForms.length) {
+			allocate(size * 2);
+		}
+		int slot = size++;
+		x[slot] = a.getX();
+		y[slot] = a.getY();
+		energy[slot] = a.getEnergy();
+		poison[slot] = a.getPoison();
+		timer[slot] = a.getTimer();
+		lifeForms[slot] = a;
+		a.attach(this, slot);
+		return slot;
+	}
+
+	/**
+	 * Removes every LifeForm from the store, copying each LifeForm's state back
+	 * in to the LifeForm.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			lifeForms[i].detach();
+			lifeForms[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * @return the number of slots in use.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param slot
+	 *            - a slot in the store.
+	 * @return the LifeForm using the slot.
+	 */
+	public ALifeForm get(int slot) {
+		return lifeForms[slot];
+	}
+
+	/**
+	 * Uses up one unit of a LifeForm's energy for the cycle, killing it if it
+	 * has none left.
+	 *
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 */
+	public void metabolise(int slot) {
+		energy[slot]--;
+	}
+
+	/**
+	 * Drains one unit of poison from a living LifeForm, costing it one unit of
+	 * energy.
+	 *
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 */
+	public void drainPoison(int slot) {
+		if (poison[slot] > 0 && isAlive(slot)) {
+			energy[slot]--;
+			poison[slot]--;
+		}
+	}
+
+	/**
+	 * Applies a number of cycles spent digesting to a LifeForm at once. Each
+	 * cycle reduces the LifeForm's timer and drains its poison.
+	 *
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param cycles
+	 *            - the number of cycles to apply.
+	 */
+	public void digest(int slot, int cycles) {
+		int drained = Math.min(poison[slot], cycles);
+		timer[slot] -= cycles;
+		energy[slot] -= drained;
+		poison[slot] -= drained;
+	}
+
+	/**
+	 * Returns the cycle in which a digesting LifeForm next needs to be
+	 * updated: when it finishes digesting, or earlier if its poison will use
+	 * up the last of its energy first.
+	 *
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param cycle
+	 *            - the current cycle.
+	 * @return the cycle in which to wake the LifeForm.
+	 */
+	public long getWakeCycle(int slot, long cycle) {
+		long wakeCycle = cycle + timer[slot];
+		if (poison[slot] >= energy[slot]) {
+			wakeCycle = Math.min(wakeCycle, cycle + energy[slot]);
+		}
+		return wakeCycle;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return the column of the LifeForm.
+	 */
+	public int getX(int slot) {
+		return x[slot];
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return the row of the LifeForm.
+	 */
+	public int getY(int slot) {
+		return y[slot];
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return the energy of the LifeForm.
+	 */
+	public int getEnergy(int slot) {
+		return energy[slot];
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return the poison of the LifeForm.
+	 */
+	public int getPoison(int slot) {
+		return poison[slot];
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return the number of cycles the LifeForm has left to digest.
+	 */
+	public int getTimer(int slot) {
+		return timer[slot];
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @return true if the LifeForm has an energy greater than 0.
+	 */
+	public boolean isAlive(int slot) {
+		return energy[slot] > 0;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param value
+	 *            - the new column of the LifeForm.
+	 */
+	public void setX(int slot, int value) {
+		x[slot] = value;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param value
+	 *            - the new row of the LifeForm.
+	 */
+	public void setY(int slot, int value) {
+		y[slot] = value;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param value
+	 *            - the new energy of the LifeForm.
+	 */
+	public void setEnergy(int slot, int value) {
+		energy[slot] = value;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param value
+	 *            - the new poison of the LifeForm.
+	 */
+	public void setPoison(int slot, int value) {
+		poison[slot] = value;
+	}
+
+	/**
+	 * @param slot
+	 *            - the LifeForm's slot.
+	 * @param value
+	 *            - the new number of cycles the LifeForm has left to digest.
+	 */
+	public void setTimer(int slot, int value) {
+		timer[slot] = value;
+	}
+
+	/**
+	 * Grows the arrays to the given capacity, keeping the slots in use.
+	 *
+	 * @param capacity
+	 *            - the new number of slots.
+	 */
+	private void allocate(int capacity) {
+		if (lifeForms == null) {
+			x = new int[capacity];
+			y = new int[capacity];
+			energy = new int[capacity];
+			poison = new int[capacity];
+			timer = new int[capacity];
+			lifeForms = new ALifeForm[capacity];
+		} else {
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			energy = Arrays.copyOf(energy, capacity);
+			poison = Arrays.copyOf(poison, capacity);
+			timer = Arrays.copyOf(timer, capacity);
+			lifeForms = Arrays.copyOf(lifeForms, capacity);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package artificialLifeSimulator;
+
+/**
+ * A grid which stores a reference to the object in each map space in a
+ * 2-dimensional array. The type of a map space is worked out from its object
+ * each time it is asked for.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ *
+ */
+public class ObjectGrid implements WorldGrid {
+
+	private final AWorldObject[][] map;
+	private final int width, height;
+
+	/**
+	 * A grid which stores a reference to the object in each map space.
+	 *
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 */
+	public ObjectGrid(int height, int width) {
+		this.width = width;
+		this.height = height;
+		map = new AWorldObject[height][width];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public AWorldObject get(int y, int x) {
+		return map[y][x];
+	}
+
+	public byte getType(int y, int x) {
+		return WorldGrid.typeOf(map[y][x]);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		map[y][x] = object;
+	}
+
+	public void clear() {
+		for (int i = 0; i < map.length; i++) {
+			for (int j = 0; j < map[i].length; j++) {
+				map[i][j] = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package artificialLifeSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A grid which tells its listeners about every map space which changes in
+ * another grid, so that anything built from the map can be kept up to date
+ * without looking at the whole map again.
+ *
+ * The listeners are told about changes on the thread which makes them, and
+ * the grid should only be changed by one thread at a time.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ * @see CellListener
+ *
+ */
+public class ObservedGrid implements WorldGrid {
+
+	private final WorldGrid grid;
+	private CellListener[] listeners = new CellListener[0];
+
+	/**
+	 * A grid which tells its listeners about changes to another grid.
+	 *
+	 * @param grid
+	 *            - the grid which holds the map.
+	 */
+	public ObservedGrid(WorldGrid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * @param listener
+	 *            - the listener to tell about changes.
+	 */
+	public synchronized void addListener(CellListener listener) {
+		ArrayList<CellListener> list = new ArrayList<>(Arrays.asList(listeners));
+		list.add(listener);
+		listeners = list.toArray(new CellListener[list.size()]);
+	}
+
+	/**
+	 * @param listener
+	 *            - the listener to stop telling about changes.
+	 */
+	public synchronized void removeListener(CellListener listener) {
+		ArrayList<CellListener> list = new ArrayList<>(Arrays.asList(listeners));
+		list.remove(listener);
+		listeners = list.toArray(new CellListener[list.size()]);
+	}
+
+	public int getWidth() {
+		return grid.getWidth();
+	}
+
+	public int getHeight() {
+		return grid.getHeight();
+	}
+
+	public AWorldObject get(int y, int x) {
+		return grid.get(y, x);
+	}
+
+	public byte getType(int y, int x) {
+		return grid.getType(y, x);
+	}
+
+	public void getTypes(int y, byte[] row) {
+		grid.getTypes(y, row);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		CellListener[] current = listeners;
+		if (current.length == 0) {
+			grid.set(y, x, object);
+			return;
+		}
+		byte oldType = grid.getType(y, x);
+		grid.set(y, x, object);
+		byte newType = WorldGrid.typeOf(object);
+		for (CellListener listener : current) {
+			listener.cellChanged(y, x, oldType, newType);
+		}
+	}
+
+	public void clear() {
+		grid.clear();
+		for (CellListener listener : listeners) {
+			listener.cleared();
+		}
+	}
+
+	public void forEachOccupied(CellVisitor visitor) {
+		grid.forEachOccupied(visitor);
+	}
+}
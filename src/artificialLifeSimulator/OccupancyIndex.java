@@ -0,0 +1,199 @@
+package artificialLifeSimulator;
+
+import java.util.BitSet;
+
+/**
+ * A grid which keeps a record of where the food and herbivores are in each row
+ * and each column of the map, alongside another grid which holds the map
+ * itself. Each row and each column has a set of bits for each type, with a
+ * bit set for every map space holding that type, so the nearest food or
+ * herbivore along a row or column can be found without stepping through the
+ * map spaces in between. The sets of bits are created the first time
+ * something is placed in their row or column.
+ *
+ * The record is kept up to date as objects are placed in the grid, and the
+ * grid may be read by several threads at once as long as only one thread
+ * changes it at a time.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ *
+ */
+public class OccupancyIndex implements WorldGrid {
+
+	private final WorldGrid grid;
+	// Indexed by the type and then by the row or column.
+	private final BitSet[][] rows, columns;
+
+	/**
+	 * A grid which keeps a record of where the food and herbivores are in each
+	 * row and column of another grid. Anything already in the grid is
+	 * recorded.
+	 *
+	 * @param grid
+	 *            - the grid which holds the map.
+	 */
+	public OccupancyIndex(WorldGrid grid) {
+		this.grid = grid;
+		rows = new BitSet[HERBIVORE + 1][];
+		columns = new BitSet[HERBIVORE + 1][];
+		for (byte type : new byte[] { FOOD, HERBIVORE }) {
+			rows[type] = new BitSet[grid.getHeight()];
+			columns[type] = new BitSet[grid.getWidth()];
+		}
+		grid.forEachOccupied((y, x, object) -> record(y, x, WorldGrid.typeOf(object), true));
+	}
+
+	/**
+	 * @param type
+	 *            - a type of object.
+	 * @return true if the positions of the type are recorded.
+	 */
+	public boolean isIndexed(byte type) {
+		return type == FOOD || type == HERBIVORE;
+	}
+
+	/**
+	 * Finds the nearest map space holding the given type in a direction from a
+	 * map space, looking only at map spaces within the given range of
+	 * distances.
+	 *
+	 * @param type
+	 *            - the type to look for, which must be indexed.
+	 * @param y
+	 *            - the row of the map space to look from.
+	 * @param x
+	 *            - the column of the map space to look from.
+	 * @param d
+	 *            - the direction to look in.
+	 * @param from
+	 *            - the smallest distance to look at.
+	 * @param to
+	 *            - the largest distance to look at, which must be within the
+	 *            map.
+	 * @return the distance to the nearest map space found, or -1 if there is
+	 *         none.
+	 * @see #isIndexed(byte)
+	 */
+	public int nextAlong(byte type, int y, int x, Direction d, int from, int to) {
+		if (from > to) {
+			return -1;
+		}
+		BitSet bits;
+		int found;
+		switch (d) {
+		case NORTH:
+			bits = columns[type][x];
+			if (bits == null) {
+				return -1;
+			}
+			found = bits.previousSetBit(y - from);
+			return found >= 0 && found >= y - to ? y - found : -1;
+		case SOUTH:
+			bits = columns[type][x];
+			if (bits == null) {
+				return -1;
+			}
+			found = bits.nextSetBit(y + from);
+			return found >= 0 && found <= y + to ? found - y : -1;
+		case EAST:
+			bits = rows[type][y];
+			if (bits == null) {
+				return -1;
+			}
+			found = bits.nextSetBit(x + from);
+			return found >= 0 && found <= x + to ? found - x : -1;
+		case WEST:
+			bits = rows[type][y];
+			if (bits == null) {
+				return -1;
+			}
+			found = bits.previousSetBit(x - from);
+			return found >= 0 && found >= x - to ? x - found : -1;
+		default:
+			return -1;
+		}
+	}
+
+	public int getWidth() {
+		return grid.getWidth();
+	}
+
+	public int getHeight() {
+		return grid.getHeight();
+	}
+
+	public AWorldObject get(int y, int x) {
+		return grid.get(y, x);
+	}
+
+	public byte getType(int y, int x) {
+		return grid.getType(y, x);
+	}
+
+	public void getTypes(int y, byte[] row) {
+		grid.getTypes(y, row);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		byte oldType = grid.getType(y, x);
+		byte newType = WorldGrid.typeOf(object);
+		grid.set(y, x, object);
+		if (oldType != newType) {
+			record(y, x, oldType, false);
+			record(y, x, newType, true);
+		}
+	}
+
+	public void clear() {
+		grid.clear();
+		for (byte type : new byte[] { FOOD, HERBIVORE }) {
+			rows[type] = new BitSet[grid.getHeight()];
+			columns[type] = new BitSet[grid.getWidth()];
+		}
+	}
+
+	public void forEachOccupied(CellVisitor visitor) {
+		grid.forEachOccupied(visitor);
+	}
+
+	/**
+	 * Sets or clears the bits for a map space in its row and column.
+	 *
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 * @param type
+	 *            - the type of object in the map space.
+	 * @param present
+	 *            - true if the type has been placed in the map space, false
+	 *            if it has been removed.
+	 */
+	private void record(int y, int x, byte type, boolean present) {
+		if (!isIndexed(type)) {
+			return;
+		}
+		BitSet row = rows[type][y];
+		BitSet column = columns[type][x];
+		if (present) {
+			// Each set is made at its full length, as a set grows its array
+			// every time a bit past its end is set.
+			if (row == null) {
+				row = rows[type][y] = new BitSet(columns[type].length);
+			}
+			if (column == null) {
+				column = columns[type][x] = new BitSet(rows[type].length);
+			}
+			row.set(x);
+			column.set(y);
+		} else {
+			if (row != null) {
+				row.clear(x);
+			}
+			if (column != null) {
+				column.clear(y);
+			}
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A grid which stores the types and handles of its map spaces outside of the
+ * Java heap, so that maps too large for the heap can be simulated without the
+ * garbage collector having to look at them. The map is split in to chunks of
+ * whole rows, each held in its own direct buffer or, if a file is given, in a
+ * region of a memory-mapped file, which lets the operating system page parts
+ * of the map out to disk.
+ *
+ * The file only holds the grid while the simulation is running and is deleted
+ * when the program exits. Worlds are still saved to their world file as
+ * normal.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ * @see HandleTable
+ *
+ */
+public class OffHeapGrid implements WorldGrid {
+
+	/**
+	 * The largest number of map spaces in a chunk. Each map space takes 5
+	 * bytes, keeping a chunk's handle buffer well below the 2GB limit of a
+	 * buffer.
+	 */
+	private static final int MAX_CHUNK_CELLS = 1 << 28;
+
+	private final int width, height, rowsPerChunk;
+	private final ByteBuffer[] types;
+	private final IntBuffer[] handles;
+	private final HandleTable objects = new HandleTable();
+	// A row of types and its occupied map spaces, kept so visiting them does
+	// not allocate.
+	private final byte[] row;
+	private final int[] occupied;
+
+	/**
+	 * A grid which stores its map spaces in direct buffers outside of the Java
+	 * heap. The total size of direct buffers is limited by the JVM's
+	 * MaxDirectMemorySize option.
+	 *
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 */
+	public OffHeapGrid(int height, int width) {
+		this.width = width;
+		this.height = height;
+		rowsPerChunk = getRowsPerChunk(width);
+		int chunks = getChunkCount();
+		types = new ByteBuffer[chunks];
+		handles = new IntBuffer[chunks];
+		row = new byte[width];
+		occupied = new int[width];
+		for (int c = 0; c < chunks; c++) {
+			int cells = getChunkRows(c) * width;
+			types[c] = ByteBuffer.allocateDirect(cells);
+			handles[c] = ByteBuffer.allocateDirect(cells * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		}
+	}
+
+	/**
+	 * A grid which stores its map spaces in a memory-mapped file. Any existing
+	 * contents of the file are discarded.
+	 *
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 * @param file
+	 *            - the file in which to store the grid.
+	 * @throws IOException
+	 *             if the file could not be created or mapped.
+	 */
+	public OffHeapGrid(int height, int width, File file) throws IOException {
+		this.width = width;
+		this.height = height;
+		rowsPerChunk = getRowsPerChunk(width);
+		int chunks = getChunkCount();
+		types = new ByteBuffer[chunks];
+		handles = new IntBuffer[chunks];
+		row = new byte[width];
+		occupied = new int[width];
+
+		file.deleteOnExit();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			// Truncating the file first makes sure every map space starts
+			// empty.
+			raf.setLength(0);
+			raf.setLength((long) width * height * 5);
+			FileChannel channel = raf.getChannel();
+			long position = 0;
+			for (int c = 0; c < chunks; c++) {
+				int cells = getChunkRows(c) * width;
+				types[c] = channel.map(FileChannel.MapMode.READ_WRITE, position, cells);
+				position += cells;
+				handles[c] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) cells * 4)
+						.order(ByteOrder.nativeOrder()).asIntBuffer();
+				position += (long) cells * 4;
+			}
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public AWorldObject get(int y, int x) {
+		int c = y / rowsPerChunk;
+		int i = (y - c * rowsPerChunk) * width + x;
+		if (types[c].get(i) == EMPTY) {
+			return null;
+		}
+		return objects.get(handles[c].get(i));
+	}
+
+	public byte getType(int y, int x) {
+		int c = y / rowsPerChunk;
+		return types[c].get((y - c * rowsPerChunk) * width + x);
+	}
+
+	public void getTypes(int y, byte[] row) {
+		int c = y / rowsPerChunk;
+		ByteBuffer b = types[c].duplicate();
+		b.position((y - c * rowsPerChunk) * width);
+		b.get(row, 0, width);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		int c = y / rowsPerChunk;
+		int i = (y - c * rowsPerChunk) * width + x;
+		if (types[c].get(i) != EMPTY) {
+			objects.release(handles[c].get(i));
+		}
+		if (object == null) {
+			types[c].put(i, EMPTY);
+			handles[c].put(i, 0);
+		} else {
+			handles[c].put(i, objects.acquire(object));
+			types[c].put(i, WorldGrid.typeOf(object));
+		}
+	}
+
+	public void clear() {
+		byte[] zeros = new byte[Math.min(width * rowsPerChunk, 1 << 16)];
+		for (int c = 0; c < types.length; c++) {
+			fill(types[c], zeros);
+			IntBuffer h = handles[c];
+			for (int i = 0; i < h.capacity(); i++) {
+				h.put(i, 0);
+			}
+		}
+		objects.clear();
+	}
+
+	/**
+	 * Copies each row out of the buffers in one go and picks out its occupied
+	 * map spaces with the grid's kernels.
+	 */
+	public void forEachOccupied(CellVisitor visitor) {
+		GridKernels kernels = GridKernels.get();
+		for (int y = 0; y < height; y++) {
+			getTypes(y, row);
+			int count = kernels.select(row, 0, width, FOOD, CARNIVORE, occupied);
+			for (int i = 0; i < count; i++) {
+				visitor.visit(y, occupied[i], get(y, occupied[i]));
+			}
+		}
+	}
+
+	/**
+	 * Fills a buffer with zeros.
+	 *
+	 * @param buffer
+	 *            - the buffer to fill.
+	 * @param zeros
+	 *            - an array of zeros to copy in to the buffer.
+	 */
+	private static void fill(ByteBuffer buffer, byte[] zeros) {
+		ByteBuffer b = buffer.duplicate();
+		b.clear();
+		while (b.hasRemaining()) {
+			b.put(zeros, 0, Math.min(zeros.length, b.remaining()));
+		}
+	}
+
+	/**
+	 * @param width
+	 *            - the number of columns in the grid.
+	 * @return the number of rows to store in each chunk.
+	 */
+	private static int getRowsPerChunk(int width) {
+		return Math.max(1, MAX_CHUNK_CELLS / Math.max(1, width));
+	}
+
+	/**
+	 * @return the number of chunks needed to hold every row.
+	 */
+	private int getChunkCount() {
+		return (height + rowsPerChunk - 1) / rowsPerChunk;
+	}
+
+	/**
+	 * @param chunk
+	 *            - the index of a chunk.
+	 * @return the number of rows in the chunk.
+	 */
+	private int getChunkRows(int chunk) {
+		return Math.min(rowsPerChunk, height - chunk * rowsPerChunk);
+	}
+}
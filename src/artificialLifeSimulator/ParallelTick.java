@@ -0,0 +1,249 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import worldObjects.ALifeForm;
+
+/**
+ * Runs the sensing part of a cycle across several threads. The map is split in
+ * to square tiles and, before any LifeForm moves, every living LifeForm is
+ * scanned in parallel one tile at a time. The engine then moves the LifeForms
+ * one after another in their usual order, using each LifeForm's scan unless a
+ * LifeForm before it has changed one of the map spaces the scan looked at, in
+ * which case the LifeForm is scanned again. Random numbers are only used while
+ * moving, so a cycle gives exactly the same result as a serial one.
+ * 
+ * @author Jed Brennen
+ * @see SimulationEngine
+ *
+ */
+class ParallelTick {
+
+	private static final int TILE_SIZE = 64;
+	// The number of tiles below which a task stops splitting.
+	private static final int TILES_PER_TASK = 4;
+
+	private final ForkJoinPool pool;
+	private int width, height, tilesX, tilesY;
+	private int[] tileStamps, changeCounts;
+	// The map spaces changed in each tile this cycle, as positions within the
+	// tile, so that nothing the size of the whole map has to be kept.
+	private int[][] changes;
+	private int stamp;
+	private int[] tileStarts, tileNext, byTile, scans;
+	private boolean[] scanned;
+
+	/**
+	 * @param pool
+	 *            - the pool on which to run the scans.
+	 */
+	ParallelTick(ForkJoinPool pool) {
+		this.pool = pool;
+		scans = new int[0];
+		scanned = new boolean[0];
+		byTile = new int[0];
+	}
+
+	/**
+	 * Scans every living LifeForm in the list in parallel, tile by tile, ready
+	 * for them to be moved.
+	 * 
+	 * @param world
+	 *            - the world being advanced.
+	 * @param lifeForms
+	 *            - the LifeForms to scan, in the order they will be moved.
+	 */
+	void scan(AWorld world, List<ALifeForm> lifeForms) {
+		resize(world.getWidth(), world.getHeight());
+		nextStamp();
+
+		int count = lifeForms.size();
+		if (scans.length < count) {
+			scans = new int[count];
+			scanned = new boolean[count];
+			byTile = new int[count];
+		}
+
+		// Sorts the LifeForms by tile using a counting sort.
+		int tiles = tilesX * tilesY;
+		int[] starts = tileStarts;
+		Arrays.fill(starts, 0);
+		for (int i = 0; i < count; i++) {
+			ALifeForm a = lifeForms.get(i);
+			scanned[i] = false;
+			if (a.isAlive()) {
+				starts[tileOf(a.getX(), a.getY()) + 1]++;
+			}
+		}
+		for (int t = 0; t < tiles; t++) {
+			starts[t + 1] += starts[t];
+		}
+		int[] next = tileNext;
+		System.arraycopy(starts, 0, next, 0, tiles);
+		for (int i = 0; i < count; i++) {
+			ALifeForm a = lifeForms.get(i);
+			if (a.isAlive()) {
+				byTile[next[tileOf(a.getX(), a.getY())]++] = i;
+			}
+		}
+
+		pool.invoke(new ScanTask(lifeForms, 0, tiles));
+	}
+
+	/**
+	 * Returns the direction in which a LifeForm should move, reusing its
+	 * parallel scan if none of the map spaces it looked at have changed.
+	 * 
+	 * @param a
+	 *            - the LifeForm to sense for.
+	 * @param index
+	 *            - the LifeForm's position in the list which was scanned.
+	 * @return the direction in which to move.
+	 */
+	Direction sense(ALifeForm a, int index) {
+		if (!scanned[index] || changedWithin(a.getX(), a.getY(), a.getScanDistance())) {
+			return a.sense();
+		}
+		return a.chooseDirection(scans[index]);
+	}
+
+	/**
+	 * Records that the contents of a map space have changed during this
+	 * cycle, so any scan which looked at it can no longer be used.
+	 * 
+	 * @param x
+	 *            - the column index of the map space.
+	 * @param y
+	 *            - the row index of the map space.
+	 */
+	void changed(int x, int y) {
+		int t = tileOf(x, y);
+		if (tileStamps[t] != stamp) {
+			tileStamps[t] = stamp;
+			changeCounts[t] = 0;
+		}
+		int[] list = changes[t];
+		if (list == null) {
+			list = changes[t] = new int[8];
+		} else if (changeCounts[t] == list.length) {
+			list = changes[t] = Arrays.copyOf(list, list.length * 2);
+		}
+		list[changeCounts[t]++] = (y % TILE_SIZE) * TILE_SIZE + x % TILE_SIZE;
+	}
+
+	/**
+	 * Checks whether any map space within the given distance of a position,
+	 * horizontally or vertically, has changed during this cycle.
+	 */
+	private boolean changedWithin(int x, int y, int distance) {
+		int left = Math.max(0, x - distance);
+		int right = Math.min(width - 1, x + distance);
+		int top = Math.max(0, y - distance);
+		int bottom = Math.min(height - 1, y + distance);
+
+		int ty = y / TILE_SIZE;
+		int row = y % TILE_SIZE;
+		for (int tx = left / TILE_SIZE; tx <= right / TILE_SIZE; tx++) {
+			int t = ty * tilesX + tx;
+			if (tileStamps[t] == stamp) {
+				int from = Math.max(left, tx * TILE_SIZE) - tx * TILE_SIZE;
+				int to = Math.min(right, tx * TILE_SIZE + TILE_SIZE - 1) - tx * TILE_SIZE;
+				int[] list = changes[t];
+				for (int i = 0; i < changeCounts[t]; i++) {
+					int cx = list[i] % TILE_SIZE;
+					if (list[i] / TILE_SIZE == row && cx >= from && cx <= to) {
+						return true;
+					}
+				}
+			}
+		}
+
+		int tx = x / TILE_SIZE;
+		int column = x % TILE_SIZE;
+		for (ty = top / TILE_SIZE; ty <= bottom / TILE_SIZE; ty++) {
+			int t = ty * tilesX + tx;
+			if (tileStamps[t] == stamp) {
+				int from = Math.max(top, ty * TILE_SIZE) - ty * TILE_SIZE;
+				int to = Math.min(bottom, ty * TILE_SIZE + TILE_SIZE - 1) - ty * TILE_SIZE;
+				int[] list = changes[t];
+				for (int i = 0; i < changeCounts[t]; i++) {
+					int cy = list[i] / TILE_SIZE;
+					if (list[i] % TILE_SIZE == column && cy >= from && cy <= to) {
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Moves on to a new stamp so that changes from the previous cycle are
+	 * forgotten without clearing the lists of changes.
+	 */
+	private void nextStamp() {
+		stamp++;
+		if (stamp == Integer.MAX_VALUE) {
+			Arrays.fill(tileStamps, 0);
+			stamp = 1;
+		}
+	}
+
+	/**
+	 * Reallocates the tile arrays if the size of the map has changed.
+	 */
+	private void resize(int width, int height) {
+		if (tileStamps == null || this.width != width || this.height != height) {
+			this.width = width;
+			this.height = height;
+			tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+			tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+			tileStamps = new int[tilesX * tilesY];
+			changeCounts = new int[tilesX * tilesY];
+			changes = new int[tilesX * tilesY][];
+			tileStarts = new int[tilesX * tilesY + 1];
+			tileNext = new int[tilesX * tilesY];
+			stamp = 0;
+		}
+	}
+
+	private int tileOf(int x, int y) {
+		return (y / TILE_SIZE) * tilesX + x / TILE_SIZE;
+	}
+
+	/**
+	 * Scans the LifeForms in a range of tiles, splitting the range between
+	 * further tasks while it is large.
+	 */
+	private class ScanTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -2093457381764926713L;
+
+		private final List<ALifeForm> lifeForms;
+		private final int fromTile, toTile;
+
+		ScanTask(List<ALifeForm> lifeForms, int fromTile, int toTile) {
+			this.lifeForms = lifeForms;
+			this.fromTile = fromTile;
+			this.toTile = toTile;
+		}
+
+		@Override
+		protected void compute() {
+			if (toTile - fromTile > TILES_PER_TASK) {
+				int middle = (fromTile + toTile) >>> 1;
+				invokeAll(new ScanTask(lifeForms, fromTile, middle), new ScanTask(lifeForms, middle, toTile));
+			} else {
+				for (int i = tileStarts[fromTile]; i < tileStarts[toTile]; i++) {
+					int index = byTile[i];
+					scans[index] = lifeForms.get(index).scan();
+					scanned[index] = true;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,595 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * Finds the way around the obstacles in a map for LifeForms which head for
+ * their prey along a route rather than in a straight line.
+ *
+ * The map is split in to square clusters of map spaces. Wherever the map
+ * spaces along the edge between two clusters are free of obstacles on both
+ * sides, the middle of each run of free map spaces is an entrance joining the
+ * clusters, and the number of steps between the entrances of each cluster is
+ * worked out once. A route to a map space is then found by searching this much
+ * smaller graph of entrances, only looking at the clusters around the start
+ * and end of the route, and then within the cluster of the LifeForm itself.
+ *
+ * Routes are kept for each cluster and target, so every LifeForm in a cluster
+ * heading for the same map space shares one route. The cache listens for
+ * obstacles being placed or removed, and only the clusters next to the change
+ * and the routes passing near them are worked out again. Only obstacles are
+ * routed around, since everything else on the map moves or is eaten long
+ * before a LifeForm gets there, and routes which cross the edge between
+ * clusters away from an entrance may be a little longer than the shortest.
+ *
+ * Routes are looked up by a primitive key under the cache's lock, and the
+ * search reuses its working arrays, so following a route which is already
+ * cached does not create any objects.
+ *
+ * @author Jed Brennen
+ * @see SensingMode#PATH
+ * @see AWorld#getPathCache()
+ *
+ */
+public class PathCache implements WorldGrid.CellListener {
+
+	/**
+	 * The number of rows and columns of map spaces in each cluster.
+	 */
+	public static final int CLUSTER_SIZE = 16;
+	// The largest map which can have its map spaces numbered.
+	private static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+	// The number of routes kept before the cache is emptied.
+	private static final int MAX_ROUTES = 1 << 14;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final WorldGrid grid;
+	private final int width, height;
+	private final int clusterRows, clusterColumns;
+	// Indexed by cluster, and null until the cluster's entrances are needed.
+	private final Cluster[] clusters;
+	// Keyed by the cluster in the upper half and the target's map space in
+	// the lower half.
+	private final CellMap<Route> routes = new CellMap<>();
+	// Used to search the entrances, and within a single cluster.
+	private final CellHeap heap = new CellHeap(), localHeap = new CellHeap();
+	// The number of steps to the target from each entrance reached.
+	private final EntranceSteps entranceSteps = new EntranceSteps();
+	// The number of steps from each map space of a cluster, reused by each
+	// search within a cluster.
+	private final int[] localSteps = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+	private int[] seedCells = new int[0], seedSteps = new int[0];
+	private byte[] seedDirections = new byte[0];
+
+	/**
+	 * A cache of routes around the obstacles in a map.
+	 *
+	 * @param grid
+	 *            - the map, which the cache must be listening to.
+	 */
+	public PathCache(WorldGrid grid) {
+		this.grid = grid;
+		width = grid.getWidth();
+		height = grid.getHeight();
+		clusterRows = (height + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+		clusterColumns = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+		clusters = new Cluster[clusterRows * clusterColumns];
+	}
+
+	/**
+	 * @param width
+	 *            - the number of columns in a map.
+	 * @param height
+	 *            - the number of rows in a map.
+	 * @return true if the map is small enough to have its routes cached.
+	 */
+	public static boolean supports(int width, int height) {
+		return (long) width * height <= MAX_CELLS;
+	}
+
+	/**
+	 * Finds the first step of the route from one map space to another.
+	 *
+	 * @param y
+	 *            - the row the route starts from.
+	 * @param x
+	 *            - the column the route starts from.
+	 * @param targetY
+	 *            - the row of the target.
+	 * @param targetX
+	 *            - the column of the target.
+	 * @return the direction of the first step, or null if there is no way to
+	 *         the target.
+	 */
+	public synchronized Direction nextStep(int y, int x, int targetY, int targetX) {
+		int cluster = clusterOf(y, x);
+		int target = targetY * width + targetX;
+		long key = ((long) cluster << 32) | target;
+		Route route = routes.get(key);
+		if (route == null) {
+			route = findRoute(key, cluster, target);
+		}
+		int step = route.steps[localIndex(cluster, y, x)];
+		return step == 0 ? null : DIRECTIONS[step - 1];
+	}
+
+	/**
+	 * @return the number of routes currently cached.
+	 */
+	public synchronized int getRouteCount() {
+		return routes.size();
+	}
+
+	public void cellChanged(int y, int x, byte oldType, byte newType) {
+		if ((oldType == WorldGrid.OBSTACLE) != (newType == WorldGrid.OBSTACLE)) {
+			invalidate(y / CLUSTER_SIZE, x / CLUSTER_SIZE);
+		}
+	}
+
+	public synchronized void cleared() {
+		for (int i = 0; i < clusters.length; i++) {
+			clusters[i] = null;
+		}
+		routes.clear();
+	}
+
+	/**
+	 * Forgets the entrances of a cluster and the clusters next to it, whose
+	 * entrances may have changed along with it, and every route which passed
+	 * near them.
+	 */
+	private synchronized void invalidate(int row, int column) {
+		for (Direction d : DIRECTIONS) {
+			int r = row + d.getDY(), c = column + d.getDX();
+			if (r >= 0 && r < clusterRows && c >= 0 && c < clusterColumns) {
+				clusters[r * clusterColumns + c] = null;
+			}
+		}
+		clusters[row * clusterColumns + column] = null;
+		routes.removeIf(route -> route.top <= row + 1 && route.bottom >= row - 1
+				&& route.left <= column + 1 && route.right >= column - 1);
+	}
+
+	/**
+	 * Finds the route to a target from every map space in a cluster. The
+	 * number of steps to the target is first worked out for the entrances of
+	 * the clusters between the cluster and the target, and one cluster
+	 * further out, and the first step from each map space of the cluster is
+	 * then found from the entrances out of it.
+	 */
+	private Route findRoute(long key, int cluster, int target) {
+		int targetCluster = clusterOf(target / width, target % width);
+		Route route = new Route(cluster, targetCluster);
+
+		EntranceSteps steps = entranceSteps;
+		steps.clear();
+		Cluster start = getCluster(cluster);
+		Cluster end = getCluster(targetCluster);
+		int[] fromTarget = spread(end, target);
+		heap.clear();
+		for (int i = 0; i < end.entrances.length; i++) {
+			int s = fromTarget[localIndex(targetCluster, end.entrances[i])];
+			if (s >= 0) {
+				steps.put(end.entrances[i], s);
+				heap.push(s, end.entrances[i]);
+			}
+		}
+		// Stops once the entrances leading in to the cluster all have their
+		// number of steps.
+		int remaining = start.partners.length;
+		while (!heap.isEmpty() && remaining > 0) {
+			long entry = heap.pop();
+			int s = CellHeap.distanceOf(entry);
+			int entrance = CellHeap.cellOf(entry);
+			if (steps.get(entrance) != s) {
+				continue;
+			}
+			int c = clusterOf(entrance / width, entrance % width);
+			if (c != cluster && start.isPartner(entrance)) {
+				remaining--;
+			}
+			Cluster from = getCluster(c);
+			// A map space in the corner of a cluster can be an entrance on
+			// two of its edges.
+			for (int i = 0; i < from.entrances.length; i++) {
+				if (from.entrances[i] != entrance) {
+					continue;
+				}
+				int partner = from.partners[i];
+				if (route.contains(clusterOf(partner / width, partner % width))) {
+					relax(steps, partner, s + 1);
+				}
+				for (int j = 0; j < from.entrances.length; j++) {
+					if (from.costs[i][j] > 0) {
+						relax(steps, from.entrances[j], s + from.costs[i][j]);
+					}
+				}
+			}
+		}
+
+		// Leaves the cluster through whichever entrance is nearest the target,
+		// or heads straight for the target if it is in the cluster.
+		int seeds = start.entrances.length + 1;
+		if (seedCells.length < seeds) {
+			seedCells = new int[seeds];
+			seedSteps = new int[seeds];
+			seedDirections = new byte[seeds];
+		}
+		int count = 0;
+		if (targetCluster == cluster) {
+			seedCells[count] = target;
+			seedSteps[count++] = 0;
+		}
+		for (int i = 0; i < start.entrances.length; i++) {
+			int s = steps.get(start.partners[i]);
+			if (s >= 0) {
+				seedCells[count] = start.entrances[i];
+				seedSteps[count] = s + 1;
+				seedDirections[count++] = (byte) (directionBetween(start.entrances[i], start.partners[i]) + 1);
+			}
+		}
+		spread(start, seedCells, seedSteps, seedDirections, route.steps, count);
+
+		if (routes.size() >= MAX_ROUTES) {
+			routes.clear();
+		}
+		routes.put(key, route);
+		return route;
+	}
+
+	private void relax(EntranceSteps steps, int entrance, int s) {
+		int old = steps.get(entrance);
+		if (old < 0 || s < old) {
+			steps.put(entrance, s);
+			heap.push(s, entrance);
+		}
+	}
+
+	/**
+	 * @return the entrances of a cluster, finding them if they are not
+	 *         already known.
+	 */
+	private Cluster getCluster(int cluster) {
+		Cluster c = clusters[cluster];
+		if (c == null) {
+			c = clusters[cluster] = new Cluster(cluster);
+		}
+		return c;
+	}
+
+	/**
+	 * Works out the number of steps from each map space of a cluster to a
+	 * single map space of the cluster.
+	 *
+	 * @return the number of steps from each map space of the cluster, in an
+	 *         array which is reused by the next search within a cluster.
+	 */
+	private int[] spread(Cluster cluster, int cell) {
+		int local = localIndex(cluster.index, cell);
+		int[] steps = localSteps;
+		Arrays.fill(steps, -1);
+		steps[local] = 0;
+		localHeap.clear();
+		localHeap.push(0, local);
+		return spread(cluster, steps, null);
+	}
+
+	/**
+	 * Works out the number of steps from each map space of a cluster to the
+	 * nearest of a number of seeds, moving only within the cluster, where
+	 * each seed starts with its own number of steps.
+	 *
+	 * @param cluster
+	 *            - the cluster to search.
+	 * @param seedCells
+	 *            - the map spaces of the seeds, which must be in the cluster.
+	 * @param seedSteps
+	 *            - the number of steps each seed starts with.
+	 * @param seedDirections
+	 *            - the first step to take from each seed, or null.
+	 * @param directions
+	 *            - filled with the first step to take from each map space of
+	 *            the cluster, or null.
+	 * @param seeds
+	 *            - the number of seeds.
+	 * @return the number of steps from each map space of the cluster, or -1
+	 *         for map spaces which cannot reach a seed, in an array which is
+	 *         reused by the next search within a cluster.
+	 */
+	private int[] spread(Cluster cluster, int[] seedCells, int[] seedSteps, byte[] seedDirections, byte[] directions,
+			int seeds) {
+		int[] steps = localSteps;
+		Arrays.fill(steps, -1);
+		localHeap.clear();
+		for (int i = 0; i < seeds; i++) {
+			int local = localIndex(cluster.index, seedCells[i]);
+			if (steps[local] < 0 || seedSteps[i] < steps[local]) {
+				steps[local] = seedSteps[i];
+				if (directions != null) {
+					directions[local] = seedDirections[i];
+				}
+				localHeap.push(seedSteps[i], local);
+			}
+		}
+		return spread(cluster, steps, directions);
+	}
+
+	/**
+	 * Carries on a search within a cluster from the seeds already in the
+	 * local heap.
+	 */
+	private int[] spread(Cluster cluster, int[] steps, byte[] directions) {
+		int top = (cluster.index / clusterColumns) * CLUSTER_SIZE;
+		int left = (cluster.index % clusterColumns) * CLUSTER_SIZE;
+		int bottom = Math.min(top + CLUSTER_SIZE, height);
+		int right = Math.min(left + CLUSTER_SIZE, width);
+		while (!localHeap.isEmpty()) {
+			long entry = localHeap.pop();
+			int s = CellHeap.distanceOf(entry);
+			int local = CellHeap.cellOf(entry);
+			if (steps[local] != s) {
+				continue;
+			}
+			int y = top + local / CLUSTER_SIZE, x = left + local % CLUSTER_SIZE;
+			for (Direction d : DIRECTIONS) {
+				int nextY = y + d.getDY(), nextX = x + d.getDX();
+				if (nextY < top || nextY >= bottom || nextX < left || nextX >= right) {
+					continue;
+				}
+				int next = (nextY - top) * CLUSTER_SIZE + nextX - left;
+				if (!cluster.open[next]) {
+					continue;
+				}
+				if (steps[next] < 0 || s + 1 < steps[next]) {
+					steps[next] = s + 1;
+					if (directions != null) {
+						// Steps back the way the search came.
+						directions[next] = (byte) (opposite(d).ordinal() + 1);
+					}
+					localHeap.push(s + 1, next);
+				}
+			}
+		}
+		return steps;
+	}
+
+	private int clusterOf(int y, int x) {
+		return (y / CLUSTER_SIZE) * clusterColumns + x / CLUSTER_SIZE;
+	}
+
+	private int localIndex(int cluster, int cell) {
+		return localIndex(cluster, cell / width, cell % width);
+	}
+
+	private int localIndex(int cluster, int y, int x) {
+		return (y - (cluster / clusterColumns) * CLUSTER_SIZE) * CLUSTER_SIZE + x
+				- (cluster % clusterColumns) * CLUSTER_SIZE;
+	}
+
+	/**
+	 * @return the ordinal of the direction from one map space to the map
+	 *         space next to it.
+	 */
+	private int directionBetween(int from, int to) {
+		if (to == from - width) {
+			return Direction.NORTH.ordinal();
+		} else if (to == from + 1) {
+			return Direction.EAST.ordinal();
+		} else if (to == from + width) {
+			return Direction.SOUTH.ordinal();
+		}
+		return Direction.WEST.ordinal();
+	}
+
+	private static Direction opposite(Direction d) {
+		return DIRECTIONS[(d.ordinal() + 2) % DIRECTIONS.length];
+	}
+
+	private boolean isOpen(int y, int x) {
+		return grid.getType(y, x) != WorldGrid.OBSTACLE;
+	}
+
+	/**
+	 * The entrances of a cluster, with the map space across the edge which
+	 * each one leads to and the number of steps between each pair of
+	 * entrances within the cluster.
+	 */
+	private class Cluster {
+
+		private final int index;
+		// Whether each map space of the cluster is free of obstacles.
+		private final boolean[] open = new boolean[CLUSTER_SIZE * CLUSTER_SIZE];
+		private int[] entrances = new int[0];
+		private int[] partners = new int[0];
+		// The number of steps between each pair of entrances, or -1 if there
+		// is no way between them within the cluster.
+		private final int[][] costs;
+
+		/**
+		 * Finds the entrances along each edge of a cluster in turn.
+		 */
+		Cluster(int cluster) {
+			index = cluster;
+			int top = (cluster / clusterColumns) * CLUSTER_SIZE;
+			int left = (cluster % clusterColumns) * CLUSTER_SIZE;
+			int bottom = Math.min(top + CLUSTER_SIZE, height) - 1;
+			int right = Math.min(left + CLUSTER_SIZE, width) - 1;
+			for (int y = top; y <= bottom; y++) {
+				for (int x = left; x <= right; x++) {
+					open[(y - top) * CLUSTER_SIZE + x - left] = isOpen(y, x);
+				}
+			}
+			if (top > 0) {
+				findEntrances(top, left, 0, 1, right - left + 1, -width);
+			}
+			if (right < width - 1) {
+				findEntrances(top, right, 1, 0, bottom - top + 1, 1);
+			}
+			if (bottom < height - 1) {
+				findEntrances(bottom, left, 0, 1, right - left + 1, width);
+			}
+			if (left > 0) {
+				findEntrances(top, left, 1, 0, bottom - top + 1, -1);
+			}
+			costs = new int[entrances.length][];
+			for (int i = 0; i < entrances.length; i++) {
+				costs[i] = new int[entrances.length];
+				int[] steps = spread(this, entrances[i]);
+				for (int j = 0; j < entrances.length; j++) {
+					costs[i][j] = steps[localIndex(cluster, entrances[j])];
+				}
+			}
+		}
+
+		/**
+		 * Finds the runs of map spaces along one edge of the cluster which are
+		 * free on both sides of the edge, adding the middle of each run as an
+		 * entrance.
+		 *
+		 * @param y
+		 *            - the row of the first map space along the edge.
+		 * @param x
+		 *            - the column of the first map space along the edge.
+		 * @param dy
+		 *            - the change in row along the edge.
+		 * @param dx
+		 *            - the change in column along the edge.
+		 * @param length
+		 *            - the number of map spaces along the edge.
+		 * @param across
+		 *            - the change in index from a map space to the map space
+		 *            across the edge.
+		 */
+		private void findEntrances(int y, int x, int dy, int dx, int length, int across) {
+			int runStart = -1;
+			for (int i = 0; i <= length; i++) {
+				boolean open = false;
+				if (i < length) {
+					int cell = (y + dy * i) * width + x + dx * i;
+					int other = cell + across;
+					open = isOpen(y + dy * i, x + dx * i) && isOpen(other / width, other % width);
+				}
+				if (open && runStart < 0) {
+					runStart = i;
+				} else if (!open && runStart >= 0) {
+					int middle = (runStart + i - 1) / 2;
+					int cell = (y + dy * middle) * width + x + dx * middle;
+					add(cell, cell + across);
+					runStart = -1;
+				}
+			}
+		}
+
+		private void add(int entrance, int partner) {
+			entrances = Arrays.copyOf(entrances, entrances.length + 1);
+			partners = Arrays.copyOf(partners, partners.length + 1);
+			entrances[entrances.length - 1] = entrance;
+			partners[partners.length - 1] = partner;
+		}
+
+		boolean isPartner(int cell) {
+			for (int partner : partners) {
+				if (partner == cell) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The number of steps to a target from each entrance reached while
+	 * finding a route, held in plain arrays with open addressing so that
+	 * nothing is boxed.
+	 */
+	private static class EntranceSteps {
+
+		// Map space indexes are never negative, so -1 marks an empty slot.
+		private int[] cells = new int[64];
+		private int[] steps = new int[64];
+		private int size, mask = 63;
+
+		EntranceSteps() {
+			Arrays.fill(cells, -1);
+		}
+
+		/**
+		 * @return the number of steps from an entrance, or -1 if it has not
+		 *         been reached.
+		 */
+		int get(int cell) {
+			for (int i = indexOf(cell);; i = (i + 1) & mask) {
+				if (cells[i] == cell) {
+					return steps[i];
+				} else if (cells[i] < 0) {
+					return -1;
+				}
+			}
+		}
+
+		void put(int cell, int s) {
+			int i = indexOf(cell);
+			while (cells[i] >= 0) {
+				if (cells[i] == cell) {
+					steps[i] = s;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			cells[i] = cell;
+			steps[i] = s;
+			size++;
+			if (size * 2 > cells.length) {
+				int[] oldCells = cells, oldSteps = steps;
+				cells = new int[oldCells.length * 2];
+				steps = new int[oldCells.length * 2];
+				Arrays.fill(cells, -1);
+				mask = cells.length - 1;
+				size = 0;
+				for (int j = 0; j < oldCells.length; j++) {
+					if (oldCells[j] >= 0) {
+						put(oldCells[j], oldSteps[j]);
+					}
+				}
+			}
+		}
+
+		void clear() {
+			Arrays.fill(cells, -1);
+			size = 0;
+		}
+
+		private int indexOf(int cell) {
+			return (cell * 0x9E3779B9 >>> 16) & mask;
+		}
+	}
+
+	/**
+	 * The first step towards a target from each map space of a cluster, and
+	 * the clusters which were looked at to find it.
+	 */
+	private class Route {
+
+		// The direction of the first step plus one, or 0 if there is no way.
+		private final byte[] steps = new byte[CLUSTER_SIZE * CLUSTER_SIZE];
+		private final int top, left, bottom, right;
+
+		/**
+		 * A route from one cluster to another, looking at the clusters between
+		 * them and one cluster further out.
+		 */
+		Route(int from, int to) {
+			int fromRow = from / clusterColumns, fromColumn = from % clusterColumns;
+			int toRow = to / clusterColumns, toColumn = to % clusterColumns;
+			top = Math.max(Math.min(fromRow, toRow) - 1, 0);
+			bottom = Math.min(Math.max(fromRow, toRow) + 1, clusterRows - 1);
+			left = Math.max(Math.min(fromColumn, toColumn) - 1, 0);
+			right = Math.min(Math.max(fromColumn, toColumn) + 1, clusterColumns - 1);
+		}
+
+		boolean contains(int cluster) {
+			int row = cluster / clusterColumns, column = cluster % clusterColumns;
+			return row >= top && row <= bottom && column >= left && column <= right;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package artificialLifeSimulator;
+
+import java.io.Serializable;
+
+/**
+ * A random number generator which is saved along with the object using it,
+ * so a world which is saved part way through a simulation and loaded again
+ * carries on making the same random choices.
+ *
+ * The generator uses the same algorithm as {@link java.util.SplittableRandom}:
+ * each number moves the generator's state on by the same fixed step and
+ * scrambles it in the same way, and numbers within a range are rejected and
+ * drawn again in the same way as {@code SplittableRandom} does on Java 8.
+ * Unlike {@code SplittableRandom} its state can be written to a stream.
+ *
+ * @author Jed Brennen
+ * @see AWorld#newRandom(long)
+ *
+ */
+public class RandomStream implements Serializable {
+
+	private static final long serialVersionUID = -3125067316052413498L;
+	// The step added to the state for each number, as used by
+	// SplittableRandom.
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private long state;
+
+	/**
+	 * A generator starting from the given seed.
+	 *
+	 * @param seed
+	 *            - the seed, which sets every number the generator gives.
+	 */
+	public RandomStream(long seed) {
+		state = seed;
+	}
+
+	/**
+	 * @return a random long.
+	 */
+	public long nextLong() {
+		state += GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return a random int.
+	 */
+	public int nextInt() {
+		state += GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+		return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+	}
+
+	/**
+	 * @param bound
+	 *            - the number above the largest value to return, which must
+	 *            be positive.
+	 * @return a random int from zero up to, but not including, the bound.
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		int r = nextInt();
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			r &= m;
+		} else {
+			// Draws again rather than favouring the smaller values.
+			for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) {
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * @param bound
+	 *            - the number above the largest value to return, which must
+	 *            be positive.
+	 * @return a random long from zero up to, but not including, the bound.
+	 */
+	public long nextLong(long bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		long r = nextLong();
+		long m = bound - 1;
+		if ((bound & m) == 0L) {
+			r &= m;
+		} else {
+			// Draws again rather than favouring the smaller values.
+			for (long u = r >>> 1; u + m - (r = u % bound) < 0L; u = nextLong() >>> 1) {
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * @return a random double from zero up to, but not including, one.
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+}
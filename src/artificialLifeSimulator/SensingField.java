@@ -0,0 +1,246 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+import worldObjects.AFood;
+import worldObjects.ALifeForm;
+
+/**
+ * Summed-area tables of the value of one type of prey across the map, used by
+ * LifeForms which sense a whole area around themselves rather than only along
+ * their row and column. Each entry of a table holds the total value of the
+ * prey above and to the left of a map space, so the total value in any
+ * rectangle of the table is found from its four corners, however large the
+ * rectangle is.
+ *
+ * The table used for squares is laid out like the map. The table used for
+ * diamonds is turned by 45 degrees, with rows running along one diagonal of
+ * the map and columns along the other, so that each quarter of a diamond is a
+ * rectangle of the table.
+ *
+ * A table is only built once it is first needed, and is rebuilt from the map
+ * at the start of each cycle, so every LifeForm sees the prey where it was
+ * when the cycle started. The value of food is its food value and the value of
+ * a LifeForm is its energy.
+ *
+ * @author Jed Brennen
+ * @see SensingMode
+ * @see AWorld#getSensingField(byte, SensingMode)
+ *
+ */
+public class SensingField {
+
+	// The largest table which can be held in a single array.
+	private static final long MAX_TABLE_SIZE = Integer.MAX_VALUE - 8;
+
+	private final byte type;
+	private final int width, height;
+	// The width of the turned table, which has as many rows as columns.
+	private final int diagonals;
+	private volatile int[] square, diamond;
+
+	/**
+	 * Tables of the value of a type of prey across a map of the given size,
+	 * which are built when first used.
+	 *
+	 * @param type
+	 *            - the type of prey.
+	 * @param height
+	 *            - the number of rows in the map.
+	 * @param width
+	 *            - the number of columns in the map.
+	 */
+	public SensingField(byte type, int height, int width) {
+		this.type = type;
+		this.width = width;
+		this.height = height;
+		diagonals = width + height - 1;
+	}
+
+	/**
+	 * @param mode
+	 *            - a way of sensing.
+	 * @return true if the map is small enough for the table used by the mode
+	 *         to be built.
+	 */
+	public boolean supports(SensingMode mode) {
+		switch (mode) {
+		case SQUARE:
+			return (long) (width + 1) * (height + 1) <= MAX_TABLE_SIZE;
+		case DIAMOND:
+			return (long) (diagonals + 1) * (diagonals + 1) <= MAX_TABLE_SIZE;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Builds the table used by a way of sensing from the map, if it has not
+	 * been built already.
+	 *
+	 * @param mode
+	 *            - the way of sensing, which must be supported.
+	 * @param grid
+	 *            - the map to build the table from.
+	 * @see #supports(SensingMode)
+	 */
+	synchronized void prepare(SensingMode mode, WorldGrid grid) {
+		if (mode == SensingMode.SQUARE && square == null) {
+			square = buildSquare(grid, new int[(width + 1) * (height + 1)]);
+		} else if (mode == SensingMode.DIAMOND && diamond == null) {
+			diamond = buildDiamond(grid, new int[(diagonals + 1) * (diagonals + 1)]);
+		}
+	}
+
+	/**
+	 * Rebuilds every table which has been built from the map as it is now.
+	 *
+	 * @param grid
+	 *            - the map to build the tables from.
+	 */
+	synchronized void refresh(WorldGrid grid) {
+		if (square != null) {
+			square = buildSquare(grid, square);
+		}
+		if (diamond != null) {
+			diamond = buildDiamond(grid, diamond);
+		}
+	}
+
+	/**
+	 * Finds the total value of the prey on one side of a square of map spaces
+	 * centred on a map space. The side is the part of the square beyond the
+	 * centre's row or column in the given direction, including the corners.
+	 *
+	 * @param y
+	 *            - the row of the centre of the square.
+	 * @param x
+	 *            - the column of the centre of the square.
+	 * @param d
+	 *            - the direction of the side.
+	 * @param radius
+	 *            - the distance from the centre to the edge of the square.
+	 * @return the total value of the prey on that side.
+	 */
+	public int getSquareTotal(int y, int x, Direction d, int radius) {
+		int top = y - radius, bottom = y + radius, left = x - radius, right = x + radius;
+		switch (d) {
+		case NORTH:
+			bottom = y - 1;
+			break;
+		case SOUTH:
+			top = y + 1;
+			break;
+		case EAST:
+			left = x + 1;
+			break;
+		case WEST:
+			right = x - 1;
+			break;
+		}
+		top = Math.max(top, 0);
+		left = Math.max(left, 0);
+		bottom = Math.min(bottom, height - 1);
+		right = Math.min(right, width - 1);
+		if (top > bottom || left > right) {
+			return 0;
+		}
+		return total(square, width + 1, top, left, bottom, right);
+	}
+
+	/**
+	 * Finds the total value of the prey in one quarter of a diamond of map
+	 * spaces centred on a map space, the diamond holding every map space
+	 * within the given number of steps along the rows and columns. The
+	 * quarter is the part of the diamond which is nearer to the line running
+	 * from the centre in the given direction than to the lines running in the
+	 * other directions, including the map spaces on the diagonals between
+	 * them but not the centre itself.
+	 *
+	 * @param y
+	 *            - the row of the centre of the diamond.
+	 * @param x
+	 *            - the column of the centre of the diamond.
+	 * @param d
+	 *            - the direction of the quarter.
+	 * @param radius
+	 *            - the number of steps from the centre to the edge of the
+	 *            diamond.
+	 * @return the total value of the prey in that quarter.
+	 */
+	public int getDiamondTotal(int y, int x, Direction d, int radius) {
+		int u = x + y;
+		int v = x - y + height - 1;
+		// Moving east increases both u and v, moving north decreases u and
+		// increases v.
+		int top = d == Direction.EAST || d == Direction.SOUTH ? u : u - radius;
+		int bottom = d == Direction.EAST || d == Direction.SOUTH ? u + radius : u;
+		int left = d == Direction.EAST || d == Direction.NORTH ? v : v - radius;
+		int right = d == Direction.EAST || d == Direction.NORTH ? v + radius : v;
+		top = Math.max(top, 0);
+		left = Math.max(left, 0);
+		bottom = Math.min(bottom, diagonals - 1);
+		right = Math.min(right, diagonals - 1);
+		int stride = diagonals + 1;
+		// Every quarter holds the centre, which is not counted.
+		return total(diamond, stride, top, left, bottom, right) - total(diamond, stride, u, v, u, v);
+	}
+
+	/**
+	 * Finds the total of a rectangle of a summed-area table. The sums may
+	 * overflow, but the total of a rectangle is still exact as long as the
+	 * total itself fits.
+	 */
+	private static int total(int[] table, int stride, int top, int left, int bottom, int right) {
+		return table[(bottom + 1) * stride + right + 1] - table[top * stride + right + 1]
+				- table[(bottom + 1) * stride + left] + table[top * stride + left];
+	}
+
+	private int[] buildSquare(WorldGrid grid, int[] table) {
+		int stride = width + 1;
+		Arrays.fill(table, 0);
+		grid.forEachOccupied((y, x, object) -> {
+			if (WorldGrid.typeOf(object) == type) {
+				table[(y + 1) * stride + x + 1] = valueOf(object);
+			}
+		});
+		sum(table, stride, height + 1);
+		return table;
+	}
+
+	private int[] buildDiamond(WorldGrid grid, int[] table) {
+		int stride = diagonals + 1;
+		Arrays.fill(table, 0);
+		grid.forEachOccupied((y, x, object) -> {
+			if (WorldGrid.typeOf(object) == type) {
+				table[(x + y + 1) * stride + x - y + height] = valueOf(object);
+			}
+		});
+		sum(table, stride, stride);
+		return table;
+	}
+
+	/**
+	 * Turns a table of values in to a summed-area table, in place. The first
+	 * row and column are left as zeros.
+	 */
+	private static void sum(int[] table, int stride, int rows) {
+		for (int r = 1; r < rows; r++) {
+			int row = r * stride;
+			int runningTotal = 0;
+			for (int c = 1; c < stride; c++) {
+				runningTotal += table[row + c];
+				table[row + c] = table[row - stride + c] + runningTotal;
+			}
+		}
+	}
+
+	private static int valueOf(AWorldObject object) {
+		if (object instanceof AFood) {
+			return ((AFood) object).getValue();
+		} else if (object instanceof ALifeForm) {
+			return ((ALifeForm) object).getEnergy();
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,62 @@
+package artificialLifeSimulator;
+
+/**
+ * The ways in which a species of LifeForm can sense its prey, set for each
+ * species by the configuration's herbivoreSensing and carnivoreSensing
+ * properties.
+ *
+ * @author Jed Brennen
+ * @see SensingField
+ * @see DistanceField
+ * @see PathCache
+ *
+ */
+public enum SensingMode {
+	/**
+	 * Looks along the row and column of the LifeForm only, heading for the
+	 * prey with the greatest value.
+	 */
+	AXIS,
+	/**
+	 * Looks at the whole square of map spaces within the LifeForm's sensing
+	 * distance, heading for the side of the square holding the most prey.
+	 */
+	SQUARE,
+	/**
+	 * Looks at the map spaces within the LifeForm's sensing distance counting
+	 * steps along the rows and columns, heading for the quarter of the
+	 * diamond holding the most prey.
+	 */
+	DIAMOND,
+	/**
+	 * Steps towards the nearest prey counting the steps needed to get around
+	 * obstacles, following a distance field shared by the whole species. Only
+	 * prey within the LifeForm's sensing distance is followed.
+	 */
+	GRADIENT,
+	/**
+	 * Looks along the row and column of the LifeForm in the same way as
+	 * {@link #AXIS}, including past obstacles next to the LifeForm, and
+	 * follows a route around the obstacles to the prey with the greatest
+	 * value.
+	 */
+	PATH;
+
+	/**
+	 * Reads a sensing mode from a configuration value.
+	 *
+	 * @param value
+	 *            - the name of the mode, in any case, or null.
+	 * @return the mode, or {@link #AXIS} if the value is empty or not a mode.
+	 */
+	public static SensingMode parse(String value) {
+		if (value != null) {
+			for (SensingMode mode : values()) {
+				if (mode.name().equalsIgnoreCase(value.trim())) {
+					return mode;
+				}
+			}
+		}
+		return AXIS;
+	}
+}
@@ -0,0 +1,793 @@
+package artificialLifeSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import lifeFormTypes.ACarnivore;
+import lifeFormTypes.AHerbivore;
+import worldObjects.AFood;
+import worldObjects.ALifeForm;
+import worldObjects.AnObstacle;
+
+/**
+ * Runs the simulation on a world independently of any user interface. Each
+ * call to {@link #step()} performs one cycle of the simulation: every living
+ * LifeForm senses, moves and eats, poison is drained and eaten food is placed
+ * back in to the map once its timer has run out. The map spaces changed
+ * during the cycle are then handed to the subscribers of the world's
+ * {@link ChangeSet}.
+ * 
+ * Food timers are not reduced every cycle. Instead, when food is eaten the
+ * engine works out the cycle in which its timer will run out and queues it
+ * under that cycle, so each cycle only handles the food which is due.
+ * LifeForms which are digesting are put to sleep in the same way and are not
+ * visited until they finish digesting or their poison kills them, at which
+ * point the cycles they slept through are applied all at once. Call
+ * {@link #settle()} to bring the world up to date before saving.
+ * 
+ * @author Jed Brennen
+ * @see SimulationListener
+ *
+ */
+public class SimulationEngine {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private final AWorld world;
+	private final ArrayList<SimulationListener> listeners = new ArrayList<>();
+	private volatile long cycle;
+	private ParallelTick parallelTick;
+	private final TimerWheel<AFood> regrowthQueue = new TimerWheel<>(-1);
+	private final ArrayList<AFood> due = new ArrayList<>();
+	private final CellMap<AFood> regrowing = new CellMap<>();
+	private final ArrayList<AFood> uncovered = new ArrayList<>();
+	private final ArrayList<AFood> obstructed = new ArrayList<>();
+	private ArrayList<ALifeForm> awake = new ArrayList<>();
+	private int[] awakeOrder = new int[0];
+	// The lists the awake LifeForms were last merged from, reused for the
+	// next merge.
+	private ArrayList<ALifeForm> spareAwake = new ArrayList<>();
+	private int[] spareOrder = new int[0];
+	private final TimerWheel<Sleeper> sleeping = new TimerWheel<>(-1);
+	private IdentityHashMap<ALifeForm, Sleeper> sleepers = new IdentityHashMap<>();
+	private final ArrayList<Sleeper> woken = new ArrayList<>();
+	// The order of each woken LifeForm in the upper half and its position in
+	// the woken list in the lower half.
+	private long[] wokenKeys = new long[16];
+	// Records which have left the timer wheel, reused for the next LifeForms
+	// put to sleep.
+	private final ArrayList<Sleeper> spareSleepers = new ArrayList<>();
+	private int scheduledVersion;
+	private LifeFormStore store;
+
+	/**
+	 * Runs the simulation on a world independently of any user interface.
+	 * 
+	 * @param world
+	 *            - the world to advance.
+	 */
+	public SimulationEngine(AWorld world) {
+		this.world = world;
+		world.invalidateLifeForms();
+		cycle = 0;
+	}
+
+	/**
+	 * Performs a single cycle of the simulation and notifies all listeners
+	 * once it has completed.
+	 */
+	public void step() {
+		List<ALifeForm> lifeForms = world.getLiveLifeForms();
+		store = world.getLifeFormStore();
+		if (world.getVersion() != scheduledVersion) {
+			schedule(lifeForms);
+		}
+		wake();
+		world.refreshSensing();
+		if (parallelTick != null) {
+			parallelTick.scan(world, awake);
+		}
+
+		for (int i = 0; i < awake.size(); i++) {
+			updateLifeForm(awake.get(i), i);
+		}
+		world.compactLifeForms();
+		sleep();
+
+		updateFood();
+		world.publishChanges();
+
+		cycle++;
+
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).cycleCompleted(this);
+		}
+	}
+
+	/**
+	 * Performs the given number of cycles of the simulation.
+	 * 
+	 * @param cycles
+	 *            - the number of cycles to perform.
+	 */
+	public void step(int cycles) {
+		for (int i = 0; i < cycles; i++) {
+			step();
+		}
+	}
+
+	/**
+	 * Moves a single LifeForm, feeds it with whatever it has moved on to and
+	 * applies its energy loss and poison for the cycle.
+	 * 
+	 * @param a
+	 *            - the LifeForm to update.
+	 * @param index
+	 *            - the LifeForm's position in the world's list of LifeForms.
+	 */
+	private void updateLifeForm(ALifeForm a, int index) {
+		AWorldObject senseResult = null;
+		Direction d = null;
+		int energyGained = 0;
+		AFood foodEaten = null;
+		boolean herbivoreEaten = false;
+
+		int slot = a.getSlot();
+		// Only continues if the object is not dead.
+		if (store.isAlive(slot)) {
+			int startX = store.getX(slot);
+			int startY = store.getY(slot);
+			boolean moved = false;
+			// If the timer is greater than 0 the LifeForm will not
+			// move.
+			if (store.getTimer(slot) == 0) {
+				do {
+					// Gets the direction to move the LifeForm.
+					d = sense(a, index);
+					if (d != null) {
+						// Moves the bug and gets the object on to which
+						// the LifeForm can move.
+						senseResult = a.move(d);
+						if (senseResult != null) {
+							if (a instanceof ACarnivore) {
+								if (senseResult instanceof AHerbivore) {
+									AHerbivore food = (AHerbivore) senseResult;
+									wakeEaten(food, awakeOrder[index]);
+									energyGained = (int) Math.ceil(food.getEnergy() / 2);
+									store.setEnergy(slot, store.getEnergy(slot) + 2 + energyGained);
+									store.setPoison(slot, store.getPoison(slot) + food.getPoison());
+									food.setEnergy(0);
+									food.setAlive(false);
+									world.lifeFormDied(food);
+									uncover(food.getY(), food.getX());
+									herbivoreEaten = true;
+									moved = true;
+								}
+							} else if (a instanceof AHerbivore) {
+								if (senseResult instanceof AFood) {
+									AFood food = (AFood) senseResult;
+									if (food.isPoisonous()) {
+										energyGained = food.getValue() / 3;
+										store.setEnergy(slot, store.getEnergy(slot) + energyGained);
+										store.setPoison(slot, store.getPoison(slot) + food.getValue());
+
+										food.setTimer(18 + (int) (food.getValue() * a.getRandom().nextDouble()));
+									} else {
+										energyGained = food.getValue();
+										store.setEnergy(slot, store.getEnergy(slot) + energyGained);
+
+										food.setTimer(9 + (int) (food.getValue() * a.getRandom().nextDouble()));
+									}
+									foodEaten = food;
+									moved = true;
+								}
+							}
+							if (!moved && isStuck(a)) {
+								break;
+							}
+						} else {
+							moved = true;
+						}
+					} else {
+						break;
+					}
+
+				} while (!moved);
+
+				store.metabolise(slot);
+
+				if (energyGained > 0) {
+					store.setTimer(slot, (int) Math.ceil(energyGained / 2) + 1);
+				}
+
+			} else {
+				store.setTimer(slot, store.getTimer(slot) - 1);
+			}
+
+			store.drainPoison(slot);
+
+			int x = store.getX(slot);
+			int y = store.getY(slot);
+			if (x != startX || y != startY) {
+				uncover(startY, startX);
+			}
+
+			boolean alive = store.isAlive(slot);
+			if (!alive) {
+				world.lifeFormDied(a);
+				uncover(y, x);
+			}
+
+			// The food under a digesting LifeForm does not start to regrow
+			// until the LifeForm has finished digesting.
+			int digesting = 0;
+			if (alive) {
+				digesting = store.getTimer(slot);
+			}
+			if (foodEaten != null) {
+				long start = cycle + digesting;
+				scheduleRegrowth(foodEaten, start, start + foodEaten.getTimer() - 1);
+			} else if (herbivoreEaten && digesting > 0) {
+				delayRegrowth(y, x, digesting);
+			}
+
+			if (parallelTick != null) {
+				parallelTick.changed(startX, startY);
+				parallelTick.changed(x, y);
+			}
+
+		}
+	}
+
+	/**
+	 * Gets the direction in which a LifeForm should move, using the scan made
+	 * at the start of the cycle when running in parallel.
+	 * 
+	 * @param a
+	 *            - the LifeForm to sense for.
+	 * @param index
+	 *            - the LifeForm's position in the world's list of LifeForms.
+	 * @return the direction in which to move.
+	 */
+	private Direction sense(ALifeForm a, int index) {
+		if (parallelTick != null) {
+			return parallelTick.sense(a, index);
+		}
+		return a.sense();
+	}
+
+	/**
+	 * Checks whether sensing again after a blocked move could only choose
+	 * another blocked move: either the LifeForm is heading for prey, which it
+	 * will sense in the same direction until the map changes, or it can not
+	 * move on to any of its neighbouring spaces. Such a LifeForm stays where
+	 * it is for the cycle rather than trying forever.
+	 * 
+	 * @param a
+	 *            - a LifeForm whose move has just been blocked.
+	 * @return true if the LifeForm should stop trying to move this cycle.
+	 */
+	private boolean isStuck(ALifeForm a) {
+		if (ALifeForm.getScanDirection(a.scan()) != null) {
+			return true;
+		}
+		WorldGrid grid = world.getGrid();
+		int x = a.getX(), y = a.getY();
+		for (Direction d : DIRECTIONS) {
+			int nextY = y + d.getDY(), nextX = x + d.getDX();
+			if (nextY >= 0 && nextY < world.getHeight() && nextX >= 0 && nextX < world.getWidth()) {
+				byte type = grid.getType(nextY, nextX);
+				if (type == WorldGrid.EMPTY || type == a.getPreyType()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Places the food which is due to regrow this cycle back in to the map,
+	 * along with any regrown food whose map space has just been left by a
+	 * LifeForm. Food left under an obstacle decides whether to replace it each
+	 * cycle until it does.
+	 */
+	private void updateFood() {
+		due.clear();
+		regrowthQueue.advance(due);
+		for (int i = 0; i < due.size(); i++) {
+			AFood f = due.get(i);
+			// Food which has been delayed since it was queued is skipped.
+			if (f.getReadyTick() == cycle) {
+				regrow(f);
+			}
+		}
+		due.clear();
+
+		for (int i = 0; i < uncovered.size(); i++) {
+			AFood f = uncovered.get(i);
+			if (f.getReadyTick() < cycle && regrowing.get(getKey(f.getY(), f.getX())) == f) {
+				regrow(f);
+			}
+		}
+		uncovered.clear();
+
+		int kept = 0;
+		for (int i = 0; i < obstructed.size(); i++) {
+			AFood f = obstructed.get(i);
+			if (!world.regrowFood(f)) {
+				obstructed.set(kept++, f);
+			}
+		}
+		truncate(obstructed, kept);
+	}
+
+	/**
+	 * Places food whose timer has run out back in to the map. If a LifeForm is
+	 * standing on the food's map space the food waits until the space is
+	 * left.
+	 * 
+	 * @param f
+	 *            - the food which has regrown.
+	 */
+	private void regrow(AFood f) {
+		f.setTimer(0);
+		if (world.getGrid().getType(f.getY(), f.getX()) == WorldGrid.OBSTACLE) {
+			regrowing.remove(getKey(f.getY(), f.getX()));
+			obstructed.add(f);
+		} else if (world.regrowFood(f)) {
+			regrowing.remove(getKey(f.getY(), f.getX()));
+		}
+	}
+
+	/**
+	 * Queues eaten food to be placed back in to the map.
+	 * 
+	 * @param f
+	 *            - the food which has been eaten.
+	 * @param start
+	 *            - the first cycle in which the food's timer counts down.
+	 * @param ready
+	 *            - the cycle in which the food's timer runs out.
+	 */
+	private void scheduleRegrowth(AFood f, long start, long ready) {
+		f.setRegrowth(start, ready);
+		regrowing.put(getKey(f.getY(), f.getX()), f);
+		regrowthQueue.schedule(f, ready);
+	}
+
+	/**
+	 * Stops the food under a LifeForm which has started digesting from
+	 * regrowing until the LifeForm has finished.
+	 * 
+	 * @param y
+	 *            - the row of the LifeForm.
+	 * @param x
+	 *            - the column of the LifeForm.
+	 * @param digesting
+	 *            - the number of cycles the LifeForm will spend digesting.
+	 */
+	private void delayRegrowth(int y, int x, int digesting) {
+		AFood f = regrowing.get(getKey(y, x));
+		if (f != null && f.getReadyTick() >= cycle) {
+			long remaining = f.getReadyTick() - Math.max(f.getRegrowStart(), cycle) + 1;
+			long start = Math.max(f.getRegrowStart(), cycle + digesting);
+			scheduleRegrowth(f, start, start + remaining - 1);
+		}
+	}
+
+	/**
+	 * Called when a LifeForm leaves or dies on a map space. Food under a
+	 * LifeForm which dies while digesting starts to regrow straight away, and
+	 * regrown food waiting for the space to be left is placed at the end of
+	 * the cycle if the space is still empty.
+	 * 
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 */
+	private void uncover(int y, int x) {
+		AFood f = regrowing.get(getKey(y, x));
+		if (f != null) {
+			if (f.getRegrowStart() > cycle) {
+				scheduleRegrowth(f, cycle, f.getReadyTick() - (f.getRegrowStart() - cycle));
+			} else if (f.getReadyTick() < cycle) {
+				uncovered.add(f);
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the list of awake LifeForms and the regrowth queue from the
+	 * current state of the world. Called before the first cycle and whenever
+	 * the world has been changed outside of the simulation.
+	 * 
+	 * @param lifeForms
+	 *            - the world's living LifeForms.
+	 */
+	private void schedule(List<ALifeForm> lifeForms) {
+		for (Sleeper s : sleepers.values()) {
+			settle(s, cycle - 1);
+		}
+		sleeping.clear(cycle - 1);
+
+		awake = new ArrayList<>(lifeForms);
+		awakeOrder = new int[awake.size()];
+		for (int i = 0; i < awakeOrder.length; i++) {
+			awakeOrder[i] = i;
+		}
+		// No LifeForms are added until the world is next changed outside of
+		// the simulation, so the lists and tables used to put LifeForms to
+		// sleep and wake them are made large enough for all of them now
+		// rather than growing part way through a run.
+		int count = awake.size();
+		sleepers = new IdentityHashMap<>(count);
+		spareAwake = new ArrayList<>(count);
+		spareOrder = new int[count];
+		woken.ensureCapacity(count);
+		spareSleepers.ensureCapacity(count);
+		if (wokenKeys.length < count) {
+			wokenKeys = new long[count];
+		}
+
+		// Builds the tables and fields used by species which sense an area
+		// before any LifeForm moves, so they are the same whether or not the
+		// LifeForms are scanned in parallel.
+		for (ALifeForm a : lifeForms) {
+			world.prepareSensing(a.getPreyType(), world.getSensingMode(a.getSpecies()));
+		}
+
+		scheduleFood();
+	}
+
+	/**
+	 * Rebuilds the regrowth queue from the timers of the food in the world.
+	 */
+	private void scheduleFood() {
+		regrowthQueue.clear(cycle - 1);
+		regrowing.clear();
+		uncovered.clear();
+		obstructed.clear();
+
+		WorldGrid grid = world.getGrid();
+		for (AWorldObject o : world.getFoodList()) {
+			AFood f = (AFood) o;
+			AWorldObject object = grid.get(f.getY(), f.getX());
+			if (object == f) {
+				continue;
+			}
+			if (f.getTimer() == 0) {
+				if (object instanceof AnObstacle) {
+					obstructed.add(f);
+				} else {
+					scheduleRegrowth(f, cycle, cycle);
+				}
+			} else if (object == null) {
+				scheduleRegrowth(f, cycle, cycle + f.getTimer() - 1);
+			} else if (object instanceof ALifeForm) {
+				// The LifeForm's timer is reduced before the food's timer is
+				// next checked.
+				long start = cycle + Math.max(object.getTimer() - 1, 0);
+				scheduleRegrowth(f, start, start + f.getTimer() - 1);
+			}
+			// Food covered by any other object never regrows, as the object
+			// never moves.
+		}
+
+		scheduledVersion = world.getVersion();
+	}
+
+	/**
+	 * Wakes the sleeping LifeForms which are due this cycle, applies the
+	 * cycles they slept through and returns them to the awake list in their
+	 * original order.
+	 */
+	private void wake() {
+		woken.clear();
+		sleeping.advance(woken);
+		int count = 0;
+		for (int i = 0; i < woken.size(); i++) {
+			Sleeper s = woken.get(i);
+			// LifeForms eaten while asleep have already been woken, and their
+			// records can only be reused once they have left the wheel.
+			if (sleepers.get(s.lifeForm) == s) {
+				sleepers.remove(s.lifeForm);
+				settle(s, cycle - 1);
+				if (wokenKeys.length == count) {
+					wokenKeys = Arrays.copyOf(wokenKeys, count * 2);
+				}
+				wokenKeys[count++] = (long) s.order << 32 | i;
+			} else {
+				spareSleepers.add(s);
+			}
+		}
+		if (count == 0) {
+			woken.clear();
+			return;
+		}
+		// Sorts the woken LifeForms by their order without boxing or
+		// comparators, keeping each one's position in the woken list.
+		sort(wokenKeys, count);
+
+		// Merges the woken LifeForms in to the awake list.
+		int size = awake.size();
+		ArrayList<ALifeForm> merged = spareAwake;
+		merged.clear();
+		int[] mergedOrder = spareOrder;
+		if (mergedOrder.length < size + count) {
+			mergedOrder = new int[size + count];
+		}
+		int i = 0, j = 0;
+		while (i < size || j < count) {
+			if (j == count || (i < size && awakeOrder[i] < (int) (wokenKeys[j] >>> 32))) {
+				mergedOrder[merged.size()] = awakeOrder[i];
+				merged.add(awake.get(i++));
+			} else {
+				Sleeper s = woken.get((int) wokenKeys[j++]);
+				mergedOrder[merged.size()] = s.order;
+				merged.add(s.lifeForm);
+				spareSleepers.add(s);
+			}
+		}
+		spareAwake = awake;
+		spareOrder = awakeOrder;
+		awake = merged;
+		awakeOrder = mergedOrder;
+		woken.clear();
+	}
+
+	/**
+	 * Removes dead LifeForms from the awake list and puts LifeForms which will
+	 * spend the next cycles digesting to sleep. A LifeForm is woken in the
+	 * cycle in which it finishes digesting, or earlier if its poison will kill
+	 * it first, so that it is updated in that cycle as normal. Poisoned
+	 * herbivores are not put to sleep.
+	 */
+	private void sleep() {
+		int count = 0;
+		for (int i = 0; i < awake.size(); i++) {
+			ALifeForm a = awake.get(i);
+			int slot = a.getSlot();
+			if (!store.isAlive(slot)) {
+				continue;
+			}
+			long wakeCycle = store.getWakeCycle(slot, cycle);
+			// Carnivores compare the energy of the herbivores they sense, so
+			// herbivores whose energy is being drained by poison stay awake.
+			boolean draining = a instanceof AHerbivore && store.getPoison(slot) > 0;
+			if (wakeCycle > cycle + 1 && !draining) {
+				Sleeper s;
+				if (spareSleepers.isEmpty()) {
+					s = new Sleeper();
+				} else {
+					s = spareSleepers.remove(spareSleepers.size() - 1);
+				}
+				s.set(a, awakeOrder[i], cycle);
+				sleepers.put(a, s);
+				sleeping.schedule(s, wakeCycle);
+			} else {
+				awake.set(count, a);
+				awakeOrder[count] = awakeOrder[i];
+				count++;
+			}
+		}
+		truncate(awake, count);
+	}
+
+	/**
+	 * Removes the items from the end of a list down to the given size, without
+	 * creating a view of the list.
+	 * 
+	 * @param list
+	 *            - the list to shorten.
+	 * @param size
+	 *            - the number of items to keep.
+	 */
+	private static void truncate(ArrayList<?> list, int size) {
+		for (int i = list.size() - 1; i >= size; i--) {
+			list.remove(i);
+		}
+	}
+
+	/**
+	 * Sorts the start of an array in to ascending order by heap sort, which
+	 * unlike {@link Arrays#sort(long[], int, int)} never creates a working
+	 * array.
+	 * 
+	 * @param keys
+	 *            - the array to sort.
+	 * @param count
+	 *            - the number of values at the start of the array to sort.
+	 */
+	private static void sort(long[] keys, int count) {
+		for (int i = count / 2 - 1; i >= 0; i--) {
+			siftDown(keys, i, count);
+		}
+		for (int end = count - 1; end > 0; end--) {
+			long largest = keys[0];
+			keys[0] = keys[end];
+			keys[end] = largest;
+			siftDown(keys, 0, end);
+		}
+	}
+
+	/**
+	 * Moves a value down a heap held in an array until neither of the values
+	 * below it is larger.
+	 * 
+	 * @param keys
+	 *            - the heap.
+	 * @param i
+	 *            - the position of the value to move.
+	 * @param count
+	 *            - the number of values in the heap.
+	 */
+	private static void siftDown(long[] keys, int i, int count) {
+		long key = keys[i];
+		int child;
+		while ((child = 2 * i + 1) < count) {
+			if (child + 1 < count && keys[child + 1] > keys[child]) {
+				child++;
+			}
+			if (keys[child] <= key) {
+				break;
+			}
+			keys[i] = keys[child];
+			i = child;
+		}
+		keys[i] = key;
+	}
+
+	/**
+	 * Wakes a sleeping herbivore which is being eaten, bringing its energy and
+	 * poison up to date first.
+	 * 
+	 * @param food
+	 *            - the herbivore being eaten.
+	 * @param eaterOrder
+	 *            - the position of the carnivore eating it in the list of
+	 *            LifeForms.
+	 */
+	private void wakeEaten(ALifeForm food, int eaterOrder) {
+		Sleeper s = sleepers.remove(food);
+		if (s != null) {
+			// Herbivores before the carnivore in the list would already have
+			// been updated this cycle.
+			if (s.order < eaterOrder) {
+				settle(s, cycle);
+			} else {
+				settle(s, cycle - 1);
+			}
+		}
+	}
+
+	/**
+	 * Applies the cycles a sleeping LifeForm has slept through up to the given
+	 * cycle. Each cycle reduces the LifeForm's timer and drains its poison.
+	 * 
+	 * @param s
+	 *            - the sleeping LifeForm.
+	 * @param upTo
+	 *            - the last cycle to apply.
+	 */
+	private void settle(Sleeper s, long upTo) {
+		long elapsed = upTo - s.settled;
+		int slot = s.lifeForm.getSlot();
+		// LifeForms removed from the world while asleep are left as they are.
+		if (elapsed > 0 && slot >= 0) {
+			world.getLifeFormStore().digest(slot, (int) elapsed);
+			s.settled = upTo;
+		}
+	}
+
+	/**
+	 * Brings the timers of all eaten food and the state of all sleeping
+	 * LifeForms up to date with the current cycle, so that the world can be
+	 * saved or displayed. Must not be called while a cycle is being performed.
+	 */
+	public void settle() {
+		long last = cycle - 1;
+		for (Sleeper s : sleepers.values()) {
+			settle(s, last);
+		}
+		regrowing.forEachValue(f -> {
+			long timer = f.getReadyTick() - Math.max(last, f.getRegrowStart() - 1);
+			if (timer < 0) {
+				timer = 0;
+			}
+			f.setTimer((int) timer);
+		});
+	}
+
+	/**
+	 * @param y
+	 *            - the row of a map space.
+	 * @param x
+	 *            - the column of a map space.
+	 * @return the key of the map space in the regrowing food map.
+	 */
+	private long getKey(int y, int x) {
+		return (long) y * world.getWidth() + x;
+	}
+
+	/**
+	 * @param listener
+	 *            - the listener to notify after each cycle.
+	 */
+	public void addListener(SimulationListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener
+	 *            - the listener to stop notifying.
+	 */
+	public void removeListener(SimulationListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Sets whether LifeForms are scanned in parallel at the start of each
+	 * cycle. The results of a cycle are the same in either mode.
+	 * 
+	 * @param parallel
+	 *            - true to scan LifeForms on the common fork/join pool.
+	 */
+	public void setParallel(boolean parallel) {
+		if (parallel) {
+			parallelTick = new ParallelTick(ForkJoinPool.commonPool());
+		} else {
+			parallelTick = null;
+		}
+	}
+
+	/**
+	 * @return true if LifeForms are scanned in parallel.
+	 */
+	public boolean isParallel() {
+		return parallelTick != null;
+	}
+
+	/**
+	 * @return the world which the engine is advancing.
+	 */
+	public AWorld getWorld() {
+		return world;
+	}
+
+	/**
+	 * @return the number of cycles the engine has completed.
+	 */
+	public long getCycle() {
+		return cycle;
+	}
+
+	/**
+	 * A LifeForm which has been put to sleep while it digests. Records are
+	 * reused once they have left the timer wheel.
+	 */
+	private static class Sleeper {
+
+		private ALifeForm lifeForm;
+		private int order;
+		private long settled;
+
+		/**
+		 * Fills in the record for a LifeForm being put to sleep.
+		 * 
+		 * @param lifeForm
+		 *            - the sleeping LifeForm.
+		 * @param order
+		 *            - the LifeForm's position in the list of LifeForms.
+		 * @param settled
+		 *            - the last cycle which has been applied to the LifeForm.
+		 */
+		void set(ALifeForm lifeForm, int order, long settled) {
+			this.lifeForm = lifeForm;
+			this.order = order;
+			this.settled = settled;
+		}
+	}
+}
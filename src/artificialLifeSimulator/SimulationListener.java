@@ -0,0 +1,19 @@
+package artificialLifeSimulator;
+
+/**
+ * Receives notifications from a simulation engine as it advances its world.
+ * 
+ * @author Jed Brennen
+ * @see SimulationEngine
+ *
+ */
+public interface SimulationListener {
+
+	/**
+	 * Called after every cycle the engine completes.
+	 * 
+	 * @param engine
+	 *            - the engine which has just completed a cycle.
+	 */
+	void cycleCompleted(SimulationEngine engine);
+}
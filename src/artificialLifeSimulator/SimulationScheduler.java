@@ -0,0 +1,236 @@
+package artificialLifeSimulator;
+
+/**
+ * Runs a simulation engine on its own worker thread at a fixed rate, separate
+ * from however often the world is displayed. The scheduler keeps track of how
+ * many cycles are due from the time that has passed and performs all of them,
+ * so a slow display never slows down the simulation. While a batch of cycles
+ * is being run the scheduler holds the engine's lock; anything reading the
+ * world from another thread should synchronise on the engine as well.
+ * 
+ * @author Jed Brennen
+ * @see SimulationEngine
+ *
+ */
+public class SimulationScheduler {
+
+	/**
+	 * The states the scheduler can be in.
+	 */
+	public enum Status {
+		RUNNING, PAUSED, STOPPED
+	}
+
+	// The longest the worker will hold the engine's lock in one go.
+	private static final long MAX_BATCH_NANOS = 4000000L;
+	// The longest the worker will sleep before checking for changes.
+	private static final long MAX_SLEEP_MILLIS = 50;
+
+	private final SimulationEngine engine;
+	private final long cycles;
+	private volatile double cyclesPerSecond;
+	private volatile Status status;
+	private long completed;
+	private Thread worker;
+	private Runnable onFinished;
+
+	/**
+	 * Runs a simulation engine on its own worker thread at a fixed rate,
+	 * separate from however often the world is displayed.
+	 * 
+	 * @param engine
+	 *            - the engine to run.
+	 * @param cycles
+	 *            - the number of cycles to run before finishing.
+	 * @param cyclesPerSecond
+	 *            - the initial rate at which to run cycles.
+	 */
+	public SimulationScheduler(SimulationEngine engine, long cycles, double cyclesPerSecond) {
+		this.engine = engine;
+		this.cycles = cycles;
+		this.cyclesPerSecond = cyclesPerSecond;
+		status = Status.STOPPED;
+		completed = 0;
+	}
+
+	/**
+	 * Starts running cycles, resuming from where the scheduler was paused. If
+	 * the scheduler has stopped or finished it will start again from the
+	 * beginning of its cycle count.
+	 */
+	public synchronized void play() {
+		if (status == Status.STOPPED) {
+			completed = 0;
+			status = Status.RUNNING;
+			worker = new Thread(this::run, "Simulation");
+			worker.setDaemon(true);
+			worker.start();
+		} else {
+			status = Status.RUNNING;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Pauses the scheduler and waits for the current batch of cycles to
+	 * complete, after which the world will not be changed until the scheduler
+	 * is played again. The engine is settled so the world can be saved.
+	 */
+	public void pause() {
+		synchronized (this) {
+			if (status == Status.RUNNING) {
+				status = Status.PAUSED;
+			}
+		}
+		// The worker holds the engine's lock for the whole of a batch.
+		synchronized (engine) {
+			engine.settle();
+		}
+	}
+
+	/**
+	 * Stops the scheduler and waits for the current batch of cycles to
+	 * complete, after which the world will no longer be changed. The engine
+	 * is settled so the world can be saved.
+	 */
+	public void stop() {
+		Thread current;
+		synchronized (this) {
+			status = Status.STOPPED;
+			current = worker;
+			worker = null;
+			notifyAll();
+		}
+		if (current != null && current != Thread.currentThread()) {
+			try {
+				current.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (engine) {
+			engine.settle();
+		}
+	}
+
+	/**
+	 * The worker thread's loop. Works out how many cycles are due from the
+	 * time passed since the last batch and runs them, sleeping while none are
+	 * due.
+	 */
+	private void run() {
+		long previous = System.nanoTime();
+		double due = 0;
+
+		while (true) {
+			synchronized (this) {
+				while (status == Status.PAUSED) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+					previous = System.nanoTime();
+					due = 0;
+				}
+				if (status == Status.STOPPED || Thread.currentThread() != worker) {
+					return;
+				}
+			}
+
+			long now = System.nanoTime();
+			double rate = cyclesPerSecond;
+			due += (now - previous) * rate / 1e9;
+			previous = now;
+			// Drops any backlog of more than a second so the simulation
+			// doesn't race to catch up after being held up.
+			if (due > Math.max(1, rate)) {
+				due = Math.max(1, rate);
+			}
+
+			if (due >= 1) {
+				int ran = 0;
+				synchronized (engine) {
+					long start = System.nanoTime();
+					while (ran < (long) due && completed < cycles && status == Status.RUNNING) {
+						engine.step();
+						completed++;
+						ran++;
+						if (System.nanoTime() - start > MAX_BATCH_NANOS) {
+							break;
+						}
+					}
+				}
+				due -= ran;
+
+				if (completed >= cycles) {
+					finish();
+					return;
+				}
+			} else {
+				long millis = MAX_SLEEP_MILLIS;
+				if (rate > 0) {
+					millis = Math.min(MAX_SLEEP_MILLIS, (long) Math.ceil((1 - due) * 1000 / rate));
+				}
+				try {
+					Thread.sleep(millis);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the scheduler as stopped once all its cycles have completed and
+	 * runs the finished handler.
+	 */
+	private void finish() {
+		Runnable handler;
+		synchronized (this) {
+			if (Thread.currentThread() != worker) {
+				return;
+			}
+			status = Status.STOPPED;
+			worker = null;
+			handler = onFinished;
+		}
+		synchronized (engine) {
+			engine.settle();
+		}
+		if (handler != null) {
+			handler.run();
+		}
+	}
+
+	/**
+	 * @param cyclesPerSecond
+	 *            - the rate at which to run cycles. A rate of 0 pauses the
+	 *            simulation without changing the scheduler's status.
+	 */
+	public void setCyclesPerSecond(double cyclesPerSecond) {
+		this.cyclesPerSecond = cyclesPerSecond;
+	}
+
+	/**
+	 * @param onFinished
+	 *            - run on the worker thread once all cycles have completed.
+	 */
+	public synchronized void setOnFinished(Runnable onFinished) {
+		this.onFinished = onFinished;
+	}
+
+	/**
+	 * @return the current status of the scheduler.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the engine being run by the scheduler.
+	 */
+	public SimulationEngine getEngine() {
+		return engine;
+	}
+}
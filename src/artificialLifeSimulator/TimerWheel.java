@@ -0,0 +1,282 @@
+package artificialLifeSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hierarchical timer wheel which holds items until the cycle in which they
+ * are due. The wheel has several levels of 64 slots. The first level holds the
+ * items due in the next few cycles, one slot per cycle, and each level above
+ * covers 64 times the range of the one below. Items in higher levels are moved
+ * down as their cycle gets closer, so scheduling an item and collecting the
+ * items due each cycle both take constant time however many items are held.
+ * 
+ * The wheel must be advanced through every cycle in turn. Items can not be
+ * removed once scheduled, so anything which may be rescheduled should be
+ * checked when it is collected.
+ * 
+ * @author Jed Brennen
+ * 
+ * @param <T>
+ *            - the type of item held by the wheel.
+ */
+class TimerWheel<T> {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+	private final Bucket overflow = new Bucket();
+	// Holds the items of a bucket while they are placed again.
+	private final Bucket cascading = new Bucket();
+	// Arrays given up by buckets which have been cascaded, kept for buckets
+	// which need to grow. Each slot of a higher level is only used once in a
+	// long while, so without these a long simulation would keep making new
+	// arrays for slots which have not been used before.
+	private final ArrayList<Object[]> spareItems = new ArrayList<>();
+	private final ArrayList<long[]> spareCycles = new ArrayList<>();
+	private long now;
+	private int size;
+
+	/**
+	 * A hierarchical timer wheel which holds items until the cycle in which
+	 * they are due.
+	 * 
+	 * @param now
+	 *            - the last cycle which has already been collected.
+	 */
+	TimerWheel(long now) {
+		for (Bucket[] level : levels) {
+			for (int i = 0; i < SLOTS; i++) {
+				level[i] = new Bucket();
+			}
+		}
+		this.now = now;
+	}
+
+	/**
+	 * Adds an item to be collected in the given cycle. Items scheduled for a
+	 * cycle which has already been collected are collected in the next cycle.
+	 * 
+	 * @param item
+	 *            - the item to add.
+	 * @param cycle
+	 *            - the cycle in which to collect the item.
+	 */
+	void schedule(T item, long cycle) {
+		if (cycle <= now) {
+			cycle = now + 1;
+		}
+		place(item, cycle);
+		size++;
+	}
+
+	/**
+	 * Moves the wheel on to the next cycle and collects the items due in it.
+	 * 
+	 * @param due
+	 *            - the list to add the collected items to.
+	 * @return the cycle which has been collected.
+	 */
+	@SuppressWarnings("unchecked")
+	long advance(List<T> due) {
+		now++;
+		// Moves items down from the higher levels when the cycle reaches the
+		// start of their slot, highest level first.
+		if ((now & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+			cascade(overflow);
+		}
+		for (int level = LEVELS - 1; level > 0; level--) {
+			if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+				cascade(levels[level][(int) (now >>> (BITS * level)) & MASK]);
+			}
+		}
+
+		Bucket bucket = levels[0][(int) now & MASK];
+		for (int i = 0; i < bucket.size; i++) {
+			due.add((T) bucket.items[i]);
+		}
+		size -= bucket.size;
+		bucket.clear();
+		return now;
+	}
+
+	/**
+	 * Removes every item from the wheel and sets the last collected cycle.
+	 * 
+	 * @param now
+	 *            - the last cycle which has already been collected.
+	 */
+	void clear(long now) {
+		for (Bucket[] level : levels) {
+			for (Bucket bucket : level) {
+				bucket.clear();
+			}
+		}
+		overflow.clear();
+		this.now = now;
+		size = 0;
+	}
+
+	/**
+	 * @return the number of items held by the wheel.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the last cycle which has been collected.
+	 */
+	long getNow() {
+		return now;
+	}
+
+	/**
+	 * Places an item in the lowest level whose range covers both the current
+	 * cycle and the item's cycle.
+	 * 
+	 * @param item
+	 *            - the item to place.
+	 * @param cycle
+	 *            - the cycle in which to collect the item.
+	 */
+	private void place(Object item, long cycle) {
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = BITS * (level + 1);
+			if ((cycle >>> shift) == (now >>> shift)) {
+				add(levels[level][(int) (cycle >>> (BITS * level)) & MASK], item, cycle);
+				return;
+			}
+		}
+		add(overflow, item, cycle);
+	}
+
+	/**
+	 * Adds an item to a bucket, growing the bucket with spare arrays if there
+	 * are any large enough.
+	 * 
+	 * @param bucket
+	 *            - the bucket to add to.
+	 * @param item
+	 *            - the item to add.
+	 * @param cycle
+	 *            - the cycle in which to collect the item.
+	 */
+	private void add(Bucket bucket, Object item, long cycle) {
+		if (bucket.size == bucket.items.length) {
+			int capacity = Math.max(4, bucket.size * 2);
+			Object[] items = null;
+			long[] cycles = null;
+			for (int i = spareItems.size() - 1; i >= 0; i--) {
+				if (spareItems.get(i).length >= capacity) {
+					items = spareItems.get(i);
+					cycles = spareCycles.get(i);
+					int last = spareItems.size() - 1;
+					spareItems.set(i, spareItems.get(last));
+					spareCycles.set(i, spareCycles.get(last));
+					spareItems.remove(last);
+					spareCycles.remove(last);
+					break;
+				}
+			}
+			if (items == null) {
+				items = new Object[capacity];
+				cycles = new long[capacity];
+			}
+			System.arraycopy(bucket.items, 0, items, 0, bucket.size);
+			System.arraycopy(bucket.cycles, 0, cycles, 0, bucket.size);
+			int size = bucket.size;
+			release(bucket);
+			bucket.items = items;
+			bucket.cycles = cycles;
+			bucket.size = size;
+		}
+		bucket.items[bucket.size] = item;
+		bucket.cycles[bucket.size] = cycle;
+		bucket.size++;
+	}
+
+	/**
+	 * Empties a bucket and keeps its arrays as spares.
+	 * 
+	 * @param bucket
+	 *            - the bucket to empty.
+	 */
+	private void release(Bucket bucket) {
+		bucket.clear();
+		if (bucket.items.length > 0) {
+			spareItems.add(bucket.items);
+			spareCycles.add(bucket.cycles);
+			bucket.items = Bucket.NO_ITEMS;
+			bucket.cycles = Bucket.NO_CYCLES;
+		}
+	}
+
+	/**
+	 * Empties a bucket and places its items again relative to the current
+	 * cycle. The items are copied in to a bucket kept for the purpose and the
+	 * emptied bucket's arrays are kept as spares, so once the wheel has grown
+	 * to the number of items it holds cascading does not create any objects.
+	 * 
+	 * @param bucket
+	 *            - the bucket to empty.
+	 */
+	private void cascade(Bucket bucket) {
+		if (bucket.size == 0) {
+			return;
+		}
+		Bucket moving = cascading;
+		moving.copy(bucket);
+		if (bucket == overflow) {
+			bucket.clear();
+		} else {
+			release(bucket);
+		}
+		for (int i = 0; i < moving.size; i++) {
+			place(moving.items[i], moving.cycles[i]);
+		}
+		moving.clear();
+	}
+
+	/**
+	 * A growable array of items along with the cycles they are due in.
+	 */
+	private static class Bucket {
+
+		private static final Object[] NO_ITEMS = new Object[0];
+		private static final long[] NO_CYCLES = new long[0];
+
+		private Object[] items = NO_ITEMS;
+		private long[] cycles = NO_CYCLES;
+		private int size;
+
+		/**
+		 * Replaces the items in this bucket with those of another, growing
+		 * this bucket's arrays only if they are too small.
+		 * 
+		 * @param other
+		 *            - the bucket to copy.
+		 */
+		void copy(Bucket other) {
+			if (items.length < other.size) {
+				items = new Object[other.items.length];
+				cycles = new long[other.items.length];
+			}
+			System.arraycopy(other.items, 0, items, 0, other.size);
+			System.arraycopy(other.cycles, 0, cycles, 0, other.size);
+			size = other.size;
+		}
+
+		/**
+		 * Empties the bucket, keeping its arrays for reuse.
+		 */
+		void clear() {
+			Arrays.fill(items, 0, size, null);
+			size = 0;
+		}
+	}
+}
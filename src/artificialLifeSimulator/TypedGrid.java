@@ -0,0 +1,99 @@
+package artificialLifeSimulator;
+
+import java.util.Arrays;
+
+/**
+ * A grid which stores the map in two flat arrays, one byte per map space for
+ * the type of object and one int per map space for a handle to the object
+ * itself. Scanning the types of map spaces reads a single run of memory, and
+ * empty map spaces never need to look at an object.
+ *
+ * @author Jed Brennen
+ * @see WorldGrid
+ * @see HandleTable
+ *
+ */
+public class TypedGrid implements WorldGrid {
+
+	private final int width, height;
+	private final byte[] types;
+	private final int[] handles;
+	private final HandleTable objects = new HandleTable();
+	// The occupied map spaces of a row, kept so visiting them does not
+	// allocate.
+	private final int[] occupied;
+
+	/**
+	 * A grid which stores the map in two flat arrays of types and handles.
+	 *
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 */
+	public TypedGrid(int height, int width) {
+		this.width = width;
+		this.height = height;
+		types = new byte[width * height];
+		handles = new int[width * height];
+		occupied = new int[width];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public AWorldObject get(int y, int x) {
+		int i = y * width + x;
+		if (types[i] == EMPTY) {
+			return null;
+		}
+		return objects.get(handles[i]);
+	}
+
+	public byte getType(int y, int x) {
+		return types[y * width + x];
+	}
+
+	public void getTypes(int y, byte[] row) {
+		System.arraycopy(types, y * width, row, 0, width);
+	}
+
+	public void set(int y, int x, AWorldObject object) {
+		int i = y * width + x;
+		if (types[i] != EMPTY) {
+			objects.release(handles[i]);
+		}
+		if (object == null) {
+			types[i] = EMPTY;
+			handles[i] = 0;
+		} else {
+			handles[i] = objects.acquire(object);
+			types[i] = WorldGrid.typeOf(object);
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(types, EMPTY);
+		Arrays.fill(handles, 0);
+		objects.clear();
+	}
+
+	/**
+	 * Picks out the occupied map spaces along each row with the grid's
+	 * kernels, so only the occupied map spaces are looked at one at a time.
+	 */
+	public void forEachOccupied(CellVisitor visitor) {
+		GridKernels kernels = GridKernels.get();
+		for (int y = 0; y < height; y++) {
+			int count = kernels.select(types, y * width, (y + 1) * width, FOOD, CARNIVORE, occupied);
+			for (int i = 0; i < count; i++) {
+				visitor.visit(y, occupied[i] - y * width, objects.get(handles[occupied[i]]));
+			}
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+import java.io.IOException;
+
+import lifeFormTypes.ACarnivore;
+import lifeFormTypes.AHerbivore;
+import worldObjects.AFood;
+import worldObjects.AnObstacle;
+
+/**
+ * The map of a world, holding the object which occupies each map space. As
+ * well as the object itself, the grid can be asked for the type of object in a
+ * map space, which lets LifeForms scan the map without looking at the objects
+ * they pass over.
+ *
+ * @author Jed Brennen
+ * @see ObjectGrid
+ * @see TypedGrid
+ * @see OffHeapGrid
+ * @see ChunkedGrid
+ *
+ */
+public interface WorldGrid {
+
+	/**
+	 * The number of chunks a {@link ChunkedGrid} holds in memory if the
+	 * configuration does not give a chunkBudget.
+	 */
+	int DEFAULT_CHUNK_BUDGET = 4096;
+
+	/**
+	 * Type of an empty map space.
+	 */
+	byte EMPTY = 0;
+	/**
+	 * Type of a map space occupied by food.
+	 */
+	byte FOOD = 1;
+	/**
+	 * Type of a map space occupied by an obstacle.
+	 */
+	byte OBSTACLE = 2;
+	/**
+	 * Type of a map space occupied by a herbivore.
+	 */
+	byte HERBIVORE = 3;
+	/**
+	 * Type of a map space occupied by a carnivore.
+	 */
+	byte CARNIVORE = 4;
+
+	/**
+	 * @return the number of columns in the grid.
+	 */
+	int getWidth();
+
+	/**
+	 * @return the number of rows in the grid.
+	 */
+	int getHeight();
+
+	/**
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 * @return the object occupying the map space, or null if it is empty.
+	 */
+	AWorldObject get(int y, int x);
+
+	/**
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 * @return the type of object occupying the map space.
+	 */
+	byte getType(int y, int x);
+
+	/**
+	 * Copies the types of the objects along a row of the map in to an array,
+	 * so the row can be swept without asking for each map space in turn.
+	 * 
+	 * @param y
+	 *            - the row to copy.
+	 * @param row
+	 *            - the array to copy the types in to, which must have room
+	 *            for the whole row.
+	 * @see GridKernels
+	 */
+	default void getTypes(int y, byte[] row) {
+		for (int x = 0; x < getWidth(); x++) {
+			row[x] = getType(y, x);
+		}
+	}
+
+	/**
+	 * @param y
+	 *            - the row of the map space.
+	 * @param x
+	 *            - the column of the map space.
+	 * @param object
+	 *            - the object to place in the map space, or null to empty it.
+	 */
+	void set(int y, int x, AWorldObject object);
+
+	/**
+	 * Empties every map space.
+	 */
+	void clear();
+
+	/**
+	 * Passes every occupied map space to the visitor, row by row.
+	 * 
+	 * @param visitor
+	 *            - the visitor to pass the map spaces to.
+	 */
+	default void forEachOccupied(CellVisitor visitor) {
+		for (int y = 0; y < getHeight(); y++) {
+			for (int x = 0; x < getWidth(); x++) {
+				if (getType(y, x) != EMPTY) {
+					visitor.visit(y, x, get(y, x));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the type of a world object, as stored in a grid.
+	 *
+	 * @param object
+	 *            - the object to get the type of.
+	 * @return the type of the object, or EMPTY if the object is null.
+	 */
+	static byte typeOf(AWorldObject object) {
+		if (object == null) {
+			return EMPTY;
+		} else if (object instanceof AFood) {
+			return FOOD;
+		} else if (object instanceof AHerbivore) {
+			return HERBIVORE;
+		} else if (object instanceof ACarnivore) {
+			return CARNIVORE;
+		} else if (object instanceof AnObstacle) {
+			return OBSTACLE;
+		}
+		// Any other kind of object blocks movement like an obstacle.
+		return OBSTACLE;
+	}
+
+	/**
+	 * Creates a new empty grid of the type given by the configuration's
+	 * gridType property: "typed" for a {@link TypedGrid}, "offheap" for an
+	 * {@link OffHeapGrid}, "chunked" for a {@link ChunkedGrid}, otherwise an
+	 * {@link ObjectGrid} is created. An off-heap grid is stored in the file
+	 * given by the gridFile property if there is one, falling back to memory
+	 * outside of the heap if the file cannot be used. A chunked grid holds the
+	 * number of chunks given by the chunkBudget property in memory and writes
+	 * any others to the file given by the chunkFile property, or to a
+	 * temporary file.
+	 * 
+	 * The grid is wrapped in an {@link OccupancyIndex} if the occupancyIndex
+	 * property is true. If the property is not set, object and typed grids are
+	 * indexed, while off-heap and chunked grids, which are meant for maps too
+	 * large to index, are not.
+	 *
+	 * @param config
+	 *            - the configuration to read the type of grid from.
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 * @return the new grid.
+	 */
+	static WorldGrid create(Configuration config, int height, int width) {
+		WorldGrid grid = createStorage(config, height, width);
+		boolean indexed = grid instanceof ObjectGrid || grid instanceof TypedGrid;
+		String value = config.getProperty("occupancyIndex");
+		if (value != null && !value.trim().isEmpty()) {
+			indexed = Boolean.parseBoolean(value.trim());
+		}
+		if (indexed) {
+			return new OccupancyIndex(grid);
+		}
+		return grid;
+	}
+
+	/**
+	 * Creates a new empty grid of the type given by the configuration's
+	 * gridType property, without an index.
+	 *
+	 * @param config
+	 *            - the configuration to read the type of grid from.
+	 * @param height
+	 *            - the number of rows in the grid.
+	 * @param width
+	 *            - the number of columns in the grid.
+	 * @return the new grid.
+	 * @see #create(Configuration, int, int)
+	 */
+	static WorldGrid createStorage(Configuration config, int height, int width) {
+		String type = config.getProperty("gridType");
+		if ("typed".equalsIgnoreCase(type)) {
+			return new TypedGrid(height, width);
+		} else if ("offheap".equalsIgnoreCase(type)) {
+			String file = config.getProperty("gridFile");
+			if (file != null && !file.trim().isEmpty()) {
+				try {
+					return new OffHeapGrid(height, width, new File(file.trim()));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			return new OffHeapGrid(height, width);
+		} else if ("chunked".equalsIgnoreCase(type)) {
+			int budget = DEFAULT_CHUNK_BUDGET;
+			String value = config.getProperty("chunkBudget");
+			if (value != null && !value.trim().isEmpty()) {
+				try {
+					budget = Integer.parseInt(value.trim());
+				} catch (NumberFormatException e) {
+					e.printStackTrace();
+				}
+			}
+			String file = config.getProperty("chunkFile");
+			return new ChunkedGrid(height, width, budget,
+					file == null || file.trim().isEmpty() ? null : new File(file.trim()));
+		}
+		return new ObjectGrid(height, width);
+	}
+
+	/**
+	 * Receives the occupied map spaces of a grid.
+	 */
+	interface CellVisitor {
+
+		/**
+		 * @param y
+		 *            - the row of the map space.
+		 * @param x
+		 *            - the column of the map space.
+		 * @param object
+		 *            - the object occupying the map space.
+		 */
+		void visit(int y, int x, AWorldObject object);
+	}
+
+	/**
+	 * Is told about the map spaces of a grid as they change.
+	 *
+	 * @see ObservedGrid
+	 */
+	interface CellListener {
+
+		/**
+		 * Called after an object has been placed in a map space, or the map
+		 * space has been emptied.
+		 *
+		 * @param y
+		 *            - the row of the map space.
+		 * @param x
+		 *            - the column of the map space.
+		 * @param oldType
+		 *            - the type of object the map space held before.
+		 * @param newType
+		 *            - the type of object the map space holds now.
+		 */
+		void cellChanged(int y, int x, byte oldType, byte newType);
+
+		/**
+		 * Called after every map space has been emptied.
+		 */
+		default void cleared() {
+		}
+	}
+}
@@ -5,18 +5,18 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import artificialLifeSimulator.AWorld;
 import artificialLifeSimulator.AWorldObject;
 import artificialLifeSimulator.Configuration;
-import artificialLifeSimulator.Direction;
+import artificialLifeSimulator.SimulationEngine;
+import artificialLifeSimulator.SimulationScheduler;
 import worldObjects.AFood;
 import worldObjects.ALifeForm;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.css.PseudoClass;
@@ -52,8 +52,6 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.Priority;
-import javafx.scene.layout.RowConstraints;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
@@ -61,7 +59,6 @@ import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import javafx.util.Callback;
-import javafx.util.Duration;
 import lifeFormTypes.ACarnivore;
 import lifeFormTypes.AHerbivore;
 
@@ -73,7 +70,7 @@ public class MainScreen extends Application {
 	private final MenuBar menuBar = new MenuBar();
 	private Menu fileMenu, editMenu, viewMenu, simMenu, helpMenu;
 	private MenuItem fileNew, fileLoad, fileSave, fileSaveAs, fileExit, editConfig, editModify, editAdd, editRemove,
-			viewConfig, viewLife, viewWorldInfo, viewWorld, simPlay, simPause, simRewind, simReset, helpApp, helpAuthor;
+			viewConfig, viewLife, viewWorldInfo, viewWorld, viewFollow, viewStopFollowing, viewResetZoom, simPlay, simPause, simRewind, simReset, helpApp, helpAuthor;
 	private Button playPauseButton, rewindButton, resetButton, addLifeButton, removeLifeButton;
 	private Slider speedSlider;
 	private ComboBox<String> addLifeTypeCombo;
@@ -84,15 +81,24 @@ public class MainScreen extends Application {
 	private BorderPane sidePane;
 	private ScrollPane infoScrollPane;
 	private StackPane infoPane;
-	private GridPane simPane, configInfoPane, lifeInfoPane, worldInfoPane;
+	private GridPane configInfoPane, lifeInfoPane, worldInfoPane;
+	private WorldCanvas simPane;
 	private VBox simControlsPane;
 	private HBox playbackButtons, playbackSlider, lifeFormButtons;
 
-	private Timeline timeline;
+	private SimulationScheduler scheduler;
+	private AnimationTimer renderTimer;
+	private long renderedCycle;
+
+	// The world's counts and the text of each LifeForm's information, copied
+	// from the world so the information pane can be shown without holding the
+	// running simulation's lock.
+	private int lifeFormCount, foodCount, obstacleCount;
+	private final List<String[]> lifeFormInfo = new ArrayList<>();
 
 	private int width, height;
 
-	private VBox[][] worldContainers;
+	private boolean worldShown = false;
 
 	private boolean saved = true, playing = false;
 	private ButtonType buttonClicked;
@@ -120,6 +126,15 @@ public class MainScreen extends Application {
 
 		viewWorldInfo.fire();
 
+		renderTimer = new AnimationTimer() {
+
+			@Override
+			public void handle(long now) {
+				renderLatest();
+			}
+		};
+		renderTimer.start();
+
 	}
 
 	/**
@@ -196,7 +211,11 @@ public class MainScreen extends Application {
 		viewLife = new MenuItem("Display Life Form Information");
 		viewWorldInfo = new MenuItem("Display World Information");
 		viewWorld = new MenuItem("Display Loaded World");
-		viewMenu.getItems().addAll(viewConfig, viewLife, viewWorldInfo, viewWorld);
+		viewFollow = new MenuItem("Follow Life Form...");
+		viewStopFollowing = new MenuItem("Stop Following");
+		viewResetZoom = new MenuItem("Reset Zoom");
+		viewMenu.getItems().addAll(viewConfig, viewLife, viewWorldInfo, viewWorld, viewFollow, viewStopFollowing,
+				viewResetZoom);
 
 		simMenu = new Menu("Simulation");
 		simPlay = new MenuItem("Play");
@@ -216,11 +235,15 @@ public class MainScreen extends Application {
 		menuPane.setPrefWidth(width);
 		menuPane.getChildren().add(menuBar);
 
-		simPane = new GridPane();
+		simPane = new WorldCanvas();
 		simPane.setId("simPane");
 		simPane.getStylesheets().add("file:resources/css/simPane.css");
 		simPane.setPrefWidth((2 * width) / 3);
-		simPane.setGridLinesVisible(false);
+		simPane.setOnViewChanged(() -> {
+			if (worldShown) {
+				showWorld();
+			}
+		});
 
 		configInfoPane = new GridPane();
 		configInfoPane.setGridLinesVisible(false);
@@ -334,7 +357,7 @@ public class MainScreen extends Application {
 
 		scene.getWindow().setOnCloseRequest((event) -> {
 			if (playing == true) {
-				timeline.pause();
+				scheduler.pause();
 				playing = false;
 			}
 
@@ -343,20 +366,20 @@ public class MainScreen extends Application {
 
 				if (result.get().getButtonData() == ButtonData.YES) {
 					if (playing) {
-						timeline.stop();
+						scheduler.stop();
 						playing = false;
 					}
 					config.save();
 					world.save();
 				} else if (result.get().getButtonData() == ButtonData.NO) {
 					if (playing) {
-						timeline.stop();
+						scheduler.stop();
 						playing = false;
 					}
 					return;
 				} else {
-					if (timeline != null) {
-						timeline.play();
+					if (scheduler != null) {
+						scheduler.play();
 						playing = true;
 					}
 					event.consume();
@@ -370,7 +393,7 @@ public class MainScreen extends Application {
 
 		fileNew.setOnAction((event) -> {
 			if (playing) {
-				timeline.pause();
+				scheduler.pause();
 				playing = false;
 			}
 
@@ -383,7 +406,7 @@ public class MainScreen extends Application {
 					config.save();
 					world.save();
 				} else if (result.get().getButtonData() != ButtonData.NO) {
-					timeline.play();
+					scheduler.play();
 					playing = true;
 					event.consume();
 				}
@@ -392,7 +415,7 @@ public class MainScreen extends Application {
 			if (result == null || (result.get().getButtonData() == ButtonData.YES
 					|| result.get().getButtonData() == ButtonData.NO)) {
 				if (playing) {
-					timeline.stop();
+					scheduler.stop();
 					playing = false;
 				}
 				Optional<Settings> configResult = showConfigurationDialog(false);
@@ -403,7 +426,7 @@ public class MainScreen extends Application {
 				}
 			} else {
 				if (!playing) {
-					timeline.play();
+					scheduler.play();
 					playing = true;
 				}
 			}
@@ -412,7 +435,7 @@ public class MainScreen extends Application {
 
 		fileLoad.setOnAction((event) -> {
 			if (playing) {
-				timeline.pause();
+				scheduler.pause();
 				playing = false;
 			}
 
@@ -424,7 +447,7 @@ public class MainScreen extends Application {
 					config.save();
 					world.save();
 				} else if (result.get().getButtonData() != ButtonData.NO) {
-					timeline.play();
+					scheduler.play();
 					playing = true;
 					event.consume();
 				}
@@ -449,7 +472,7 @@ public class MainScreen extends Application {
 							String extension = config.getExtension(chosen);
 
 							if (extension.equalsIgnoreCase("xml")) {
-								timeline.stop();
+								scheduler.stop();
 								playing = false;
 								config.load(chosen.getName());
 								world = new AWorld();
@@ -463,7 +486,7 @@ public class MainScreen extends Application {
 						clearSimPane();
 						clearInfoPane();
 					} else {
-						timeline.play();
+						scheduler.play();
 						playing = true;
 						validFile = true;
 						break;
@@ -475,14 +498,18 @@ public class MainScreen extends Application {
 
 		fileSave.setOnAction((event) -> {
 
+			boolean resume = pauseForEdit();
 			config.save();
 			world.save();
 			saved = true;
+			resumeAfterEdit(resume);
 
 		});
 
 		fileSaveAs.setOnAction((event) -> {
 
+			boolean resume = pauseForEdit();
+
 			final FileChooser fc = new FileChooser();
 			fc.setTitle("Save configuration");
 			fc.setInitialDirectory(config.getFile().getAbsoluteFile().getParentFile());
@@ -500,6 +527,8 @@ public class MainScreen extends Application {
 				saved = true;
 			}
 
+			resumeAfterEdit(resume);
+
 		});
 
 		fileExit.setOnAction((event) -> {
@@ -510,25 +539,20 @@ public class MainScreen extends Application {
 
 		editConfig.setOnAction((event) -> {
 
+			boolean resume = pauseForEdit();
 			Optional<Settings> result = showConfigurationDialog(true);
 			if (result.isPresent()) {
 				updateInfoPane();
 			}
+			resumeAfterEdit(resume);
 
 		});
 
 		editAdd.setOnAction((event) -> {
 
-			boolean mapFull = true;
-			for (AWorldObject[] mapY : world.getMap()) {
-				for (AWorldObject mapX : mapY) {
-					if (!(mapX instanceof ALifeForm)) {
-						mapFull = false;
-					}
-				}
-			}
+			boolean resume = pauseForEdit();
 
-			if (mapFull) {
+			if (world.isFull()) {
 
 				showAlert(AlertType.WARNING, "World Full", "The world is to full to add a bug",
 						"To add a new bug either remove an existing one or increase the world dimensions");
@@ -543,17 +567,21 @@ public class MainScreen extends Application {
 					world.placeFood(false);
 					world.placeObstacles(false);
 
-					if (worldContainers != null) {
+					if (worldShown) {
 						showWorld();
 					}
 					updateInfoPane();
 				}
 			}
 
+			resumeAfterEdit(resume);
+
 		});
 
 		editModify.setOnAction((event) -> {
 
+			boolean resume = pauseForEdit();
+
 			List<ALifeForm> lifeForms = world.getLifeFormList();
 
 			if (!lifeForms.isEmpty()) {
@@ -584,7 +612,7 @@ public class MainScreen extends Application {
 						world.placeFood(false);
 						world.placeObstacles(false);
 
-						if (worldContainers != null) {
+						if (worldShown) {
 							showWorld();
 						}
 						updateInfoPane();
@@ -599,10 +627,14 @@ public class MainScreen extends Application {
 				}
 			}
 
+			resumeAfterEdit(resume);
+
 		});
 
 		editRemove.setOnAction((event) -> {
 
+			boolean resume = pauseForEdit();
+
 			List<ALifeForm> lifeForms = world.getLifeFormList();
 
 			if (!lifeForms.isEmpty()) {
@@ -624,13 +656,9 @@ public class MainScreen extends Application {
 				Optional<ALifeForm> result = dialog.showAndWait();
 
 				if (result.isPresent()) {
-					world.getLifeFormList().remove(result.get());
-
-					for (ALifeForm a : world.getLifeFormList()) {
-						if (a.getID() > result.get().getID()) {
-							a.setId(a.getID() - 1);
-						}
-					}
+					// The other LifeForms keep their IDs, as each LifeForm's
+					// random numbers come from its ID.
+					world.removeLifeForm(result.get());
 
 					world.save();
 
@@ -641,7 +669,7 @@ public class MainScreen extends Application {
 					world.placeFood(false);
 					world.placeObstacles(false);
 
-					if (worldContainers != null) {
+					if (worldShown) {
 						showWorld();
 					}
 
@@ -658,6 +686,8 @@ public class MainScreen extends Application {
 				}
 			}
 
+			resumeAfterEdit(resume);
+
 		});
 
 		viewConfig.setOnAction((event) -> {
@@ -710,110 +740,72 @@ public class MainScreen extends Application {
 		});
 
 		viewLife.setOnAction((event) -> {
+			copyInfoLocked();
+			showLifeInfo();
+		});
 
-			lifeInfoPane.getChildren().clear();
+		viewWorldInfo.setOnAction((event) -> {
+			copyInfoLocked();
+			showWorldInfo();
+		});
 
-			Label title = new Label("LifeForm Information");
-			title.setId("header");
+		viewWorld.setOnAction((event) -> {
 
-			lifeInfoPane.add(title, 0, 0);
+			showWorld();
 
-			int row = 2;
+		});
 
-			if (world.getLifeFormList().isEmpty()) {
-				lifeInfoPane.add(new Label("There are no LifeForms to display."), 0, 2);
-			} else {
+		viewFollow.setOnAction((event) -> {
 
-				for (ALifeForm a : world.getLifeFormList()) {
-					Label id = new Label("#" + String.valueOf(a.getID()));
-					if (!a.isAlive()) {
-						id.setText(id.getText() + " (Dead)");
-					} else if (a.getPoison() > 0) {
-						id.setText(id.getText() + " (Poisoned)");
-					}
-					id.setId("propertyID");
-
-					lifeInfoPane.add(id, 0, row);
-					lifeInfoPane.add(new Label("Name: "), 0, row + 1);
-					lifeInfoPane.add(new Label(a.getName()), 1, row + 1);
-					lifeInfoPane.add(new Label("Species: "), 0, row + 2);
-					lifeInfoPane.add(new Label(a.getSpecies()), 1, row + 2);
-					lifeInfoPane.add(new Label("Coordinates: "), 0, row + 3);
-					lifeInfoPane.add(new Label((a.getX() + 1) + ", " + (a.getY() + 1)), 1, row + 3);
-					lifeInfoPane.add(new Label("Energy: "), 0, row + 4);
-					lifeInfoPane.add(new Label(String.valueOf(a.getEnergy())), 1, row + 4);
-					lifeInfoPane.add(new Label("Sensing Distance: "), 0, row + 5);
-					lifeInfoPane.add(new Label(String.valueOf(a.getSensingDistance())), 1, row + 5);
-					row += 9;
+			ChoiceDialog<ALifeForm> dialog = new ChoiceDialog<>();
+
+			dialog.getItems().addAll(getLivingLifeFormsLocked());
+
+			if (!dialog.getItems().isEmpty()) {
+				DialogPane dPane = dialog.getDialogPane();
+
+				Stage dStage = (Stage) dPane.getScene().getWindow();
+				dStage.getIcons().add(new Image("file:resources/images/invader.png"));
+
+				dialog.setTitle("Choose a LifeForm");
+				dialog.setHeaderText("Select a LifeForm to follow");
+				dialog.setContentText("Choose a LifeForm:");
+
+				Optional<ALifeForm> result = dialog.showAndWait();
+
+				if (result.isPresent()) {
+					showWorld();
+					simPane.follow(result.get().getID());
 				}
+			} else {
+				showAlert(AlertType.INFORMATION, "No LifeForms", "", "There are currently no LifeForms to follow");
 			}
 
-			infoPane.getChildren().clear();
-			infoPane.getChildren().add(lifeInfoPane);
-
 		});
 
-		viewWorldInfo.setOnAction((event) -> {
+		viewStopFollowing.setOnAction((event) -> {
 
-			Label title = new Label("World Information");
-			title.setId("header");
-			Label nameLabel = new Label("World Name: ");
-			nameLabel.setId("propertyID");
-			Label name = new Label(config.getFileName(false));
-			Label widthLabel = new Label("Map Width: ");
-			widthLabel.setId("propertyID");
-			Label width = new Label(config.getProperty("mapWidth"));
-			Label heightLabel = new Label("Map Height: ");
-			heightLabel.setId("propertyID");
-			Label height = new Label(config.getProperty("mapHeight"));
-			Label lifeLabel = new Label("LifeForm Count: ");
-			lifeLabel.setId("propertyID");
-			Label life = new Label(String.valueOf(world.getLifeFormList().size()));
-			Label foodLabel = new Label("Food Count: ");
-			foodLabel.setId("propertyID");
-			Label food = new Label(String.valueOf(world.getFoodList().size()));
-			Label obstacleLabel = new Label("Obstacle Count: ");
-			obstacleLabel.setId("propertyID");
-			Label obstacle = new Label(String.valueOf(world.getObstacleList().size()));
-
-			worldInfoPane.getChildren().clear();
-
-			worldInfoPane.add(title, 0, 0);
-			worldInfoPane.add(nameLabel, 0, 2);
-			worldInfoPane.add(name, 1, 2);
-			worldInfoPane.add(widthLabel, 0, 3);
-			worldInfoPane.add(width, 1, 3);
-			worldInfoPane.add(heightLabel, 0, 4);
-			worldInfoPane.add(height, 1, 4);
-			worldInfoPane.add(lifeLabel, 0, 5);
-			worldInfoPane.add(life, 1, 5);
-			worldInfoPane.add(foodLabel, 0, 6);
-			worldInfoPane.add(food, 1, 6);
-			worldInfoPane.add(obstacleLabel, 0, 7);
-			worldInfoPane.add(obstacle, 1, 7);
-
-			infoPane.getChildren().clear();
-			infoPane.getChildren().add(worldInfoPane);
+			simPane.stopFollowing();
 
 		});
 
-		viewWorld.setOnAction((event) -> {
+		viewResetZoom.setOnAction((event) -> {
 
-			showWorld();
+			simPane.resetView();
 
 		});
 
 		simPlay.setOnAction((event) -> {
 
-			if (timeline == null) {
+			if (scheduler == null) {
 				runSimulation();
 			} else {
-				if (timeline.getStatus() == Animation.Status.PAUSED
-						|| timeline.getStatus() == Animation.Status.STOPPED) {
-					timeline.play();
+				if (scheduler.getStatus() == SimulationScheduler.Status.PAUSED
+						|| scheduler.getStatus() == SimulationScheduler.Status.STOPPED) {
+					scheduler.play();
 					playing = true;
-				} else if (timeline.getStatus() == Animation.Status.RUNNING) {
-					timeline.pause();
+				} else if (scheduler.getStatus() == SimulationScheduler.Status.RUNNING) {
+					scheduler.pause();
 				}
 			}
 
@@ -821,12 +813,12 @@ public class MainScreen extends Application {
 
 		simPause.setOnAction((event) -> {
 
-			if (timeline != null) {
-				if (timeline.getStatus() == Animation.Status.PAUSED) {
-					timeline.play();
+			if (scheduler != null) {
+				if (scheduler.getStatus() == SimulationScheduler.Status.PAUSED) {
+					scheduler.play();
 					playing = true;
-				} else if (timeline.getStatus() == Animation.Status.RUNNING) {
-					timeline.pause();
+				} else if (scheduler.getStatus() == SimulationScheduler.Status.RUNNING) {
+					scheduler.pause();
 					playing = false;
 				}
 			}
@@ -835,13 +827,14 @@ public class MainScreen extends Application {
 
 		simRewind.setOnAction((event) -> {
 			if (playing) {
-				timeline.stop();
+				scheduler.stop();
 				playing = false;
 			}
-			timeline = null;
+			scheduler = null;
 
 			world.clearMap();
 			clearSimPane();
+			world.resetRandom();
 
 			for (ALifeForm a : world.getLifeFormList()) {
 				ALifeForm temp = (ALifeForm) a.getInitialLifeForm();
@@ -851,6 +844,7 @@ public class MainScreen extends Application {
 				a.setPoison(temp.getPoison());
 				a.setAlive(temp.isAlive());
 				a.setTimer(0);
+				a.resetRandom();
 				world.placeLifeForm(a);
 			}
 
@@ -862,23 +856,25 @@ public class MainScreen extends Application {
 			world.placeObstacles(false);
 
 			updateInfoPane();
-			if (worldContainers != null) {
+			if (worldShown) {
 				showWorld();
 			}
 		});
 
 		simReset.setOnAction((event) -> {
 			if (playing) {
-				timeline.stop();
+				scheduler.stop();
 				playing = false;
 			}
-			timeline = null;
+			scheduler = null;
 
 			world.clearMap();
 
 			for (ALifeForm a : world.getLifeFormList()) {
-				a.setY((int) Math.round(Math.random() * (world.getHeight() - 1)));
-				a.setX((int) Math.round(Math.random() * (world.getWidth() - 1)));
+				// Off the map, so that placeLifeForm picks an empty map space
+				// uniformly at random.
+				a.setY(-1);
+				a.setX(-1);
 				a.setEnergy(a.getInitialLifeForm().getEnergy());
 				a.setPoison(a.getInitialLifeForm().getPoison());
 				a.isAlive();
@@ -891,7 +887,7 @@ public class MainScreen extends Application {
 			world.placeObstacles(true);
 
 			updateInfoPane();
-			if (worldContainers != null) {
+			if (worldShown) {
 				showWorld();
 			}
 
@@ -918,16 +914,22 @@ public class MainScreen extends Application {
 
 		});
 
+		speedSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+			if (scheduler != null) {
+				scheduler.setCyclesPerSecond(newValue.doubleValue());
+			}
+		});
+
 		playPauseButton.setOnAction((event) -> {
 
-			if (timeline == null) {
+			if (scheduler == null) {
 				runSimulation();
-			} else if (timeline.getStatus() == Animation.Status.RUNNING) {
-				timeline.pause();
+			} else if (scheduler.getStatus() == SimulationScheduler.Status.RUNNING) {
+				scheduler.pause();
 				playing = false;
-			} else if (timeline.getStatus() == Animation.Status.PAUSED
-					|| timeline.getStatus() == Animation.Status.STOPPED) {
-				timeline.play();
+			} else if (scheduler.getStatus() == SimulationScheduler.Status.PAUSED
+					|| scheduler.getStatus() == SimulationScheduler.Status.STOPPED) {
+				scheduler.play();
 				playing = true;
 			}
 
@@ -938,13 +940,14 @@ public class MainScreen extends Application {
 		{
 
 			if (playing) {
-				timeline.stop();
+				scheduler.stop();
 				playing = false;
 			}
-			timeline = null;
+			scheduler = null;
 
 			world.clearMap();
 			clearSimPane();
+			world.resetRandom();
 
 			for (ALifeForm a : world.getLifeFormList()) {
 				ALifeForm temp = (ALifeForm) a.getInitialLifeForm();
@@ -954,6 +957,7 @@ public class MainScreen extends Application {
 				a.setPoison(temp.getPoison());
 				a.setAlive(temp.isAlive());
 				a.setTimer(0);
+				a.resetRandom();
 				world.placeLifeForm(a);
 			}
 
@@ -965,7 +969,7 @@ public class MainScreen extends Application {
 			world.placeObstacles(false);
 
 			updateInfoPane();
-			if (worldContainers != null) {
+			if (worldShown) {
 				showWorld();
 			}
 
@@ -976,16 +980,18 @@ public class MainScreen extends Application {
 		{
 
 			if (playing) {
-				timeline.stop();
+				scheduler.stop();
 				playing = false;
 			}
-			timeline = null;
+			scheduler = null;
 
 			world.clearMap();
 
 			for (ALifeForm a : world.getLifeFormList()) {
-				a.setY((int) Math.round(Math.random() * (world.getHeight() - 1)));
-				a.setX((int) Math.round(Math.random() * (world.getWidth() - 1)));
+				// Off the map, so that placeLifeForm picks an empty map space
+				// uniformly at random.
+				a.setY(-1);
+				a.setX(-1);
 				a.setEnergy(a.getInitialLifeForm().getEnergy());
 				a.setPoison(a.getInitialLifeForm().getPoison());
 				a.isAlive();
@@ -998,7 +1004,7 @@ public class MainScreen extends Application {
 			world.placeObstacles(true);
 
 			updateInfoPane();
-			if (worldContainers != null) {
+			if (worldShown) {
 				showWorld();
 			}
 
@@ -1009,16 +1015,9 @@ public class MainScreen extends Application {
 		addLifeButton.setOnAction((event) ->
 
 		{
-			boolean mapFull = true;
-			for (AWorldObject[] mapY : world.getMap()) {
-				for (AWorldObject mapX : mapY) {
-					if (!(mapX instanceof ALifeForm)) {
-						mapFull = false;
-					}
-				}
-			}
+			boolean resume = pauseForEdit();
 
-			if (mapFull) {
+			if (world.isFull()) {
 
 				showAlert(AlertType.WARNING, "World Full", "The world is to full to add a bug",
 						"To add a new bug either remove an existing one or increase the world dimensions");
@@ -1026,7 +1025,7 @@ public class MainScreen extends Application {
 			} else {
 
 				ALifeForm lf;
-				int id = world.getLifeFormList().size() + 1;
+				int id = world.nextLifeFormId();
 
 				if (addLifeTypeCombo.getValue().equalsIgnoreCase("Herbivore")) {
 					lf = new AHerbivore(world, "LF " + id, 10, id);
@@ -1034,13 +1033,13 @@ public class MainScreen extends Application {
 					lf = new ACarnivore(world, "LF " + id, 10, id);
 				}
 
-				world.getLifeFormList().add(lf);
+				world.addLifeForm(lf);
 
 				world.placeLifeForm(lf);
 
 				world.save();
 
-				if (worldContainers != null) {
+				if (worldShown) {
 					showWorld();
 				}
 
@@ -1048,18 +1047,20 @@ public class MainScreen extends Application {
 
 			}
 
+			resumeAfterEdit(resume);
+
 		});
 
 		removeLifeButton.setOnAction((event) ->
 
 		{
-			ALifeForm lf = world.getLifeFormList().get(world.getLifeFormList().size() - 1);
+			boolean resume = pauseForEdit();
 
-			world.setMapValue(null, lf.getY(), lf.getX());
+			ALifeForm lf = world.getLifeFormList().get(world.getLifeFormList().size() - 1);
 
-			world.getLifeFormList().remove(lf);
+			world.removeLifeForm(lf);
 
-			if (worldContainers != null) {
+			if (worldShown) {
 				showWorld();
 			}
 
@@ -1067,136 +1068,61 @@ public class MainScreen extends Application {
 
 			updateInfoPane();
 
+			resumeAfterEdit(resume);
+
 		});
 
 	}
 
 	/**
-	 * Runs the simulation by initialising a timeline with a KeyFrame that
-	 * contains all the logic to run each cycle of the program.
+	 * Pauses the simulation, if it is running, before the world is changed by
+	 * hand or saved. The scheduler's worker only changes the world while it
+	 * holds the engine's lock, and pausing waits for it to let go and settles
+	 * the engine, so the world can then be changed or saved on the JavaFX
+	 * application thread.
+	 * 
+	 * @return true if the simulation was running and should be played again
+	 *         once the change has been made.
+	 * @see #resumeAfterEdit(boolean)
 	 */
-	private void runSimulation() {
-		timeline = new Timeline();
-		timeline.setCycleCount(Integer.parseInt(config.getProperty("cycles")));
-		timeline.setAutoReverse(false);
-		timeline.rateProperty().bind(speedSlider.valueProperty());
-
-		showWorld();
-
-		KeyFrame frame = new KeyFrame(Duration.millis(1000), (event) -> {
-
-			AWorldObject senseResult = null;
-			Direction d = null;
-			int energyGained = 0;
-
-			for (ALifeForm a : world.getLifeFormList()) {
-
-				senseResult = null;
-				d = null;
-				energyGained = 0;
-
-				// Only continues if the object is not dead.
-				if (a.isAlive()) {
-					boolean moved = false;
-					// If the timer is greater than 0 the LifeForm will not
-					// move.
-					if (a.getTimer() == 0) {
-						do {
-							// Gets the direction to move the LifeForm.
-							d = a.sense();
-							if (d != null) {
-								// Moves the bug and gets the object on to which
-								// the LifeForm can move.
-								senseResult = a.move(d);
-								if (senseResult != null) {
-									if (a instanceof ACarnivore) {
-										if (senseResult instanceof AHerbivore) {
-											AHerbivore food = (AHerbivore) senseResult;
-											energyGained = (int) Math.ceil(food.getEnergy() / 2);
-											a.setEnergy(a.getEnergy() + 2 + energyGained);
-											a.setPoison(a.getPoison() + food.getPoison());
-											food.setEnergy(0);
-											food.setAlive(false);
-											moved = true;
-										}
-									} else if (a instanceof AHerbivore) {
-										if (senseResult instanceof AFood) {
-											AFood food = (AFood) senseResult;
-											if (food.isPoisonous()) {
-												energyGained = food.getValue() / 3;
-												a.setEnergy(a.getEnergy() + energyGained);
-												a.setPoison(a.getPoison() + food.getValue());
-
-												food.setTimer(18 + (int) (food.getValue() * Math.random()));
-											} else {
-												energyGained = food.getValue();
-												a.setEnergy(a.getEnergy() + energyGained);
-
-												food.setTimer(9 + (int) (food.getValue() * Math.random()));
-											}
-											moved = true;
-										}
-									}
-								} else {
-									moved = true;
-								}
-							} else {
-								break;
-							}
-
-						} while (!moved);
-
-						a.setEnergy(a.getEnergy() - 1);
-
-						if (energyGained > 0) {
-							a.setTimer((int) Math.ceil(energyGained / 2) + 1);
-						}
-
-						if (a.getEnergy() <= 0) {
-							a.setAlive(false);
-						}
-
-					} else {
-						a.decrementTimer();
-					}
-
-					if (a.getPoison() > 0 && a.isAlive()) {
-						a.setEnergy(a.getEnergy() - 1);
-						a.setPoison(a.getPoison() - 1);
-					}
-
-				}
-			}
-
-			for (AWorldObject a : world.getFoodList()) {
-				AWorldObject[][] map = world.getMap();
-				if (a.getTimer() > 0) {
-					if (map[a.getY()][a.getX()] == null) {
-						a.decrementTimer();
-					} else if (map[a.getY()][a.getX()] instanceof ALifeForm) {
-						if (map[a.getY()][a.getX()].getTimer() == 0) {
-							a.decrementTimer();
-						}
-					}
-				}
-			}
+	private boolean pauseForEdit() {
+		if (scheduler != null && scheduler.getStatus() == SimulationScheduler.Status.RUNNING) {
+			scheduler.pause();
+			playing = false;
+			return true;
+		}
+		return false;
+	}
 
-			world.placeFood(false);
+	/**
+	 * Plays the simulation again after the world has been changed by hand.
+	 * 
+	 * @param resume
+	 *            - true if the simulation was running before the change, as
+	 *            returned by {@link #pauseForEdit()}.
+	 */
+	private void resumeAfterEdit(boolean resume) {
+		if (resume) {
+			scheduler.play();
+			playing = true;
+		}
+	}
 
-			updateInfoPane();
+	/**
+	 * Runs the simulation by starting a scheduler which advances a simulation
+	 * engine on its own thread at the rate set by the speed slider. The world
+	 * is displayed separately by the render timer.
+	 */
+	private void runSimulation() {
+		SimulationEngine engine = new SimulationEngine(world);
+		engine.setParallel(Boolean.parseBoolean(config.getProperty("parallel")));
+		scheduler = new SimulationScheduler(engine, Integer.parseInt(config.getProperty("cycles")),
+				speedSlider.getValue());
+		renderedCycle = 0;
 
-			boolean displayIterations = Boolean.parseBoolean(config.getProperty("displayIterations"));
-			if (displayIterations) {
-				showWorld();
-			}
+		showWorld();
 
-		});
-
-		timeline.getKeyFrames().add(frame);
-		timeline.play();
-		playing = true;
-		saved = false;
-		timeline.setOnFinished((event) ->
+		scheduler.setOnFinished(() ->
 
 		{
 
@@ -1209,101 +1135,242 @@ public class MainScreen extends Application {
 			});
 
 		});
+		scheduler.play();
+		playing = true;
+		saved = false;
 
 	}
 
-	private void showWorld() {
-		clearSimPane();
-
-		worldContainers = new VBox[world.getHeight()][world.getWidth()];
-		AWorldObject[][] map = world.getMap();
-
-		int height = Integer.parseInt(config.getProperty("mapHeight"));
-		int width = Integer.parseInt(config.getProperty("mapWidth"));
-
-		for (int y = 0; y < height; y++) {
-			RowConstraints row = new RowConstraints();
-			row.setMinHeight(10);
-			row.setPrefHeight(100);
-			row.setMaxHeight(1000);
-			row.setVgrow(Priority.ALWAYS);
-			simPane.getRowConstraints().add(row);
-		}
-
-		for (int x = 0; x < width; x++) {
-			ColumnConstraints col = new ColumnConstraints();
-			col.setMinWidth(10);
-			col.setPrefWidth(100);
-			col.setMaxWidth(1000);
-			col.setHgrow(Priority.ALWAYS);
-			simPane.getColumnConstraints().add(col);
-		}
-
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				worldContainers[y][x] = new VBox();
-				worldContainers[y][x].setAlignment(Pos.CENTER);
-				if (map[y][x] != null) {
-					if (map[y][x] instanceof ALifeForm) {
-						if (((ALifeForm) map[y][x]).isAlive()) {
-							ImageView img = new ImageView(new Image(map[y][x].getSymbol()));
-							worldContainers[y][x].getChildren().add(img);
-							worldContainers[y][x].setAlignment(Pos.CENTER);
-							img.setFitHeight(50);
-							img.setFitWidth(50);
-							img.fitHeightProperty().bind(worldContainers[y][x].heightProperty());
-							img.fitWidthProperty().bind(worldContainers[y][x].widthProperty());
-							worldContainers[y][x].setMinHeight(Double.MIN_VALUE);
-							worldContainers[y][x].setMinWidth(Double.MIN_VALUE);
-							worldContainers[y][x].setMaxHeight(Double.MAX_VALUE);
-							worldContainers[y][x].setMaxWidth(Double.MAX_VALUE);
-							simPane.add(worldContainers[y][x], x, y);
-						}
-					} else {
-						ImageView img = new ImageView(new Image(map[y][x].getSymbol()));
-						worldContainers[y][x].getChildren().add(img);
-						worldContainers[y][x].setAlignment(Pos.CENTER);
-						img.setFitHeight(50);
-						img.setFitWidth(50);
-						img.fitHeightProperty().bind(worldContainers[y][x].heightProperty());
-						img.fitWidthProperty().bind(worldContainers[y][x].widthProperty());
-						worldContainers[y][x].setMinHeight(Double.MIN_VALUE);
-						worldContainers[y][x].setMinWidth(Double.MIN_VALUE);
-						worldContainers[y][x].setMaxHeight(Double.MAX_VALUE);
-						worldContainers[y][x].setMaxWidth(Double.MAX_VALUE);
-						simPane.add(worldContainers[y][x], x, y);
+	/**
+	 * Displays the latest state of the running simulation. Called once per
+	 * frame by the render timer, the world is only redrawn if the simulation
+	 * has completed a cycle since it was last displayed. Only copying the
+	 * frame and the information pane's information holds the simulation's
+	 * lock; they are drawn after it is released.
+	 */
+	private void renderLatest() {
+		if (scheduler != null) {
+			SimulationEngine engine = scheduler.getEngine();
+			long cycle = engine.getCycle();
+			if (cycle != renderedCycle) {
+				boolean displayIterations = Boolean.parseBoolean(config.getProperty("displayIterations"));
+				synchronized (engine) {
+					engine.settle();
+					copyInfo();
+					if (displayIterations) {
+						simPane.prepare(world);
 					}
-
 				}
-
+				refreshInfoPane();
+				if (displayIterations) {
+					simPane.paint();
+					worldShown = true;
+				}
+				renderedCycle = cycle;
 			}
 		}
+	}
 
+	/**
+	 * Draws the parts of the map which have changed since it was last shown.
+	 * The map is copied while holding the running simulation's lock, so the
+	 * simulation cannot change it part way through, and drawn after the lock
+	 * is released.
+	 */
+	private void showWorld() {
+		if (scheduler != null) {
+			synchronized (scheduler.getEngine()) {
+				simPane.prepare(world);
+			}
+		} else {
+			simPane.prepare(world);
+		}
+		simPane.paint();
+		worldShown = true;
 	}
 
 	private void clearSimPane() {
 		if (simPane != null) {
-			if (!simPane.getChildren().isEmpty()) {
-				simPane.getRowConstraints().clear();
-				simPane.getColumnConstraints().clear();
-				simPane.getChildren().clear();
-			}
+			simPane.clear();
 		}
+		worldShown = false;
 	}
 
 	private void updateInfoPane() {
+		copyInfoLocked();
+		refreshInfoPane();
+	}
+
+	/**
+	 * Shows the information pane's information last copied from the world in
+	 * whichever pane is open.
+	 */
+	private void refreshInfoPane() {
 		if (infoPane.getChildren().size() > 0) {
 			if (infoPane.getChildren().get(infoPane.getChildren().size() - 1).equals(configInfoPane)) {
 				clearInfoPane();
 				viewConfig.fire();
 			} else if (infoPane.getChildren().get(infoPane.getChildren().size() - 1).equals(lifeInfoPane)) {
 				clearInfoPane();
-				viewLife.fire();
+				showLifeInfo();
 			} else if (infoPane.getChildren().get(infoPane.getChildren().size() - 1).equals(worldInfoPane)) {
 				clearInfoPane();
-				viewWorldInfo.fire();
+				showWorldInfo();
+			}
+		}
+	}
+
+	/**
+	 * Shows the LifeForm information last copied from the world in the
+	 * information pane.
+	 */
+	private void showLifeInfo() {
+		lifeInfoPane.getChildren().clear();
+
+		Label title = new Label("LifeForm Information");
+		title.setId("header");
+
+		lifeInfoPane.add(title, 0, 0);
+
+		int row = 2;
+
+		if (lifeFormInfo.isEmpty()) {
+			lifeInfoPane.add(new Label("There are no LifeForms to display."), 0, 2);
+		} else {
+
+			for (String[] a : lifeFormInfo) {
+				Label id = new Label(a[0]);
+				id.setId("propertyID");
+
+				lifeInfoPane.add(id, 0, row);
+				lifeInfoPane.add(new Label("Name: "), 0, row + 1);
+				lifeInfoPane.add(new Label(a[1]), 1, row + 1);
+				lifeInfoPane.add(new Label("Species: "), 0, row + 2);
+				lifeInfoPane.add(new Label(a[2]), 1, row + 2);
+				lifeInfoPane.add(new Label("Coordinates: "), 0, row + 3);
+				lifeInfoPane.add(new Label(a[3]), 1, row + 3);
+				lifeInfoPane.add(new Label("Energy: "), 0, row + 4);
+				lifeInfoPane.add(new Label(a[4]), 1, row + 4);
+				lifeInfoPane.add(new Label("Sensing Distance: "), 0, row + 5);
+				lifeInfoPane.add(new Label(a[5]), 1, row + 5);
+				row += 9;
+			}
+		}
+
+		infoPane.getChildren().clear();
+		infoPane.getChildren().add(lifeInfoPane);
+	}
+
+	/**
+	 * Shows the world information last copied from the world in the
+	 * information pane.
+	 */
+	private void showWorldInfo() {
+		Label title = new Label("World Information");
+		title.setId("header");
+		Label nameLabel = new Label("World Name: ");
+		nameLabel.setId("propertyID");
+		Label name = new Label(config.getFileName(false));
+		Label widthLabel = new Label("Map Width: ");
+		widthLabel.setId("propertyID");
+		Label width = new Label(config.getProperty("mapWidth"));
+		Label heightLabel = new Label("Map Height: ");
+		heightLabel.setId("propertyID");
+		Label height = new Label(config.getProperty("mapHeight"));
+		Label lifeLabel = new Label("LifeForm Count: ");
+		lifeLabel.setId("propertyID");
+		Label life = new Label(String.valueOf(lifeFormCount));
+		Label foodLabel = new Label("Food Count: ");
+		foodLabel.setId("propertyID");
+		Label food = new Label(String.valueOf(foodCount));
+		Label obstacleLabel = new Label("Obstacle Count: ");
+		obstacleLabel.setId("propertyID");
+		Label obstacle = new Label(String.valueOf(obstacleCount));
+		Label spriteLabel = new Label("Sprite Cache: ");
+		spriteLabel.setId("propertyID");
+		SpriteAtlas atlas = SpriteAtlas.get();
+		Label sprite = new Label(atlas.getHits() + " hits, " + atlas.getMisses() + " misses");
+
+		worldInfoPane.getChildren().clear();
+
+		worldInfoPane.add(title, 0, 0);
+		worldInfoPane.add(nameLabel, 0, 2);
+		worldInfoPane.add(name, 1, 2);
+		worldInfoPane.add(widthLabel, 0, 3);
+		worldInfoPane.add(width, 1, 3);
+		worldInfoPane.add(heightLabel, 0, 4);
+		worldInfoPane.add(height, 1, 4);
+		worldInfoPane.add(lifeLabel, 0, 5);
+		worldInfoPane.add(life, 1, 5);
+		worldInfoPane.add(foodLabel, 0, 6);
+		worldInfoPane.add(food, 1, 6);
+		worldInfoPane.add(obstacleLabel, 0, 7);
+		worldInfoPane.add(obstacle, 1, 7);
+		worldInfoPane.add(spriteLabel, 0, 8);
+		worldInfoPane.add(sprite, 1, 8);
+
+		infoPane.getChildren().clear();
+		infoPane.getChildren().add(worldInfoPane);
+	}
+
+	/**
+	 * Copies the counts and LifeForm information shown in the information pane
+	 * from the world. The world must not be changed while it is being copied.
+	 */
+	private void copyInfo() {
+		lifeFormCount = world.getLifeFormList().size();
+		foodCount = world.getFoodList().size();
+		obstacleCount = world.getObstacleList().size();
+		lifeFormInfo.clear();
+		for (ALifeForm a : world.getLifeFormList()) {
+			String id = "#" + String.valueOf(a.getID());
+			if (!a.isAlive()) {
+				id += " (Dead)";
+			} else if (a.getPoison() > 0) {
+				id += " (Poisoned)";
+			}
+			lifeFormInfo.add(new String[] { id, a.getName(), a.getSpecies(), (a.getX() + 1) + ", " + (a.getY() + 1),
+					String.valueOf(a.getEnergy()), String.valueOf(a.getSensingDistance()) });
+		}
+	}
+
+	/**
+	 * Copies the information pane's information from the world while holding
+	 * the running simulation's lock.
+	 */
+	private void copyInfoLocked() {
+		if (scheduler != null) {
+			synchronized (scheduler.getEngine()) {
+				copyInfo();
+			}
+		} else {
+			copyInfo();
+		}
+	}
+
+	/**
+	 * Lists the living LifeForms while holding the running simulation's lock,
+	 * so the simulation cannot kill or remove any while they are listed.
+	 * 
+	 * @return the LifeForms which are alive.
+	 */
+	private List<ALifeForm> getLivingLifeFormsLocked() {
+		if (scheduler != null) {
+			synchronized (scheduler.getEngine()) {
+				return getLivingLifeForms();
+			}
+		}
+		return getLivingLifeForms();
+	}
+
+	private List<ALifeForm> getLivingLifeForms() {
+		List<ALifeForm> living = new ArrayList<>();
+		for (ALifeForm a : world.getLifeFormList()) {
+			if (a.isAlive()) {
+				living.add(a);
 			}
 		}
+		return living;
 	}
 
 	private void clearInfoPane() {
@@ -1958,12 +2025,12 @@ public class MainScreen extends Application {
 					resetResult = showAlert(AlertType.CONFIRMATION, "Simulation Reset", "",
 							"These changes will cause the simulation to stop and reset.\nDo you wish to continue?");
 					if (resetResult.get().getButtonData() == ButtonData.OK_DONE) {
-						timeline.stop();
-						timeline = null;
+						scheduler.stop();
+						scheduler = null;
 						playing = false;
 					}
-				} else if (timeline != null) {
-					timeline = null;
+				} else if (scheduler != null) {
+					scheduler = null;
 				}
 
 				if (resetResult == null || resetResult.get().getButtonData() == ButtonData.OK_DONE) {
@@ -2010,7 +2077,7 @@ public class MainScreen extends Application {
 						world.placeObstacles(true);
 						world.save();
 
-						if (worldContainers != null) {
+						if (worldShown) {
 							showWorld();
 						}
 					}
@@ -2194,7 +2261,7 @@ public class MainScreen extends Application {
 						if (lf != null) {
 							id = lf.getID();
 						} else {
-							id = world.getLifeFormList().size() + 1;
+							id = world.nextLifeFormId();
 						}
 
 						if (species.getValue().equalsIgnoreCase("Herbivore")) {
@@ -2218,17 +2285,14 @@ public class MainScreen extends Application {
 			if (lf != null) {
 				result.get().setY(lf.getY());
 				result.get().setX(lf.getX());
-				world.getLifeFormList().set(lf.getID() - 1, result.get());
+				world.getLifeFormList().set(world.getLifeFormList().indexOf(lf), result.get());
 				world.setMapValue(null, lf.getY(), lf.getX());
 			} else {
-				world.getLifeFormList().add(result.get());
+				world.addLifeForm(result.get());
 			}
 			world.placeLifeForm(result.get());
-			if (worldContainers != null
-					&& !worldContainers[result.get().getY()][result.get().getX()].getChildren().isEmpty()) {
-				worldContainers[result.get().getY()][result.get().getX()].getChildren().remove(0);
-				worldContainers[result.get().getY()][result.get().getX()].getChildren()
-						.add((new ImageView(new Image(result.get().getSymbol()))));
+			if (worldShown) {
+				showWorld();
 			}
 			world.save();
 		}
@@ -0,0 +1,154 @@
+package gui;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import artificialLifeSimulator.AWorldObject;
+import artificialLifeSimulator.WorldGrid;
+import javafx.scene.image.Image;
+import worldObjects.AFood;
+
+/**
+ * The images which represent world objects on the map, shared by every view
+ * of the map. The image of each kind of object is read from its file once,
+ * when the atlas is first used, and looked up by the type of the object
+ * rather than by its symbol. For each size the map is drawn at, a copy of
+ * the image scaled down to the next power of two pixels is made the first
+ * time it is needed and kept, so drawing a map space only ever copies an
+ * image which is already close to the size of the map space.
+ *
+ * The atlas counts how often an image was found already made (a hit) and
+ * how often one had to be read from its file (a miss). It is only used from
+ * the JavaFX application thread.
+ *
+ * @author Jed Brennen
+ * @see WorldCanvas
+ *
+ */
+public class SpriteAtlas {
+
+	// The largest number of scaled copies of an image, the last being 2^10
+	// pixels across.
+	private static final int LEVELS = 11;
+	private static SpriteAtlas shared;
+
+	// The images of food, obstacles, herbivores and carnivores, by their type
+	// in the grid, and of poisoned food.
+	private final Sprite[] byType = new Sprite[WorldGrid.CARNIVORE + 1];
+	private final Sprite poisonedFood;
+	// The images of any other objects, by their symbol.
+	private final Map<String, Sprite> others = new HashMap<>();
+	private long hits, misses;
+
+	private SpriteAtlas() {
+		byType[WorldGrid.FOOD] = load("file:resources/images/food.png");
+		byType[WorldGrid.OBSTACLE] = load("file:resources/images/obstacle.png");
+		byType[WorldGrid.HERBIVORE] = load("file:resources/images/herbivore.png");
+		byType[WorldGrid.CARNIVORE] = load("file:resources/images/carnivore.png");
+		poisonedFood = load("file:resources/images/poisonedFood.png");
+	}
+
+	/**
+	 * @return the atlas shared by every view, loading its images the first
+	 *         time it is used.
+	 */
+	public static SpriteAtlas get() {
+		if (shared == null) {
+			shared = new SpriteAtlas();
+		}
+		return shared;
+	}
+
+	/**
+	 * @param object
+	 *            - a world object.
+	 * @return the sprite which represents the object on the map.
+	 */
+	public Sprite getSprite(AWorldObject object) {
+		Sprite sprite;
+		if (object instanceof AFood && ((AFood) object).isPoisonous()) {
+			sprite = poisonedFood;
+		} else {
+			sprite = byType[WorldGrid.typeOf(object)];
+		}
+		if (sprite != null && sprite.url.equals(object.getSymbol())) {
+			return sprite;
+		}
+		// An object whose symbol is not the usual one for its type.
+		sprite = others.get(object.getSymbol());
+		if (sprite == null) {
+			sprite = load(object.getSymbol());
+			others.put(object.getSymbol(), sprite);
+		}
+		return sprite;
+	}
+
+	/**
+	 * @param sprite
+	 *            - a sprite from this atlas.
+	 * @param size
+	 *            - the width or height, whichever is greater, in pixels, of
+	 *            the map spaces the sprite will be drawn in.
+	 * @return the sprite's image scaled to the smallest power of two pixels
+	 *         which is at least the given size, or its full size image if that
+	 *         is smaller.
+	 */
+	public Image getImage(Sprite sprite, double size) {
+		int level = 0;
+		while (level < LEVELS - 1 && (1 << level) < size) {
+			level++;
+		}
+		if ((1 << level) >= sprite.full.getWidth() && (1 << level) >= sprite.full.getHeight()) {
+			hits++;
+			return sprite.full;
+		}
+		Image image = sprite.levels[level];
+		if (image == null) {
+			misses++;
+			image = new Image(sprite.url, 1 << level, 1 << level, false, true);
+			sprite.levels[level] = image;
+		} else {
+			hits++;
+		}
+		return image;
+	}
+
+	/**
+	 * @return the number of images which were found already made.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of images which had to be read from their file,
+	 *         including the full size images.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	private Sprite load(String url) {
+		misses++;
+		return new Sprite(url);
+	}
+
+	/**
+	 * The image of one kind of world object, at full size and scaled to each
+	 * size it has been drawn at.
+	 *
+	 * @author Jed Brennen
+	 *
+	 */
+	public static class Sprite {
+
+		private final String url;
+		private final Image full;
+		private final Image[] levels = new Image[LEVELS];
+
+		private Sprite(String url) {
+			this.url = url;
+			full = new Image(url);
+		}
+	}
+}
@@ -0,0 +1,612 @@
+package gui;
+
+import java.util.Arrays;
+import java.util.List;
+
+import artificialLifeSimulator.AWorld;
+import artificialLifeSimulator.AWorldObject;
+import artificialLifeSimulator.ChangeSet;
+import artificialLifeSimulator.DensityPyramid;
+import artificialLifeSimulator.WorldGrid;
+import gui.SpriteAtlas.Sprite;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import worldObjects.ALifeForm;
+
+/**
+ * Displays a world's map by drawing the image of each occupied map space
+ * straight on to a canvas. The map is only ever a single node, so drawing it
+ * only grows with the number of objects drawn.
+ *
+ * The canvas is a camera over the map. At first the whole map is stretched to
+ * fill the pane; scrolling the mouse wheel zooms in and out around the mouse,
+ * dragging the map pans across it, and the camera can follow a LifeForm as it
+ * moves. Only the map spaces inside the camera's view are drawn. When the map
+ * spaces would be drawn smaller than a few pixels across, a single coloured
+ * pixel is drawn for each pixel of the canvas instead of an image for each
+ * map space. Once each pixel covers at least a whole block of the world's
+ * density pyramid, each pixel is coloured by how much of each type of object
+ * is in the block under it, making a heatmap of the map. Either way
+ * the work done for each frame is bounded by the size of the canvas however
+ * large the map is.
+ *
+ * The whole view is only drawn the first time a world is shown or when the
+ * view changes. After that the canvas subscribes to the world's change set
+ * and only the map spaces in view which have changed since the map was last
+ * drawn are drawn again. Each map space is drawn in a whole number of pixels
+ * so that drawing one does not touch its neighbours.
+ *
+ * Each frame is drawn in two steps. {@link #prepare(AWorld)} copies what the
+ * frame needs out of the world, and must be called while the world is held
+ * still. {@link #paint()} then draws the frame without looking at the world,
+ * so a running simulation only has to wait while the frame is copied.
+ *
+ * @author Jed Brennen
+ * @see ChangeSet
+ *
+ */
+public class WorldCanvas extends Pane {
+
+	// The smallest size, in pixels, at which map spaces are drawn with their
+	// images.
+	private static final double MIN_SPRITE_SIZE = 4;
+	// The largest size, in pixels, the camera can zoom map spaces to.
+	private static final double MAX_CELL_SIZE = 128;
+	// The size, in pixels, the camera zooms map spaces to when it starts
+	// following a LifeForm.
+	private static final double FOLLOW_CELL_SIZE = 32;
+	private static final double ZOOM_STEP = 1.25;
+	// How much more LifeForms count towards the colour of the heatmap than
+	// food and obstacles, so that they can be seen among the food.
+	private static final int LIFEFORM_WEIGHT = 16;
+	// The colours of the pixels drawn for each type of map space when map
+	// spaces are too small for their images, with empty map spaces left clear.
+	private static final int[] COLOURS = new int[WorldGrid.CARNIVORE + 1];
+
+	static {
+		COLOURS[WorldGrid.FOOD] = 0xFFE8C547;
+		COLOURS[WorldGrid.OBSTACLE] = 0xFF6B6B6B;
+		COLOURS[WorldGrid.HERBIVORE] = 0xFF3F7FD9;
+		COLOURS[WorldGrid.CARNIVORE] = 0xFFD9423F;
+	}
+
+	private final Canvas canvas = new Canvas();
+	private final SpriteAtlas atlas = SpriteAtlas.get();
+	private final ChangeSet.Subscriber subscriber = this::changed;
+	private AWorld world;
+	private ChangeSet changes;
+	private Runnable onViewChanged;
+	// The camera: how many times larger than the whole map fitting the pane
+	// the map is drawn, and the map position at the top left of the view.
+	private double zoom = 1, viewX, viewY;
+	private int followed;
+	private double dragX, dragY;
+	// The view as it was last drawn.
+	private double paintedWidth, paintedHeight, scaleX, scaleY;
+	private int firstRow, lastRow, firstColumn, lastColumn;
+	private boolean overview;
+	private WritableImage overviewImage;
+	private int[] overviewPixels = new int[0], overviewColumns = new int[0];
+	// The map spaces changed since the map was last drawn, handed on by the
+	// simulation's thread.
+	private final Object pendingLock = new Object();
+	private int mapWidth, mapHeight;
+	private long[] pending = new long[16];
+	private int pendingCount;
+	private boolean repaintAll;
+	// The frame copied from the world by prepare(), waiting to be painted:
+	// whether the whole view is painted, and the map spaces to paint with
+	// their sprites, or null to leave them clear.
+	private boolean framePrepared, frameAll;
+	private long[] frameCells = new long[16];
+	private Sprite[] frameSprites = new Sprite[16];
+	private int frameCount;
+
+	/**
+	 * An empty pane for displaying a world.
+	 */
+	public WorldCanvas() {
+		// The canvas follows the size of the pane rather than setting it.
+		canvas.setManaged(false);
+		getChildren().add(canvas);
+		widthProperty().addListener((observable, oldValue, newValue) -> viewChanged());
+		heightProperty().addListener((observable, oldValue, newValue) -> viewChanged());
+
+		setOnScroll(event -> {
+			if (event.getDeltaY() != 0) {
+				zoomAt(event.getX(), event.getY(), event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP);
+			}
+		});
+		setOnMousePressed(event -> {
+			dragX = event.getX();
+			dragY = event.getY();
+		});
+		setOnMouseDragged(event -> {
+			if (event.isPrimaryButtonDown() && mapWidth > 0 && mapHeight > 0 && canvas.getWidth() > 0
+					&& canvas.getHeight() > 0) {
+				followed = 0;
+				moveTo(viewX - (event.getX() - dragX) / (fitX() * zoom),
+						viewY - (event.getY() - dragY) / (fitY() * zoom));
+				dragX = event.getX();
+				dragY = event.getY();
+			}
+		});
+	}
+
+	/**
+	 * @param onViewChanged
+	 *            - called on the JavaFX application thread whenever the view
+	 *            is zoomed, panned or resized, and should draw the world
+	 *            again.
+	 */
+	public void setOnViewChanged(Runnable onViewChanged) {
+		this.onViewChanged = onViewChanged;
+	}
+
+	/**
+	 * Draws the parts of the world in view which have changed since it was
+	 * last drawn, or the whole view if it has not been drawn before or the view
+	 * has changed. Only LifeForms which are alive are drawn. The world must
+	 * not be changed while it is being drawn.
+	 *
+	 * @param world
+	 *            - the world to draw.
+	 */
+	public void draw(AWorld world) {
+		prepare(world);
+		paint();
+	}
+
+	/**
+	 * Copies the next frame out of the world: the parts of the world in view
+	 * which have changed since it was last drawn, or the whole view if it has
+	 * not been drawn before or the view has changed. Only LifeForms which are
+	 * alive are drawn. The world must not be changed while the frame is being
+	 * copied, but may change again before it is painted.
+	 *
+	 * @param world
+	 *            - the world to draw.
+	 * @see #paint()
+	 */
+	public void prepare(AWorld world) {
+		if (world != this.world) {
+			unsubscribe();
+			this.world = world;
+			changes = world.getChangeSet();
+			changes.addSubscriber(subscriber);
+		}
+		// Hands on any changes made outside of the simulation.
+		world.publishChanges();
+		layoutChildren();
+		long[] cells;
+		int count;
+		boolean all;
+		synchronized (pendingLock) {
+			all = repaintAll || world.getWidth() != mapWidth || world.getHeight() != mapHeight
+					|| canvas.getWidth() != paintedWidth || canvas.getHeight() != paintedHeight;
+			if (world.getWidth() != mapWidth || world.getHeight() != mapHeight) {
+				mapWidth = world.getWidth();
+				mapHeight = world.getHeight();
+				zoom = 1;
+				viewX = 0;
+				viewY = 0;
+				followed = 0;
+			}
+			cells = pending;
+			count = all ? 0 : pendingCount;
+			repaintAll = false;
+			pendingCount = 0;
+		}
+		if (follow()) {
+			all = true;
+		}
+		frameCount = 0;
+		framePrepared = true;
+		frameAll = all || overview;
+		if (frameAll) {
+			prepareView();
+			return;
+		}
+		WorldGrid grid = world.getGrid();
+		for (int i = 0; i < count; i++) {
+			int y = (int) (cells[i] / mapWidth), x = (int) (cells[i] % mapWidth);
+			if (y >= firstRow && y < lastRow && x >= firstColumn && x < lastColumn) {
+				addToFrame(cells[i], spriteOf(grid.get(y, x)));
+			}
+		}
+	}
+
+	/**
+	 * Paints the frame last copied out of the world, without looking at the
+	 * world. Does nothing if no frame has been copied since the last was
+	 * painted.
+	 *
+	 * @see #prepare(AWorld)
+	 */
+	public void paint() {
+		if (!framePrepared) {
+			return;
+		}
+		framePrepared = false;
+		GraphicsContext g = canvas.getGraphicsContext2D();
+		if (frameAll) {
+			g.clearRect(0, 0, paintedWidth, paintedHeight);
+		}
+		if (overview) {
+			int w = (int) paintedWidth, h = (int) paintedHeight;
+			if (w > 0 && h > 0) {
+				overviewImage.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(),
+						overviewPixels, 0, w);
+				g.drawImage(overviewImage, 0, 0);
+			}
+			return;
+		}
+		for (int i = 0; i < frameCount; i++) {
+			int y = (int) (frameCells[i] / mapWidth), x = (int) (frameCells[i] % mapWidth);
+			paint(g, y, x, frameSprites[i], !frameAll);
+		}
+	}
+
+	/**
+	 * Removes the map from the pane and stops following the world's changes.
+	 */
+	public void clear() {
+		unsubscribe();
+		world = null;
+		followed = 0;
+		canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+	}
+
+	/**
+	 * Keeps a LifeForm in the middle of the view as it moves, zooming in on it
+	 * if the whole map is in view, until the map is panned or the LifeForm
+	 * dies.
+	 *
+	 * @param id
+	 *            - the ID of the LifeForm to follow.
+	 */
+	public void follow(int id) {
+		followed = id;
+		if (zoom == 1 && mapWidth > 0 && mapHeight > 0 && canvas.getWidth() > 0 && canvas.getHeight() > 0) {
+			zoom = Math.max(1, Math.min(maxZoom(), FOLLOW_CELL_SIZE / Math.min(fitX(), fitY())));
+		}
+		viewChanged();
+	}
+
+	/**
+	 * Stops following a LifeForm, leaving the view where it is.
+	 */
+	public void stopFollowing() {
+		followed = 0;
+	}
+
+	/**
+	 * @return the ID of the LifeForm the view is following, or 0 if it is not
+	 *         following one.
+	 */
+	public int getFollowed() {
+		return followed;
+	}
+
+	/**
+	 * Stops following a LifeForm and zooms out to show the whole map.
+	 */
+	public void resetView() {
+		followed = 0;
+		zoom = 1;
+		viewX = 0;
+		viewY = 0;
+		viewChanged();
+	}
+
+	protected void layoutChildren() {
+		canvas.setWidth(getWidth());
+		canvas.setHeight(getHeight());
+	}
+
+	private void unsubscribe() {
+		if (changes != null) {
+			changes.removeSubscriber(subscriber);
+			changes = null;
+		}
+		synchronized (pendingLock) {
+			pendingCount = 0;
+			repaintAll = true;
+		}
+	}
+
+	/**
+	 * Keeps the map spaces changed during a cycle until the map is next drawn.
+	 * If more map spaces have changed than the map holds, the whole view is
+	 * drawn instead.
+	 */
+	private void changed(ChangeSet changed) {
+		synchronized (pendingLock) {
+			if (repaintAll) {
+				return;
+			}
+			int size = changed.size();
+			if (changed.isAllChanged() || (long) pendingCount + size > (long) mapWidth * mapHeight) {
+				repaintAll = true;
+				pendingCount = 0;
+				return;
+			}
+			if (pendingCount + size > pending.length) {
+				pending = Arrays.copyOf(pending, Math.max(pendingCount + size, pending.length * 2));
+			}
+			for (int i = 0; i < size; i++) {
+				pending[pendingCount++] = (long) changed.getY(i) * mapWidth + changed.getX(i);
+			}
+		}
+	}
+
+	/**
+	 * Marks the whole view to be drawn again and asks for the world to be
+	 * drawn.
+	 */
+	private void viewChanged() {
+		synchronized (pendingLock) {
+			repaintAll = true;
+		}
+		if (world != null && onViewChanged != null) {
+			onViewChanged.run();
+		}
+	}
+
+	private void zoomAt(double px, double py, double factor) {
+		if (mapWidth == 0 || mapHeight == 0 || canvas.getWidth() == 0 || canvas.getHeight() == 0) {
+			return;
+		}
+		double newZoom = Math.max(1, Math.min(maxZoom(), zoom * factor));
+		if (newZoom == zoom) {
+			return;
+		}
+		// Keeps the map position under the mouse where it is.
+		double mapX = viewX + px / (fitX() * zoom);
+		double mapY = viewY + py / (fitY() * zoom);
+		zoom = newZoom;
+		moveTo(mapX - px / (fitX() * zoom), mapY - py / (fitY() * zoom));
+	}
+
+	/**
+	 * Moves the top left of the view to a map position, keeping the view on
+	 * the map.
+	 */
+	private void moveTo(double x, double y) {
+		place(x, y);
+		viewChanged();
+	}
+
+	private void place(double x, double y) {
+		viewX = Math.max(0, Math.min(mapWidth - mapWidth / zoom, x));
+		viewY = Math.max(0, Math.min(mapHeight - mapHeight / zoom, y));
+	}
+
+	/**
+	 * Moves the view to the middle of the LifeForm being followed, or stops
+	 * following it if it has died or been removed.
+	 *
+	 * @return true if the view has moved.
+	 */
+	private boolean follow() {
+		if (followed == 0) {
+			return false;
+		}
+		ALifeForm lf = findLifeForm(followed);
+		if (lf == null || !lf.isAlive()) {
+			followed = 0;
+			return false;
+		}
+		double oldX = viewX, oldY = viewY;
+		place(lf.getX() + 0.5 - mapWidth / zoom / 2, lf.getY() + 0.5 - mapHeight / zoom / 2);
+		return viewX != oldX || viewY != oldY;
+	}
+
+	/**
+	 * @return the LifeForm with an ID, which is its position in the world's
+	 *         list plus one until a LifeForm is removed, or null if there is
+	 *         none.
+	 */
+	private ALifeForm findLifeForm(int id) {
+		List<ALifeForm> lifeForms = world.getLifeFormList();
+		if (id <= lifeForms.size() && lifeForms.get(id - 1).getID() == id) {
+			return lifeForms.get(id - 1);
+		}
+		for (ALifeForm lf : lifeForms) {
+			if (lf.getID() == id) {
+				return lf;
+			}
+		}
+		return null;
+	}
+
+	private double fitX() {
+		return canvas.getWidth() / mapWidth;
+	}
+
+	private double fitY() {
+		return canvas.getHeight() / mapHeight;
+	}
+
+	private double maxZoom() {
+		return Math.max(1, MAX_CELL_SIZE / Math.min(fitX(), fitY()));
+	}
+
+	/**
+	 * Copies the whole view, as the sprites of the occupied map spaces if the
+	 * map spaces are large enough for their images or as a pixel for each
+	 * pixel of the canvas if not.
+	 */
+	private void prepareView() {
+		paintedWidth = canvas.getWidth();
+		paintedHeight = canvas.getHeight();
+		scaleX = paintedWidth / mapWidth * zoom;
+		scaleY = paintedHeight / mapHeight * zoom;
+		firstColumn = (int) Math.floor(viewX);
+		firstRow = (int) Math.floor(viewY);
+		lastColumn = Math.min(mapWidth, (int) Math.ceil(viewX + paintedWidth / scaleX));
+		lastRow = Math.min(mapHeight, (int) Math.ceil(viewY + paintedHeight / scaleY));
+		overview = Math.min(scaleX, scaleY) < MIN_SPRITE_SIZE;
+		if (overview) {
+			// Until a pixel covers a whole block, the blocks would be drawn
+			// larger than the map spaces under them, so the map spaces are
+			// sampled instead.
+			DensityPyramid pyramid = Math.min(scaleX, scaleY) <= 1.0 / (1 << DensityPyramid.FIRST_LEVEL)
+					? world.getDensityPyramid() : null;
+			if (pyramid != null) {
+				prepareDensity(pyramid);
+			} else {
+				prepareOverview();
+			}
+			return;
+		}
+		WorldGrid grid = world.getGrid();
+		for (int y = firstRow; y < lastRow; y++) {
+			for (int x = firstColumn; x < lastColumn; x++) {
+				if (grid.getType(y, x) != WorldGrid.EMPTY) {
+					Sprite sprite = spriteOf(grid.get(y, x));
+					if (sprite != null) {
+						addToFrame((long) y * mapWidth + x, sprite);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies the type of the map space under the middle of each pixel of the
+	 * canvas as a single coloured pixel.
+	 */
+	private void prepareOverview() {
+		int w = (int) paintedWidth, h = (int) paintedHeight;
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		allocateOverview(w, h);
+		WorldGrid grid = world.getGrid();
+		for (int py = 0; py < h; py++) {
+			int y = Math.min(mapHeight - 1, (int) (viewY + (py + 0.5) / scaleY));
+			for (int px = 0; px < w; px++) {
+				int x = Math.min(mapWidth - 1, (int) (viewX + (px + 0.5) / scaleX));
+				overviewPixels[py * w + px] = COLOURS[grid.getType(y, x)];
+			}
+		}
+	}
+
+	/**
+	 * Colours each pixel of the canvas by the counts of the block of the
+	 * density pyramid under its middle, using the level whose blocks are
+	 * nearest the size of a pixel without being larger. The colour is a mix of
+	 * the colours of the types of object in the block, weighted by how many
+	 * there are, and the more of the block is occupied the less of the grass
+	 * shows through.
+	 */
+	private void prepareDensity(DensityPyramid pyramid) {
+		int w = (int) paintedWidth, h = (int) paintedHeight;
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		allocateOverview(w, h);
+		double cellsPerPixel = 1 / Math.min(scaleX, scaleY);
+		int level = 0;
+		while (level < pyramid.getLevels() - 1 && pyramid.getBlockSize(level + 1) <= cellsPerPixel) {
+			level++;
+		}
+		int shift = Integer.numberOfTrailingZeros(pyramid.getBlockSize(level));
+		for (int px = 0; px < w; px++) {
+			overviewColumns[px] = Math.min(mapWidth - 1, (int) (viewX + (px + 0.5) / scaleX)) >> shift;
+		}
+		for (int py = 0; py < h; py++) {
+			int row = Math.min(mapHeight - 1, (int) (viewY + (py + 0.5) / scaleY)) >> shift;
+			int column = -1, colour = 0;
+			for (int px = 0; px < w; px++) {
+				// Neighbouring pixels usually share a block.
+				if (overviewColumns[px] != column) {
+					column = overviewColumns[px];
+					colour = blockColour(pyramid, level, row, column);
+				}
+				overviewPixels[py * w + px] = colour;
+			}
+		}
+	}
+
+	/**
+	 * @return the colour of a block of the density pyramid on the heatmap.
+	 */
+	private static int blockColour(DensityPyramid pyramid, int level, int row, int column) {
+		long total = 0, red = 0, green = 0, blue = 0;
+		for (byte type = WorldGrid.FOOD; type <= WorldGrid.CARNIVORE; type++) {
+			long weight = (long) pyramid.getCount(level, row, column, type)
+					* (type == WorldGrid.HERBIVORE || type == WorldGrid.CARNIVORE ? LIFEFORM_WEIGHT : 1);
+			total += weight;
+			red += weight * ((COLOURS[type] >> 16) & 0xFF);
+			green += weight * ((COLOURS[type] >> 8) & 0xFF);
+			blue += weight * (COLOURS[type] & 0xFF);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		double occupied = Math.min(1, (double) total / pyramid.getCellCount(level, row, column));
+		int alpha = (int) Math.round(255 * Math.sqrt(occupied));
+		return alpha << 24 | (int) (red / total) << 16 | (int) (green / total) << 8 | (int) (blue / total);
+	}
+
+	/**
+	 * Makes the image the overview is drawn in, if it has not already been
+	 * made at the size of the canvas.
+	 */
+	private void allocateOverview(int w, int h) {
+		if (overviewImage == null || overviewImage.getWidth() != w || overviewImage.getHeight() != h) {
+			overviewImage = new WritableImage(w, h);
+			overviewPixels = new int[w * h];
+			overviewColumns = new int[w];
+		}
+	}
+
+	/**
+	 * @return the sprite an object in a map space is drawn with, or null if
+	 *         the map space is drawn clear.
+	 */
+	private Sprite spriteOf(AWorldObject object) {
+		if (object == null || (object instanceof ALifeForm && !((ALifeForm) object).isAlive())) {
+			return null;
+		}
+		return atlas.getSprite(object);
+	}
+
+	/**
+	 * Adds a map space to the frame waiting to be painted.
+	 */
+	private void addToFrame(long cell, Sprite sprite) {
+		if (frameCount == frameCells.length) {
+			frameCells = Arrays.copyOf(frameCells, frameCount * 2);
+			frameSprites = Arrays.copyOf(frameSprites, frameCount * 2);
+		}
+		frameCells[frameCount] = cell;
+		frameSprites[frameCount++] = sprite;
+	}
+
+	/**
+	 * Draws a sprite in a map space, stretched to fill the map space.
+	 *
+	 * @param sprite
+	 *            - the sprite to draw, or null to draw nothing.
+	 * @param clear
+	 *            - true to clear whatever was drawn in the map space first.
+	 */
+	private void paint(GraphicsContext g, int y, int x, Sprite sprite, boolean clear) {
+		double left = Math.floor((x - viewX) * scaleX);
+		double top = Math.floor((y - viewY) * scaleY);
+		double width = Math.floor((x + 1 - viewX) * scaleX) - left;
+		double height = Math.floor((y + 1 - viewY) * scaleY) - top;
+		if (clear) {
+			g.clearRect(left, top, width, height);
+		}
+		if (sprite != null) {
+			g.drawImage(atlas.getImage(sprite, Math.max(width, height)), left, top, width, height);
+		}
+	}
+}
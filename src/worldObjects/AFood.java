@@ -24,6 +24,7 @@ public class AFood extends AWorldObject implements Serializable {
 	private int value;
 	private boolean poisoned;
 	private AFood initialFood; // Used when the user rewinds the map
+	private transient long regrowStart, readyTick;
 
 	/**
 	 * A world object which can be eaten by certain LifeForms to supply varying
@@ -80,6 +81,40 @@ public class AFood extends AWorldObject implements Serializable {
 		return poisoned;
 	}
 
+	/**
+	 * Returns the cycle from which the food's timer counts down, once any
+	 * LifeForm digesting on top of it has finished.
+	 * 
+	 * @return the cycle from which the food starts to regrow.
+	 */
+	public long getRegrowStart() {
+		return regrowStart;
+	}
+
+	/**
+	 * Returns the cycle in which the food's timer runs out and it can be placed
+	 * back in to the map.
+	 * 
+	 * @return the cycle in which the food will have regrown.
+	 */
+	public long getReadyTick() {
+		return readyTick;
+	}
+
+	/**
+	 * Sets when the food will regrow, instead of reducing its timer every
+	 * cycle.
+	 * 
+	 * @param regrowStart
+	 *            - the cycle from which the food's timer counts down.
+	 * @param readyTick
+	 *            - the cycle in which the food's timer runs out.
+	 */
+	public void setRegrowth(long regrowStart, long readyTick) {
+		this.regrowStart = regrowStart;
+		this.readyTick = readyTick;
+	}
+
 	/**
 	 * @return the initial food object when it was created
 	 */
@@ -5,13 +5,26 @@ import java.io.Serializable;
 import artificialLifeSimulator.AWorld;
 import artificialLifeSimulator.AWorldObject;
 import artificialLifeSimulator.Direction;
+import artificialLifeSimulator.DistanceField;
+import artificialLifeSimulator.LifeFormStore;
+import artificialLifeSimulator.PathCache;
+import artificialLifeSimulator.RandomStream;
+import artificialLifeSimulator.SensingField;
+import artificialLifeSimulator.SensingMode;
+import artificialLifeSimulator.WorldGrid;
 
 /**
  * A world object which can move and sense other objects within the world. It
  * will search for food and die when it runs out of energy.
  * 
+ * While the LifeForm is part of a world's simulation its position, energy,
+ * poison and timer are kept in the world's {@link LifeFormStore} rather than
+ * in the LifeForm, and the LifeForm reads and writes them through its slot in
+ * the store. The LifeForm itself is still what senses and moves.
+ * 
  * @author Jed Brennen
  * @see AWorldObject
+ * @see LifeFormStore
  * 
  *
  */
@@ -19,12 +32,22 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 
 	private static final long serialVersionUID = 463846516348454280L;
 
+	private static final Direction[] DIRECTIONS = Direction.values();
+	// The order in which directions are scanned. When two directions hold
+	// equally good food at the same distance, the later one is chosen.
+	private static final Direction[] SCAN_ORDER = { Direction.SOUTH, Direction.NORTH, Direction.EAST,
+			Direction.WEST };
+
 	protected int sensingDist;
 	protected String species, name;
 	protected int energy, id;
 	protected int poison;
 	protected boolean alive;
 	protected ALifeForm initialLifeForm;
+	// Saved with the LifeForm so a loaded world carries on where it was saved.
+	private RandomStream random;
+	private transient LifeFormStore store;
+	private transient int slot;
 
 	/**
 	 * A world object which can move and sense other objects within the world.
@@ -75,14 +98,269 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	 * @return - Direction of food with greatest value or random direction.
 	 * @see Direction
 	 */
-	public abstract Direction sense();
+	public Direction sense() {
+		return chooseDirection(scan());
+	}
+
+	/**
+	 * Performs the search of the map used by {@link #sense()}. Scanning only
+	 * reads the map and never uses random numbers, so LifeForms can be scanned
+	 * in any order, or at the same time, without changing the result.
+	 * 
+	 * @return the direction of the food with the greatest value and the number
+	 *         of obstructed neighbouring spaces, packed in to a single value.
+	 * @see #packScan(Direction, int)
+	 */
+	public abstract int scan();
+
+	/**
+	 * Scans horizontally and vertically from the LifeForm for the given type
+	 * of prey, over the LifeForm's scan distance. The prey with the greatest
+	 * value is chosen, with the nearest being chosen out of prey of the same
+	 * value. Prey in a direction is ignored if the space next to the LifeForm
+	 * in that direction is blocked. The map spaces between the LifeForm and
+	 * its prey are not looked at, so the world can find the prey along each
+	 * row and column without visiting them.
+	 * 
+	 * If the LifeForm's species senses a square or diamond around itself, the
+	 * direction whose side or quarter of the area holds the greatest total
+	 * value of prey is chosen instead, using the world's summed-area tables.
+	 * If it follows the world's distance field, the direction of the
+	 * neighbouring map space nearest to prey is chosen. If it follows routes,
+	 * prey beyond a blocked neighbouring space is not ignored, and the first
+	 * step of the route around the obstacles to the chosen prey is taken.
+	 * 
+	 * @param preyType
+	 *            - the type of object the LifeForm eats.
+	 * @return the packed result of the scan.
+	 * @see AWorld#nextAlong(byte, int, int, Direction, int, int)
+	 * @see AWorld#getSensingMode(String)
+	 * @see AWorld#getPathCache()
+	 */
+	protected int scanFor(byte preyType) {
+		WorldGrid grid = world.getGrid();
+		int x = getX();
+		int y = getY();
+		int senseDistance = getScanDistance();
+		SensingMode mode = world.getSensingMode(species);
+		SensingField field = null;
+		DistanceField distances = null;
+		PathCache paths = null;
+		if (mode == SensingMode.GRADIENT && senseDistance > 0) {
+			distances = world.getDistanceField(preyType);
+		} else if (mode == SensingMode.PATH && senseDistance > 0) {
+			paths = world.getPathCache();
+		} else if (mode != SensingMode.AXIS && senseDistance > 0) {
+			field = world.getSensingField(preyType, mode);
+		}
+		Direction best = null;
+		int bestValue = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		int obstructionCount = 0;
+
+		for (Direction d : SCAN_ORDER) {
+			int nextY = y + d.getDY();
+			int nextX = x + d.getDX();
+			// The edges of the map block movement in the same way as
+			// obstacles.
+			if (nextY < 0 || nextY >= world.getHeight() || nextX < 0 || nextX >= world.getWidth()) {
+				obstructionCount++;
+				continue;
+			}
+			if (senseDistance <= 0) {
+				continue;
+			}
+			if (!canMoveOnTo(grid.getType(nextY, nextX))) {
+				obstructionCount++;
+				if (paths == null) {
+					continue;
+				}
+			}
+			if (distances != null) {
+				// Prefers the nearest neighbour, counting the distances down
+				// so that the value is greater the nearer the prey.
+				int distance = distances.getDistance(nextY, nextX);
+				if (distance >= 0 && distance < senseDistance && senseDistance - distance >= bestValue) {
+					best = d;
+					bestValue = senseDistance - distance;
+				}
+				continue;
+			}
+			if (field != null) {
+				int value = mode == SensingMode.SQUARE ? field.getSquareTotal(y, x, d, senseDistance)
+						: field.getDiamondTotal(y, x, d, senseDistance);
+				if (value > 0 && value >= bestValue) {
+					best = d;
+					bestValue = value;
+				}
+				continue;
+			}
+			for (int i = world.nextAlong(preyType, y, x, d, 1, senseDistance); i > 0; i = world.nextAlong(preyType,
+					y, x, d, i + 1, senseDistance)) {
+				int value = getPreyValue(grid.get(y + d.getDY() * i, x + d.getDX() * i));
+				if (value > bestValue || (value == bestValue && i <= bestDistance)) {
+					best = d;
+					bestValue = value;
+					bestDistance = i;
+				}
+			}
+		}
+
+		// Leaves the direction to be chosen at random if no food is found.
+		if (bestValue == 0) {
+			return packScan(null, obstructionCount);
+		}
+		if (paths != null) {
+			Direction step = paths.nextStep(y, x, y + best.getDY() * bestDistance, x + best.getDX() * bestDistance);
+			if (step == null || !canMoveOnTo(grid.getType(y + step.getDY(), x + step.getDX()))) {
+				return packScan(null, obstructionCount);
+			}
+			best = step;
+		}
+		return packScan(best, obstructionCount);
+	}
+
+	/**
+	 * Checks whether the LifeForm is able to move on to a map space occupied
+	 * by the given type of object.
+	 * 
+	 * @param type
+	 *            - the type of object occupying the map space.
+	 * @return true if the LifeForm can move on to the map space.
+	 */
+	protected abstract boolean canMoveOnTo(byte type);
+
+	/**
+	 * @param prey
+	 *            - an object the LifeForm has found while scanning.
+	 * @return how much the LifeForm values eating the object.
+	 */
+	protected abstract int getPreyValue(AWorldObject prey);
+
+	/**
+	 * @return the type of object the LifeForm eats.
+	 * @see WorldGrid
+	 */
+	public abstract byte getPreyType();
+
+	/**
+	 * Chooses the direction to move in from the result of a scan. If no food
+	 * was found a random direction is chosen, unless the LifeForm is
+	 * surrounded in which case null is returned.
+	 * 
+	 * @param scan
+	 *            - the packed result of a scan.
+	 * @return the direction of the food found or a random direction.
+	 */
+	public Direction chooseDirection(int scan) {
+		Direction d = getScanDirection(scan);
+		int x = getX();
+		int y = getY();
+		// Used if no food is found to move bug randomly
+		if (d == null) {
+			if (getScanObstructions(scan) < 4) {
+				double num = getRandom().nextDouble();
+				// Uses a random number to decide in which direction to move the
+				// bug
+				if (num >= 0 && num < 0.25) {
+					if (y > 0) {
+						d = Direction.NORTH;
+					} else {
+						d = Direction.SOUTH;
+					}
+				}
+				if (num >= 0.25 && num < 0.5) {
+					if (x < world.getWidth() - 1) {
+						d = Direction.EAST;
+					} else {
+						d = Direction.WEST;
+					}
+				}
+				if (num >= 0.5 && num < 0.75) {
+					if (y < world.getHeight() - 1) {
+						d = Direction.SOUTH;
+					} else {
+						d = Direction.NORTH;
+					}
+				}
+				if (num >= 0.75 && num < 1) {
+					if (x > 0) {
+						d = Direction.WEST;
+					} else {
+						d = Direction.EAST;
+					}
+				}
+			} else {
+				return null;
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Returns the number of spaces searched along each axis by a scan. Only
+	 * the map spaces within this distance of the LifeForm, horizontally and
+	 * vertically, affect the result of {@link #scan()}.
+	 * 
+	 * @return the distance over which the LifeForm currently scans.
+	 */
+	public int getScanDistance() {
+		int energy = getEnergy();
+		if (sensingDist > energy) {
+			return energy;
+		} else {
+			return sensingDist;
+		}
+	}
+
+	/**
+	 * Packs the result of a scan in to a single value.
+	 * 
+	 * @param food
+	 *            - the direction of the best food found, or null if none was
+	 *            found.
+	 * @param obstructionCount
+	 *            - the number of neighbouring spaces the LifeForm cannot move
+	 *            on to.
+	 * @return the packed scan result.
+	 */
+	protected static int packScan(Direction food, int obstructionCount) {
+		int direction = 0;
+		if (food != null) {
+			direction = food.ordinal() + 1;
+		}
+		return direction | (obstructionCount << 3);
+	}
+
+	/**
+	 * @param scan
+	 *            - the packed result of a scan.
+	 * @return the direction of the best food found, or null if none was found.
+	 */
+	public static Direction getScanDirection(int scan) {
+		int direction = scan & 7;
+		if (direction == 0) {
+			return null;
+		}
+		return DIRECTIONS[direction - 1];
+	}
+
+	/**
+	 * @param scan
+	 *            - the packed result of a scan.
+	 * @return the number of neighbouring spaces the LifeForm cannot move on to.
+	 */
+	public static int getScanObstructions(int scan) {
+		return scan >>> 3;
+	}
 
 	/**
 	 * This method moves the LifeForm 1 space in the specified direction. It
 	 * will return whatever world object previously occupied the space when the
 	 * LifeForm moved. If the space to which the LifeForm moved is empty the
 	 * method will return null. The method will also return null if the LifeForm
-	 * is unable to move due to obstruction.
+	 * is unable to move due to obstruction. Moving off the edge of the map
+	 * returns {@link AnObstacle#EDGE}.
 	 * 
 	 * @param d
 	 *            - the direction in which to move.
@@ -92,7 +370,7 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 
 	public String toString() {
 		String text = "";
-		text += "(" + id + ") " + name + " @ " + (x + 1) + ", " + (y + 1) + ". ";
+		text += "(" + id + ") " + name + " @ " + (getX() + 1) + ", " + (getY() + 1) + ". ";
 
 		return text;
 	}
@@ -115,6 +393,9 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	 * @return the energy level of the LifeForm.
 	 */
 	public int getEnergy() {
+		if (store != null) {
+			return store.getEnergy(slot);
+		}
 		return energy;
 	}
 
@@ -135,19 +416,16 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	}
 
 	/**
-	 * Generates and sets new, random, coordinates for the LifeForm.
+	 * Generates and sets new, random, coordinates for the LifeForm, picked
+	 * from the map spaces which do not hold a LifeForm. The coordinates are
+	 * left as they are if every map space holds a LifeForm.
 	 */
 	public void getNewPosition() {
-		boolean placed = false;
-		do {
-			int y = (int) Math.round(Math.random() * (world.getHeight() - 1));
-			int x = (int) Math.round(Math.random() * (world.getWidth() - 1));
-			if (!(world.getMap()[y][x] instanceof ALifeForm)) {
-				this.x = x;
-				this.y = y;
-				placed = true;
-			}
-		} while (!placed);
+		long cell = world.getFreeCells().randomOpenCell(getRandom());
+		if (cell >= 0) {
+			setX((int) (cell % world.getWidth()));
+			setY((int) (cell / world.getWidth()));
+		}
 	}
 
 	/**
@@ -160,10 +438,38 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 		return initialLifeForm;
 	}
 
+	/**
+	 * Returns the LifeForm's own random number generator. The generator is
+	 * created from the world's seed and the LifeForm's ID the first time it is
+	 * used, so each LifeForm makes the same random choices each time the
+	 * simulation is run, whatever order the LifeForms are updated in. IDs are
+	 * not renumbered when another LifeForm is removed, so removing a LifeForm
+	 * does not change the choices of the others.
+	 * 
+	 * @return the LifeForm's random number generator.
+	 */
+	public RandomStream getRandom() {
+		if (random == null) {
+			random = world.newRandom(id);
+		}
+		return random;
+	}
+
+	/**
+	 * Starts the LifeForm's random number generator again from the world's
+	 * seed and the LifeForm's ID, for when the simulation is rewound or reset.
+	 */
+	public void resetRandom() {
+		random = null;
+	}
+
 	/**
 	 * @return the poison value of the LifeForm.
 	 */
 	public int getPoison() {
+		if (store != null) {
+			return store.getPoison(slot);
+		}
 		return poison;
 	}
 
@@ -171,6 +477,9 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	 * @return true if the LifeForm has an energy greater than 0.
 	 */
 	public boolean isAlive() {
+		if (store != null) {
+			return store.isAlive(slot);
+		}
 		if (energy <= 0) {
 			alive = false;
 		} else {
@@ -184,7 +493,11 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	 *            - the new energy value for the LifeForm.
 	 */
 	public void setEnergy(int newEnergy) {
-		energy = newEnergy;
+		if (store != null) {
+			store.setEnergy(slot, newEnergy);
+		} else {
+			energy = newEnergy;
+		}
 	}
 
 	/**
@@ -200,7 +513,11 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 	 *            - the new poison value for the LifeForm.
 	 */
 	public void setPoison(int poison) {
-		this.poison = poison;
+		if (store != null) {
+			store.setPoison(slot, poison);
+		} else {
+			this.poison = poison;
+		}
 	}
 
 	/**
@@ -211,10 +528,141 @@ public abstract class ALifeForm extends AWorldObject implements Serializable {
 		this.alive = alive;
 	}
 
+	public int getX() {
+		if (store != null) {
+			return store.getX(slot);
+		}
+		return x;
+	}
+
+	public int getY() {
+		if (store != null) {
+			return store.getY(slot);
+		}
+		return y;
+	}
+
+	public int getTimer() {
+		if (store != null) {
+			return store.getTimer(slot);
+		}
+		return timer;
+	}
+
+	public void setX(int x) {
+		if (store != null) {
+			store.setX(slot, x);
+		} else {
+			this.x = x;
+		}
+	}
+
+	public void setY(int y) {
+		if (store != null) {
+			store.setY(slot, y);
+		} else {
+			this.y = y;
+		}
+	}
+
+	public void setTimer(int cycles) {
+		if (store != null) {
+			store.setTimer(slot, cycles);
+		} else {
+			timer = cycles;
+		}
+	}
+
+	public void decrementTimer() {
+		setTimer(getTimer() - 1);
+	}
+
+	/**
+	 * Moves the LifeForm's state in to a slot of a store. Called by the store
+	 * when the LifeForm is added to it, after the state has been copied in.
+	 * 
+	 * @param store
+	 *            - the store holding the LifeForm's state.
+	 * @param slot
+	 *            - the LifeForm's slot in the store.
+	 */
+	public void attach(LifeFormStore store, int slot) {
+		this.store = store;
+		this.slot = slot;
+	}
+
+	/**
+	 * Copies the LifeForm's state back out of its store, after which the
+	 * LifeForm holds its own state again. Called by the store when it is
+	 * cleared.
+	 */
+	public void detach() {
+		if (store != null) {
+			copyFromStore(this);
+			store = null;
+		}
+	}
+
+	/**
+	 * @return the LifeForm's slot in its store, or -1 if it is not in a
+	 *         store.
+	 */
+	public int getSlot() {
+		if (store == null) {
+			return -1;
+		}
+		return slot;
+	}
+
+	/**
+	 * Copies the state held in the LifeForm's store in to the fields of a
+	 * LifeForm.
+	 * 
+	 * @param target
+	 *            - the LifeForm to copy the state in to.
+	 */
+	private void copyFromStore(ALifeForm target) {
+		target.x = store.getX(slot);
+		target.y = store.getY(slot);
+		target.energy = store.getEnergy(slot);
+		target.poison = store.getPoison(slot);
+		target.timer = store.getTimer(slot);
+		target.alive = store.isAlive(slot);
+	}
+
+	/**
+	 * Copies of a LifeForm, such as its initial LifeForm, hold their own
+	 * state rather than sharing the LifeForm's slot, and start their random
+	 * numbers again from the seed rather than sharing its generator.
+	 */
+	protected Object clone() throws CloneNotSupportedException {
+		ALifeForm copy = (ALifeForm) super.clone();
+		copy.random = null;
+		if (store != null) {
+			copyFromStore(copy);
+			copy.store = null;
+		}
+		return copy;
+	}
+
+	/**
+	 * Copies the LifeForm's state out of its store before the LifeForm is
+	 * written to a stream, so that the fields written hold its current state.
+	 * 
+	 * @return the LifeForm itself.
+	 */
+	protected Object writeReplace() {
+		if (store != null) {
+			copyFromStore(this);
+		}
+		return this;
+	}
+
 	/**
 	 * Resets the initial LifeForm object, resetting all initial values with it.
 	 */
 	public void resetInitialLifeForm() {
+		resetRandom();
 		try {
 			initialLifeForm = (ALifeForm) this.clone();
 		} catch (CloneNotSupportedException e) {
@@ -18,6 +18,13 @@ public class AnObstacle extends AWorldObject implements Serializable {
 
 	private static final long serialVersionUID = -4892388459136821070L;
 
+	/**
+	 * Returned by a LifeForm's move when it tries to move off the edge of the
+	 * map, so that the edge blocks it like an obstacle without a new obstacle
+	 * being created on every attempt. It is never placed in a world.
+	 */
+	public static final AnObstacle EDGE = new AnObstacle(null);
+
 	/**
 	 * An obstacle is a world object which remains unmoved and unchanged
 	 * throughout the simulation. It will block LifeForms from moving and
@@ -0,0 +1,115 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import lifeFormTypes.AHerbivore;
+import worldObjects.AFood;
+import worldObjects.AnObstacle;
+
+/**
+ * Checks that a chunked grid holding only a few chunks in memory gives the
+ * same results as one which never writes chunks out, for a seeded world, and
+ * the same results as the default grid for objects placed and removed at
+ * random, so chunks are written out to the file and read back in throughout.
+ * A seeded world is not compared with the default grid, since the chunked
+ * grid places its objects differently.
+ *
+ * @author Jed Brennen
+ * @see ChunkedGrid
+ * @see ParallelTickTest
+ *
+ */
+public class ChunkedGridTest {
+
+	private static final int BUDGET = 4;
+	private static final int CYCLES = 400;
+	private static final int ROUNDS = 200;
+
+	@Test
+	public void smallBudgetMatchesLargeBudget() throws IOException {
+		Properties inMemory = new Properties();
+		inMemory.setProperty("gridType", "chunked");
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "chunked");
+		settings.setProperty("chunkBudget", Integer.toString(BUDGET));
+		// Few enough LifeForms that most chunks are not next to one, and so
+		// can be written out.
+		AWorld expectedWorld = TestWorlds.create(400, 300, 40, 2024, inMemory);
+		AWorld actualWorld = TestWorlds.create(400, 300, 40, 2024, settings);
+		SimulationEngine expected = new SimulationEngine(expectedWorld);
+		SimulationEngine actual = new SimulationEngine(actualWorld);
+
+		for (int done = 0; done < CYCLES; done += 50) {
+			expected.step(50);
+			actual.step(50);
+			expected.settle();
+			actual.settle();
+			ParallelTickTest.assertSameWorld("cycle " + expected.getCycle(), expectedWorld, actualWorld);
+		}
+	}
+
+	@Test
+	public void writtenOutChunksReadBackUnchanged() throws IOException {
+		ChunkedGrid grid = new ChunkedGrid(150, 200, BUDGET, null);
+		assertSameAsObjectGrid(grid);
+		// The chunk holding the LifeForms and the three next to it.
+		assertTrue("chunks held in memory", grid.getResidentChunks() <= BUDGET + 1);
+	}
+
+	/**
+	 * Places and removes objects at random in a grid and in the default grid,
+	 * comparing every map space of the two after each round. LifeForms are
+	 * only placed in the top left corner, so that on a chunked grid the
+	 * chunks around the corner stay in memory and the rest can be written
+	 * out.
+	 *
+	 * @param grid
+	 *            - the grid to check, which must be empty.
+	 * @throws IOException
+	 *             if the world the objects belong to could not be created.
+	 */
+	static void assertSameAsObjectGrid(WorldGrid grid) throws IOException {
+		AWorld world = TestWorlds.create(10, 10, 0, 77);
+		int height = grid.getHeight(), width = grid.getWidth();
+		ObjectGrid expected = new ObjectGrid(height, width);
+		Random random = new Random(77);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			for (int i = 0; i < 40; i++) {
+				int y = random.nextInt(height);
+				int x = random.nextInt(width);
+				AWorldObject object;
+				int kind = random.nextInt(4);
+				if (kind == 3 && (y >= ChunkedGrid.CHUNK_SIZE || x >= ChunkedGrid.CHUNK_SIZE)) {
+					kind = 1;
+				}
+				if (kind == 0) {
+					object = null;
+				} else if (kind == 1) {
+					object = new AFood(world, 1 + random.nextInt(9), random.nextBoolean());
+				} else if (kind == 2) {
+					object = new AnObstacle(world);
+				} else {
+					object = new AHerbivore(world, "LF", 10, round * 40 + i);
+				}
+				expected.set(y, x, object);
+				grid.set(y, x, object);
+			}
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					String cell = "round " + round + ": map space " + y + ", " + x;
+					assertEquals(cell, expected.getType(y, x), grid.getType(y, x));
+					assertSame(cell, expected.get(y, x), grid.get(y, x));
+				}
+			}
+		}
+	}
+}
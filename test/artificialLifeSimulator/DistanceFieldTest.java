@@ -0,0 +1,67 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * Checks that the distance fields which are brought up to date from the map
+ * spaces changed each cycle match fields built again from scratch, by running
+ * a seeded world whose LifeForms follow the fields.
+ *
+ * @author Jed Brennen
+ * @see DistanceField
+ *
+ */
+public class DistanceFieldTest {
+
+	private static final int CYCLES = 400;
+
+	@Test
+	public void updatedFieldsMatchRebuilt() throws IOException {
+		assertFieldsMatchRebuilt(new Properties());
+	}
+
+	@Test
+	public void updatedFieldsMatchRebuiltOnTypedGrid() throws IOException {
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "typed");
+		assertFieldsMatchRebuilt(settings);
+	}
+
+	/**
+	 * Runs a world where both species follow distance fields, comparing the
+	 * fields with new ones built from the map after each batch of cycles.
+	 *
+	 * @param settings
+	 *            - other configuration properties for the world.
+	 * @throws IOException
+	 *             if the world could not be created.
+	 */
+	private static void assertFieldsMatchRebuilt(Properties settings) throws IOException {
+		Properties gradient = new Properties();
+		gradient.putAll(settings);
+		gradient.setProperty("herbivoreSensing", "gradient");
+		gradient.setProperty("carnivoreSensing", "gradient");
+		AWorld world = TestWorlds.create(200, 150, 300, 4242, gradient);
+		SimulationEngine engine = new SimulationEngine(world);
+
+		for (int done = 0; done < CYCLES; done += 20) {
+			engine.step(20);
+			world.refreshSensing();
+			for (byte type : new byte[] { WorldGrid.FOOD, WorldGrid.HERBIVORE }) {
+				DistanceField updated = world.getDistanceField(type);
+				DistanceField rebuilt = new DistanceField(type, world.getGrid());
+				for (int y = 0; y < world.getHeight(); y++) {
+					for (int x = 0; x < world.getWidth(); x++) {
+						assertEquals("cycle " + engine.getCycle() + ": type " + type + " at " + y + ", " + x,
+								rebuilt.getDistance(y, x), updated.getDistance(y, x));
+					}
+				}
+			}
+		}
+	}
+}
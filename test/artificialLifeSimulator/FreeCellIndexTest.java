@@ -0,0 +1,144 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import lifeFormTypes.AHerbivore;
+import worldObjects.AFood;
+import worldObjects.AnObstacle;
+
+/**
+ * Checks that the free cell index keeps the same counts as an index built
+ * again from the map, and that it picks every suitable map space with the
+ * same chance, both while trying map spaces at random and once it has listed
+ * them.
+ *
+ * @author Jed Brennen
+ * @see FreeCellIndex
+ *
+ */
+public class FreeCellIndexTest {
+
+	private static final int ROUNDS = 400;
+	private static final int HEIGHT = 30, WIDTH = 40;
+	private static final int DRAWS = 40000;
+
+	/**
+	 * Fills the map with food and obstacles, then with LifeForms, and then
+	 * empties it again, so the index lists each kind of map space and then
+	 * drops the lists, checking the counts and the map spaces picked after
+	 * each round.
+	 */
+	@Test
+	public void countsAndPicksMatchMap() throws IOException {
+		AWorld world = TestWorlds.create(10, 10, 0, 555);
+		ObjectGrid grid = new ObjectGrid(HEIGHT, WIDTH);
+		FreeCellIndex index = new FreeCellIndex(grid);
+		Random random = new Random(555);
+		RandomStream picks = new RandomStream(555);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			int phase = round * 3 / ROUNDS;
+			for (int i = 0; i < 30; i++) {
+				int y = random.nextInt(HEIGHT);
+				int x = random.nextInt(WIDTH);
+				// Most map spaces are changed to the kind of object for the
+				// phase, and the rest are emptied, except in the last phase.
+				AWorldObject object = null;
+				boolean usual = random.nextInt(10) > 0;
+				if (phase == 0 && usual) {
+					object = random.nextBoolean() ? new AFood(world, 5, false) : new AnObstacle(world);
+				} else if (phase == 1 && usual) {
+					object = new AHerbivore(world, "LF", 10, round * 30 + i);
+				} else if (phase == 2 && !usual) {
+					object = new AnObstacle(world);
+				}
+				index.set(y, x, object);
+			}
+
+			String when = "round " + round;
+			FreeCellIndex rebuilt = new FreeCellIndex(grid);
+			for (byte type = WorldGrid.EMPTY; type <= WorldGrid.CARNIVORE; type++) {
+				assertEquals(when + ": count of type " + type, rebuilt.getCount(type), index.getCount(type));
+			}
+			assertEquals(when + ": open count", rebuilt.getOpenCount(), index.getOpenCount());
+
+			for (int i = 0; i < 20; i++) {
+				long empty = index.randomEmptyCell(picks);
+				if (index.getCount(WorldGrid.EMPTY) == 0) {
+					assertEquals(when + ": empty map space", -1, empty);
+				} else {
+					assertEquals(when + ": empty map space " + empty, WorldGrid.EMPTY, typeOf(grid, empty));
+				}
+				long open = index.randomOpenCell(picks);
+				if (index.isFull()) {
+					assertEquals(when + ": open map space", -1, open);
+				} else {
+					byte type = typeOf(grid, open);
+					assertTrue(when + ": open map space " + open,
+							type != WorldGrid.HERBIVORE && type != WorldGrid.CARNIVORE);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void picksUniformlyWhenPlentiful() throws IOException {
+		assertPicksUniformly(0.5);
+	}
+
+	@Test
+	public void picksUniformlyWhenListed() throws IOException {
+		assertPicksUniformly(0.95);
+	}
+
+	/**
+	 * Fills part of the map with obstacles and checks that each empty map
+	 * space is picked close to the same number of times.
+	 *
+	 * @param fill
+	 *            - the fraction of the map to fill.
+	 * @throws IOException
+	 *             if the world the obstacles belong to could not be created.
+	 */
+	private static void assertPicksUniformly(double fill) throws IOException {
+		AWorld world = TestWorlds.create(10, 10, 0, 999);
+		ObjectGrid grid = new ObjectGrid(HEIGHT, WIDTH);
+		FreeCellIndex index = new FreeCellIndex(grid);
+		Random random = new Random(999);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if (random.nextDouble() < fill) {
+					index.set(y, x, new AnObstacle(world));
+				}
+			}
+		}
+
+		long empty = index.getCount(WorldGrid.EMPTY);
+		int[] picked = new int[HEIGHT * WIDTH];
+		RandomStream picks = new RandomStream(999);
+		for (int i = 0; i < DRAWS; i++) {
+			picked[(int) index.randomEmptyCell(picks)]++;
+		}
+		// Allows six standard deviations either side of the expected number.
+		double expected = (double) DRAWS / empty;
+		double allowed = 6 * Math.sqrt(expected);
+		for (int cell = 0; cell < picked.length; cell++) {
+			if (typeOf(grid, cell) == WorldGrid.EMPTY) {
+				assertTrue("map space " + cell + " picked " + picked[cell] + " times",
+						Math.abs(picked[cell] - expected) <= allowed);
+			} else {
+				assertEquals("map space " + cell + " is not empty", 0, picked[cell]);
+			}
+		}
+	}
+
+	private static byte typeOf(WorldGrid grid, long cell) {
+		return grid.getType((int) (cell / WIDTH), (int) (cell % WIDTH));
+	}
+}
@@ -0,0 +1,86 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that finding food and herbivores through the occupancy index gives
+ * the same results as looking at each map space in turn, both for single
+ * searches as a seeded world runs and for the whole run.
+ *
+ * @author Jed Brennen
+ * @see OccupancyIndex
+ * @see ParallelTickTest
+ *
+ */
+public class OccupancyIndexTest {
+
+	private static final int CYCLES = 400;
+
+	@Test
+	public void indexedRunMatchesUnindexed() throws IOException {
+		Properties unindexed = new Properties();
+		unindexed.setProperty("occupancyIndex", "false");
+		ParallelTickTest.assertSameRuns(unindexed, new Properties());
+	}
+
+	@Test
+	public void nextAlongMatchesScan() throws IOException {
+		assertNextAlongMatchesScan(new Properties());
+	}
+
+	@Test
+	public void nextAlongMatchesScanOnTypedGrid() throws IOException {
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "typed");
+		assertNextAlongMatchesScan(settings);
+	}
+
+	/**
+	 * Runs a seeded world, comparing searches from random map spaces with a
+	 * search which looks at each map space in turn after each batch of
+	 * cycles.
+	 *
+	 * @param settings
+	 *            - other configuration properties for the world.
+	 * @throws IOException
+	 *             if the world could not be created.
+	 */
+	private static void assertNextAlongMatchesScan(Properties settings) throws IOException {
+		AWorld world = TestWorlds.create(200, 150, 300, 8080, settings);
+		SimulationEngine engine = new SimulationEngine(world);
+		WorldGrid grid = world.getGrid();
+		Random random = new Random(8080);
+
+		for (int done = 0; done < CYCLES; done += 20) {
+			engine.step(20);
+			for (int i = 0; i < 2000; i++) {
+				byte type = random.nextBoolean() ? WorldGrid.FOOD : WorldGrid.HERBIVORE;
+				int y = random.nextInt(world.getHeight());
+				int x = random.nextInt(world.getWidth());
+				Direction d = Direction.values()[random.nextInt(4)];
+				int from = 1 + random.nextInt(5);
+				int to = from + random.nextInt(40);
+
+				int expected = -1;
+				for (int j = from; j <= to; j++) {
+					int nextY = y + d.getDY() * j, nextX = x + d.getDX() * j;
+					if (nextY < 0 || nextY >= world.getHeight() || nextX < 0 || nextX >= world.getWidth()) {
+						break;
+					}
+					if (grid.getType(nextY, nextX) == type) {
+						expected = j;
+						break;
+					}
+				}
+				assertEquals("cycle " + engine.getCycle() + ": type " + type + " " + d + " of " + y + ", " + x
+						+ " from " + from + " to " + to, expected, world.nextAlong(type, y, x, d, from, to));
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * Checks that a grid stored outside of the Java heap gives the same results
+ * as the default grid, for a seeded world, for objects placed and removed at
+ * random, and for a world saved and loaded again.
+ *
+ * @author Jed Brennen
+ * @see OffHeapGrid
+ * @see ParallelTickTest
+ *
+ */
+public class OffHeapGridTest {
+
+	@Test
+	public void offHeapMatchesObjectGrid() throws IOException {
+		ParallelTickTest.assertSameRuns(new Properties(), offHeapSettings());
+	}
+
+	@Test
+	public void getAndSetMatchObjectGrid() throws IOException {
+		ChunkedGridTest.assertSameAsObjectGrid(new OffHeapGrid(150, 200));
+	}
+
+	@Test
+	public void mappedFileMatchesObjectGrid() throws IOException {
+		File file = File.createTempFile("testGrid", ".grid");
+		file.deleteOnExit();
+		ChunkedGridTest.assertSameAsObjectGrid(new OffHeapGrid(150, 200, file));
+	}
+
+	/**
+	 * Saves a world part way through a run and loads it again, both in to
+	 * another off-heap grid and in to the default grid.
+	 */
+	@Test
+	public void savedWorldLoadsUnchanged() throws IOException {
+		Configuration config = TestWorlds.configure(400, 300, 2024, offHeapSettings());
+		AWorld world = TestWorlds.create(config, 600);
+		SimulationEngine engine = new SimulationEngine(world);
+		engine.step(200);
+		engine.settle();
+		world.save();
+
+		AWorld loaded = new AWorld(config);
+		loaded.load(config);
+		ParallelTickTest.assertSameWorld("loaded off the heap", world, loaded);
+
+		config.setProperty("gridType", "object");
+		AWorld onHeap = new AWorld(config);
+		onHeap.load(config);
+		ParallelTickTest.assertSameWorld("loaded on the heap", world, onHeap);
+	}
+
+	private static Properties offHeapSettings() {
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "offheap");
+		return settings;
+	}
+}
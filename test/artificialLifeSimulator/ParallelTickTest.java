@@ -0,0 +1,129 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import worldObjects.AFood;
+import worldObjects.ALifeForm;
+
+/**
+ * Checks that scanning LifeForms in parallel gives the same results as
+ * scanning them one at a time, by running two copies of a seeded world side
+ * by side. The worlds use the default grid and sensing; the checks are shared
+ * with the tests of the other grids and ways of sensing.
+ *
+ * @author Jed Brennen
+ *
+ */
+public class ParallelTickTest {
+
+	private static final int CYCLES = 400;
+
+	@Test
+	public void parallelMatchesSerial() throws IOException {
+		assertSameRuns(new Properties());
+	}
+
+	/**
+	 * Runs a world serially and in parallel and compares them after each
+	 * batch of cycles.
+	 *
+	 * @param settings
+	 *            - other configuration properties for the world.
+	 * @throws IOException
+	 *             if the worlds could not be created.
+	 */
+	static void assertSameRuns(Properties settings) throws IOException {
+		AWorld serialWorld = TestWorlds.create(400, 300, 600, 2024, settings);
+		AWorld parallelWorld = TestWorlds.create(400, 300, 600, 2024, settings);
+		SimulationEngine serial = new SimulationEngine(serialWorld);
+		SimulationEngine parallel = new SimulationEngine(parallelWorld);
+		parallel.setParallel(true);
+
+		for (int done = 0; done < CYCLES; done += 50) {
+			serial.step(50);
+			parallel.step(50);
+			serial.settle();
+			parallel.settle();
+			assertSameWorld("cycle " + serial.getCycle(), serialWorld, parallelWorld);
+		}
+	}
+
+	/**
+	 * Runs a world with two sets of configuration properties, such as two
+	 * types of grid, both serially, and compares them after each batch of
+	 * cycles.
+	 *
+	 * @param expectedSettings
+	 *            - configuration properties for the world to compare against.
+	 * @param settings
+	 *            - configuration properties for the world being checked.
+	 * @throws IOException
+	 *             if the worlds could not be created.
+	 */
+	static void assertSameRuns(Properties expectedSettings, Properties settings) throws IOException {
+		AWorld expectedWorld = TestWorlds.create(400, 300, 600, 2024, expectedSettings);
+		AWorld actualWorld = TestWorlds.create(400, 300, 600, 2024, settings);
+		SimulationEngine expected = new SimulationEngine(expectedWorld);
+		SimulationEngine actual = new SimulationEngine(actualWorld);
+
+		for (int done = 0; done < CYCLES; done += 50) {
+			expected.step(50);
+			actual.step(50);
+			expected.settle();
+			actual.settle();
+			assertSameWorld("cycle " + expected.getCycle(), expectedWorld, actualWorld);
+		}
+	}
+
+	/**
+	 * Checks that two worlds hold the same LifeForms, food and map.
+	 *
+	 * @param when
+	 *            - describes the point in the run being checked.
+	 * @param expected
+	 *            - the world to compare against.
+	 * @param actual
+	 *            - the world being checked.
+	 */
+	static void assertSameWorld(String when, AWorld expected, AWorld actual) {
+		assertEquals(when + ": LifeForms", expected.getLifeFormList().size(), actual.getLifeFormList().size());
+		for (int i = 0; i < expected.getLifeFormList().size(); i++) {
+			ALifeForm e = expected.getLifeFormList().get(i);
+			ALifeForm a = actual.getLifeFormList().get(i);
+			String lifeForm = when + ": LifeForm " + e.getID();
+			assertEquals(lifeForm + " ID", e.getID(), a.getID());
+			assertEquals(lifeForm + " x", e.getX(), a.getX());
+			assertEquals(lifeForm + " y", e.getY(), a.getY());
+			assertEquals(lifeForm + " energy", e.getEnergy(), a.getEnergy());
+			assertEquals(lifeForm + " poison", e.getPoison(), a.getPoison());
+			assertEquals(lifeForm + " alive", e.isAlive(), a.isAlive());
+		}
+
+		assertEquals(when + ": food", expected.getFoodList().size(), actual.getFoodList().size());
+		for (int i = 0; i < expected.getFoodList().size(); i++) {
+			AFood e = (AFood) expected.getFoodList().get(i);
+			AFood a = (AFood) actual.getFoodList().get(i);
+			assertEquals(when + ": food " + i + " timer", e.getTimer(), a.getTimer());
+			assertEquals(when + ": food " + i + " poisonous", e.isPoisonous(), a.isPoisonous());
+		}
+
+		WorldGrid expectedGrid = expected.getGrid();
+		WorldGrid actualGrid = actual.getGrid();
+		for (int y = 0; y < expectedGrid.getHeight(); y++) {
+			for (int x = 0; x < expectedGrid.getWidth(); x++) {
+				String cell = when + ": map space " + y + ", " + x;
+				assertEquals(cell, expectedGrid.getType(y, x), actualGrid.getType(y, x));
+				AWorldObject e = expectedGrid.get(y, x);
+				AWorldObject a = actualGrid.get(y, x);
+				if (e instanceof ALifeForm) {
+					assertEquals(cell + " LifeForm", ((ALifeForm) e).getID(), ((ALifeForm) a).getID());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import worldObjects.AnObstacle;
+
+/**
+ * Checks that the routes kept by the path cache are forgotten when obstacles
+ * are placed or removed near them, by comparing the cache of a seeded world
+ * with a new cache built from the map after each change.
+ *
+ * @author Jed Brennen
+ * @see PathCache
+ *
+ */
+public class PathCacheTest {
+
+	private static final int ROUNDS = 300;
+	// The furthest a target is from the start of a route, along a row or
+	// column as when a LifeForm scans for prey.
+	private static final int MAX_DISTANCE = 20;
+
+	@Test
+	public void cachedRoutesMatchNewCacheAfterChanges() throws IOException {
+		AWorld world = TestWorlds.create(120, 90, 0, 31337);
+		WorldGrid grid = world.getGrid();
+		PathCache cache = world.getPathCache();
+		Random random = new Random(31337);
+
+		for (int round = 0; round < ROUNDS; round++) {
+			// Places or removes a few obstacles among the cached routes.
+			for (int i = 0; i < 3; i++) {
+				int y = random.nextInt(world.getHeight());
+				int x = random.nextInt(world.getWidth());
+				byte type = grid.getType(y, x);
+				if (type == WorldGrid.EMPTY) {
+					world.setMapValue(new AnObstacle(world), y, x);
+				} else if (type == WorldGrid.OBSTACLE) {
+					world.setMapValue(null, y, x);
+				}
+			}
+
+			PathCache fresh = new PathCache(grid);
+			for (int i = 0; i < 50; i++) {
+				int y = random.nextInt(world.getHeight());
+				int x = random.nextInt(world.getWidth());
+				Direction d = Direction.values()[random.nextInt(4)];
+				int distance = 1 + random.nextInt(MAX_DISTANCE);
+				int targetY = y + d.getDY() * distance;
+				int targetX = x + d.getDX() * distance;
+				if (grid.getType(y, x) == WorldGrid.OBSTACLE || targetY < 0 || targetY >= world.getHeight()
+						|| targetX < 0 || targetX >= world.getWidth()) {
+					continue;
+				}
+				assertEquals("round " + round + ": route from " + y + ", " + x + " to " + targetY + ", " + targetX,
+						fresh.nextStep(y, x, targetY, targetX), cache.nextStep(y, x, targetY, targetX));
+			}
+		}
+	}
+}
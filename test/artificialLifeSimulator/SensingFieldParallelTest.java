@@ -0,0 +1,41 @@
+package artificialLifeSimulator;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * Checks that LifeForms which sense squares or diamonds of map spaces from
+ * the summed-area tables make the same moves when scanned in parallel as
+ * when scanned one at a time, on a typed grid.
+ *
+ * @author Jed Brennen
+ * @see ParallelTickTest
+ *
+ */
+public class SensingFieldParallelTest {
+
+	@Test
+	public void squareSensingMatchesSerial() throws IOException {
+		ParallelTickTest.assertSameRuns(typedSettings("square"));
+	}
+
+	@Test
+	public void diamondSensingMatchesSerial() throws IOException {
+		ParallelTickTest.assertSameRuns(typedSettings("diamond"));
+	}
+
+	/**
+	 * @param herbivoreSensing
+	 *            - the way herbivores sense.
+	 * @return settings for a typed grid where herbivores sense in the given
+	 *         way and carnivores sense along their row and column.
+	 */
+	private static Properties typedSettings(String herbivoreSensing) {
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "typed");
+		settings.setProperty("herbivoreSensing", herbivoreSensing);
+		return settings;
+	}
+}
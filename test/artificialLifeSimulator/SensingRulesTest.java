@@ -0,0 +1,97 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lifeFormTypes.ACarnivore;
+import lifeFormTypes.AHerbivore;
+import worldObjects.AFood;
+import worldObjects.ALifeForm;
+import worldObjects.AnObstacle;
+
+/**
+ * Checks the rules LifeForms use to pick a direction when sensing along their
+ * row and column, which keep the engine from trying the same blocked move
+ * again and again:
+ *
+ * - prey is only followed if the map space next to the LifeForm in its
+ * direction can be moved on to;
+ * - the edges of the map count as obstructions, so a LifeForm boxed in
+ * against an edge stays where it is;
+ * - a carnivore which senses prey to the north moves north.
+ *
+ * @author Jed Brennen
+ *
+ */
+public class SensingRulesTest {
+
+	private AWorld world;
+	private int nextId = 1;
+
+	@Before
+	public void createWorld() throws IOException {
+		world = TestWorlds.create(10, 10, 0, 99);
+		world.clearMap();
+	}
+
+	@Test
+	public void carnivoreFollowsPreyNorth() {
+		ALifeForm carnivore = place(new ACarnivore(world, "Carnivore", 30, nextId++), 5, 5);
+		place(new AHerbivore(world, "Prey", 30, nextId++), 3, 5);
+
+		assertEquals(Direction.NORTH, ALifeForm.getScanDirection(carnivore.scan()));
+	}
+
+	@Test
+	public void preyBehindAnotherLifeFormIsIgnored() {
+		ALifeForm herbivore = place(new AHerbivore(world, "Herbivore", 30, nextId++), 5, 5);
+		place(new AHerbivore(world, "In the way", 30, nextId++), 5, 6);
+		placeObject(new AFood(world, 5, false), 5, 7);
+
+		assertNull(ALifeForm.getScanDirection(herbivore.scan()));
+	}
+
+	@Test
+	public void preyNextToTheLifeFormIsFollowed() {
+		ALifeForm herbivore = place(new AHerbivore(world, "Herbivore", 30, nextId++), 5, 5);
+		placeObject(new AFood(world, 5, false), 5, 6);
+
+		assertEquals(Direction.EAST, ALifeForm.getScanDirection(herbivore.scan()));
+	}
+
+	@Test
+	public void edgesCountAsObstructions() {
+		ALifeForm herbivore = place(new AHerbivore(world, "Herbivore", 30, nextId++), 0, 0);
+		placeObject(new AnObstacle(world), 1, 0);
+		placeObject(new AnObstacle(world), 0, 1);
+
+		int scan = herbivore.scan();
+		assertEquals(4, ALifeForm.getScanObstructions(scan));
+		assertNull(herbivore.chooseDirection(scan));
+	}
+
+	/**
+	 * Adds a LifeForm to the world at the given map space.
+	 */
+	private ALifeForm place(ALifeForm lf, int y, int x) {
+		world.addLifeForm(lf);
+		lf.setY(y);
+		lf.setX(x);
+		world.setMapValue(lf, y, x);
+		return lf;
+	}
+
+	/**
+	 * Puts food or an obstacle in the given map space.
+	 */
+	private void placeObject(AWorldObject object, int y, int x) {
+		object.setY(y);
+		object.setX(x);
+		world.setMapValue(object, y, x);
+	}
+}
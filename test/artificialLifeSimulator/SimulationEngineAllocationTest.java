@@ -0,0 +1,122 @@
+package artificialLifeSimulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import worldObjects.ALifeForm;
+
+/**
+ * Checks that the engine creates no objects once a world has settled, so a
+ * long simulation does not keep the garbage collector busy.
+ *
+ * @author Jed Brennen
+ *
+ */
+public class SimulationEngineAllocationTest {
+
+	// Long enough for every list and bucket to have grown to the size it
+	// needs.
+	private static final int WARM_UP_CYCLES = 1600;
+	private static final int MEASURED_CYCLES = 300;
+
+	@Test
+	public void steadyCyclesAllocateNothing() throws Exception {
+		assertSteadyCyclesAllocateNothing(new Properties());
+	}
+
+	/**
+	 * A typed grid with distance fields sweeps rows of map spaces with the
+	 * grid kernels whenever a field is built.
+	 */
+	@Test
+	public void steadyGradientCyclesAllocateNothing() throws Exception {
+		Properties settings = new Properties();
+		settings.setProperty("gridType", "typed");
+		settings.setProperty("herbivoreSensing", "gradient");
+		settings.setProperty("carnivoreSensing", "gradient");
+		assertSteadyCyclesAllocateNothing(settings);
+	}
+
+	/**
+	 * LifeForms which follow routes around the obstacles look their routes up
+	 * in the path cache every time they sense. Routes to map spaces not yet
+	 * headed for are still created as the LifeForms move, so the LifeForms
+	 * are scanned again where they stand, which only follows cached routes.
+	 */
+	@Test
+	public void steadyPathScansAllocateNothing() throws Exception {
+		Properties settings = new Properties();
+		settings.setProperty("herbivoreSensing", "path");
+		settings.setProperty("carnivoreSensing", "path");
+		AWorld world = TestWorlds.create(300, 200, 240, 12345, settings);
+		SimulationEngine engine = new SimulationEngine(world);
+		engine.step(WARM_UP_CYCLES);
+		// Scanning where they stand is warmed up too, so it has been compiled
+		// before it is measured.
+		for (int i = 0; i < MEASURED_CYCLES; i++) {
+			scanAll(world);
+		}
+
+		com.sun.management.ThreadMXBean threads = allocationCounter();
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < MEASURED_CYCLES; i++) {
+			scanAll(world);
+		}
+		long after = threads.getThreadAllocatedBytes(thread);
+
+		assertEquals("bytes allocated during " + MEASURED_CYCLES + " scans", 0, after - before);
+	}
+
+	private void assertSteadyCyclesAllocateNothing(Properties settings) throws Exception {
+		AWorld world = TestWorlds.create(300, 200, 240, 12345, settings);
+		SimulationEngine engine = new SimulationEngine(world);
+		engine.step(WARM_UP_CYCLES);
+
+		com.sun.management.ThreadMXBean threads = allocationCounter();
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		engine.step(MEASURED_CYCLES);
+		long after = threads.getThreadAllocatedBytes(thread);
+
+		assertEquals("bytes allocated during " + MEASURED_CYCLES + " cycles", 0, after - before);
+	}
+
+	private static void scanAll(AWorld world) {
+		List<ALifeForm> lifeForms = world.getLifeFormList();
+		for (int i = 0; i < lifeForms.size(); i++) {
+			ALifeForm a = lifeForms.get(i);
+			if (a.isAlive()) {
+				a.scan();
+			}
+		}
+	}
+
+	/**
+	 * @return the thread bean, skipping the test if it cannot count the bytes
+	 *         a thread allocates.
+	 */
+	private static com.sun.management.ThreadMXBean allocationCounter() {
+		// Counting the bytes a thread allocates is an extension of the JDK's
+		// own virtual machine, which other virtual machines may not have.
+		assumeTrue(hasAllocationCounter());
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		return threads;
+	}
+
+	private static boolean hasAllocationCounter() {
+		try {
+			return Class.forName("com.sun.management.ThreadMXBean").isInstance(ManagementFactory.getThreadMXBean());
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+}
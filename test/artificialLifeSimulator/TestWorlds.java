@@ -0,0 +1,128 @@
+package artificialLifeSimulator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+import lifeFormTypes.ACarnivore;
+import lifeFormTypes.AHerbivore;
+import worldObjects.ALifeForm;
+
+/**
+ * Builds small seeded worlds for the tests. Each world is given its own
+ * configuration file in a temporary folder, so the tests never read or change
+ * the configuration used by the user interface.
+ *
+ * @author Jed Brennen
+ *
+ */
+final class TestWorlds {
+
+	private TestWorlds() {
+	}
+
+	/**
+	 * Creates a world with food, obstacles and LifeForms placed from a seed.
+	 * Every fourth LifeForm is a carnivore and the rest are herbivores.
+	 *
+	 * @param width
+	 *            - the number of columns in the map.
+	 * @param height
+	 *            - the number of rows in the map.
+	 * @param lifeForms
+	 *            - the number of LifeForms to place.
+	 * @param seed
+	 *            - the seed for the world's random numbers.
+	 * @return the new world.
+	 * @throws IOException
+	 *             if the configuration file could not be written.
+	 */
+	static AWorld create(int width, int height, int lifeForms, long seed) throws IOException {
+		return create(width, height, lifeForms, seed, new Properties());
+	}
+
+	/**
+	 * Creates a world with food, obstacles and LifeForms placed from a seed,
+	 * along with other configuration settings such as the type of grid.
+	 *
+	 * @param width
+	 *            - the number of columns in the map.
+	 * @param height
+	 *            - the number of rows in the map.
+	 * @param lifeForms
+	 *            - the number of LifeForms to place.
+	 * @param seed
+	 *            - the seed for the world's random numbers.
+	 * @param settings
+	 *            - other configuration properties for the world.
+	 * @return the new world.
+	 * @throws IOException
+	 *             if the configuration file could not be written.
+	 */
+	static AWorld create(int width, int height, int lifeForms, long seed, Properties settings) throws IOException {
+		return create(configure(width, height, seed, settings), lifeForms);
+	}
+
+	/**
+	 * Writes the configuration file for a seeded world, so that a test can
+	 * save the world and load it again.
+	 *
+	 * @param width
+	 *            - the number of columns in the map.
+	 * @param height
+	 *            - the number of rows in the map.
+	 * @param seed
+	 *            - the seed for the world's random numbers.
+	 * @param settings
+	 *            - other configuration properties for the world.
+	 * @return the new configuration.
+	 * @throws IOException
+	 *             if the configuration file could not be written.
+	 */
+	static Configuration configure(int width, int height, long seed, Properties settings) throws IOException {
+		Properties p = new Properties();
+		p.putAll(settings);
+		p.setProperty("mapWidth", Integer.toString(width));
+		p.setProperty("mapHeight", Integer.toString(height));
+		p.setProperty("foodDensity", "0.3");
+		p.setProperty("objDensity", "0.1");
+		p.setProperty("cycles", "0");
+		p.setProperty("displayIterations", "false");
+		p.setProperty("seed", Long.toString(seed));
+		File file = File.createTempFile("testWorld", ".xml");
+		file.deleteOnExit();
+		new File(file.getPath().substring(0, file.getPath().lastIndexOf('.')) + ".world").deleteOnExit();
+		try (FileOutputStream fos = new FileOutputStream(file)) {
+			p.storeToXML(fos, "");
+		}
+		return new Configuration(file);
+	}
+
+	/**
+	 * Creates a world with food, obstacles and LifeForms placed from the seed
+	 * in a configuration.
+	 *
+	 * @param config
+	 *            - the configuration of the world.
+	 * @param lifeForms
+	 *            - the number of LifeForms to place.
+	 * @return the new world.
+	 */
+	static AWorld create(Configuration config, int lifeForms) {
+		AWorld world = new AWorld(config);
+		for (int id = 1; id <= lifeForms; id++) {
+			ALifeForm lf;
+			if (id % 4 == 0) {
+				lf = new ACarnivore(world, "LF " + id, 30, id);
+			} else {
+				lf = new AHerbivore(world, "LF " + id, 30, id);
+			}
+			world.addLifeForm(lf);
+			world.placeLifeForm(lf);
+		}
+		world.placeFood(true);
+		world.placeObstacles(true);
+		return world;
+	}
+}